@@ -0,0 +1,46 @@
+#!/usr/bin/env sh
+# Runs the JMH benchmarks and writes the results as JSON to target/jmh/<commit>-<timestamp>.json.
+#
+# Usage: ./benchmarks.sh [include-regex] [baseline.json]
+#   ./benchmarks.sh                                   all benchmarks
+#   ./benchmarks.sh JwtAuthenticationFilterBenchmark  one class
+#   ./benchmarks.sh '.*' target/jmh/abc123-....json   run and compare against an earlier result
+# Extra JMH options can be passed through JMH_ARGS, e.g. JMH_ARGS="-f 2 -prof gc".
+set -e
+
+cd "$(dirname "$0")"
+
+INCLUDE="${1:-.*Benchmark.*}"
+BASELINE="$2"
+COMMIT="$(git rev-parse --short HEAD 2>/dev/null || echo local)"
+RESULT="target/jmh/${COMMIT}-$(date +%Y%m%d-%H%M%S).json"
+mkdir -p target/jmh
+
+./mvnw -B -q -Pbenchmarks test-compile exec:exec \
+  -Djmh.include="$INCLUDE" -Djmh.result="$PWD/$RESULT" -Djmh.args="${JMH_ARGS:-}"
+
+echo "Results written to $RESULT"
+
+if [ -n "$BASELINE" ]; then
+  python3 - "$BASELINE" "$RESULT" <<'PY'
+import json, sys
+
+def load(path):
+    with open(path) as f:
+        rows = json.load(f)
+    return {(r["benchmark"], tuple(sorted(r.get("params", {}).items()))): r["primaryMetric"] for r in rows}
+
+baseline, current = load(sys.argv[1]), load(sys.argv[2])
+print(f"{'benchmark':<80} {'baseline':>14} {'current':>14} {'change':>8}")
+for key, metric in sorted(current.items()):
+    name = key[0].rsplit(".", 2)[-2] + "." + key[0].rsplit(".", 1)[-1]
+    if key[1]:
+        name += " " + ",".join(f"{k}={v}" for k, v in key[1])
+    old = baseline.get(key)
+    if old is None or not old["score"]:
+        print(f"{name:<80} {'-':>14} {metric['score']:>14.3f} {'new':>8}  {metric['scoreUnit']}")
+        continue
+    change = (metric["score"] - old["score"]) / old["score"] * 100
+    print(f"{name:<80} {old['score']:>14.3f} {metric['score']:>14.3f} {change:>+7.1f}%  {metric['scoreUnit']}")
+PY
+fi
@@ -0,0 +1,59 @@
+package org.example.bankingapplication.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.bankingapplication.exceptions.AccountNotFoundException;
+import org.example.bankingapplication.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Maps a user id to the account number stored on the {@code users} row. The mapping is assigned
+ * at registration and never changes, so entries need no invalidation; misses are resolved with a
+ * single-column primary key lookup rather than loading the {@code User} or {@code Account}.
+ */
+@Component
+public class AccountNumberCache implements MeterBinder {
+
+    private final UserRepository userRepository;
+    private final Cache<UUID, String> cache;
+
+    public AccountNumberCache(UserRepository userRepository,
+                              @Value("${app.accounts.account-number-cache.max-size:100000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    public String getAccountNumber(UUID userId) {
+        // Loaded outside the cache's compute: the JDBC call must not run under its synchronized bin lock,
+        // which would pin a virtual thread. A duplicate load on a race is harmless for an immutable mapping.
+        String accountNumber = cache.getIfPresent(userId);
+        if (accountNumber == null) {
+            accountNumber = userRepository.findAccountNumberById(userId)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+            cache.put(userId, accountNumber);
+        }
+        return accountNumber;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "account-number");
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+}
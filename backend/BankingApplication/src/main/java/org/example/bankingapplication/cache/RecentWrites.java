@@ -0,0 +1,45 @@
+package org.example.bankingapplication.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Accounts that money moved in or out of within {@code app.datasource.replica.read-your-writes-window}. The
+ * {@link org.example.bankingapplication.config.ReplicaRoutingDataSource} keeps the reads of their owners on the
+ * primary meanwhile, so neither side of a movement reads from a replica that has not caught up with it. Movements
+ * mark every account they touch once they are applied, whichever engine applied them. The window has to cover
+ * replication lag, and on the {@code LEDGER} engine the projection lag as well. Nothing is tracked when replicas are
+ * disabled.
+ */
+@Component
+public class RecentWrites {
+
+    private final Cache<String, Boolean> accounts;
+
+    public RecentWrites(@Value("${app.datasource.replica.enabled:false}") boolean enabled,
+                        @Value("${app.datasource.replica.read-your-writes-window:PT5S}") Duration window,
+                        @Value("${app.datasource.replica.max-tracked-writers:100000}") long maxTrackedAccounts) {
+        this.accounts = enabled
+                ? Caffeine.newBuilder().maximumSize(maxTrackedAccounts).expireAfterWrite(window).build()
+                : null;
+    }
+
+    public void mark(String... accountNumbers) {
+        if (accounts == null) {
+            return;
+        }
+        for (String accountNumber : accountNumbers) {
+            if (accountNumber != null) {
+                accounts.put(accountNumber, Boolean.TRUE);
+            }
+        }
+    }
+
+    public boolean isRecent(String accountNumber) {
+        return accounts != null && accountNumber != null && accounts.getIfPresent(accountNumber) != null;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.bankingapplication.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bankingapplication.model.RevokedToken;
+import org.example.bankingapplication.repository.RevokedTokenRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked JWT ids ({@code jti}) that lets the stateless auth mode reject logged-out tokens without
+ * a query. The {@code revoked_tokens} table is the source of truth: it is loaded at startup, every revocation on this
+ * instance is written through, and revocations made by other instances are picked up on the next refresh. Entries
+ * are kept only until the token itself expires, after which the JWT parser rejects it anyway.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenDenylist implements MeterBinder {
+
+    // Rows can commit slightly after their revoked_at timestamp; re-reading a short window keeps them from being missed.
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Map<UUID, LocalDateTime> revoked = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastRefresh;
+
+    @PostConstruct
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findUnexpired(now).forEach(this::remember);
+        lastRefresh = now;
+        log.info("Loaded {} revoked token ids", revoked.size());
+    }
+
+    public boolean isRevoked(UUID jti) {
+        return revoked.containsKey(jti);
+    }
+
+    public void revoke(UUID jti, LocalDateTime expiresAt) {
+        if (jti == null || expiresAt == null || !expiresAt.isAfter(LocalDateTime.now())) {
+            return;
+        }
+        revoked.put(jti, expiresAt);
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(jti)
+                .expiresAt(expiresAt)
+                .revokedAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.token-denylist.refresh-interval:PT10S}")
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findRevokedSince(lastRefresh.minus(REFRESH_OVERLAP), now).forEach(this::remember);
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        lastRefresh = now;
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.token-denylist.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int purged = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired revoked token ids", purged);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("security.token.denylist.size", revoked, Map::size)
+                .description("Revoked, not yet expired token ids held in memory")
+                .register(registry);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private void remember(RevokedToken revokedToken) {
+        revoked.put(revokedToken.getJti(), revokedToken.getExpiresAt());
+    }
+}
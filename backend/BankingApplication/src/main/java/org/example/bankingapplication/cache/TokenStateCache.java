@@ -0,0 +1,147 @@
+package org.example.bankingapplication.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.bankingapplication.repository.TokenRepository;
+import org.example.bankingapplication.utils.TokenDigest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers whether a stored token is still active so the JWT filter only queries the
+ * {@code tokens} table on a miss. Entries are keyed by the SHA-256 of the token and live until
+ * the JWT itself expires. Every code path that revokes or deletes tokens must call
+ * {@link #invalidateAfterCommit(String)} or {@link #invalidateHashAfterCommit(byte[])}; the cache is local to this
+ * instance.
+ * Misses are loaded on a separate virtual thread so the repository call never runs inside the
+ * cache's synchronized compute, where it would pin the calling virtual thread to its carrier.
+ */
+@Component
+public class TokenStateCache implements MeterBinder {
+
+    private final TokenRepository tokenRepository;
+    private final AsyncCache<String, TokenState> cache;
+    private final ExecutorService loadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public TokenStateCache(TokenRepository tokenRepository,
+                           @Value("${app.security.token-cache.max-size:100000}") long maxSize) {
+        this.tokenRepository = tokenRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .buildAsync();
+    }
+
+    public boolean isTokenActive(String jwt, Date expiresAt) {
+        byte[] tokenHash = TokenDigest.sha256(jwt);
+        CompletableFuture<TokenState> state = cache.get(TokenDigest.toHex(tokenHash),
+                (key, executor) -> CompletableFuture.supplyAsync(() -> load(tokenHash, expiresAt), loadExecutor));
+        try {
+            return state.join().active();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    public void invalidate(String jwt) {
+        if (jwt != null) {
+            invalidateHash(TokenDigest.sha256(jwt));
+        }
+    }
+
+    public void invalidateHash(byte[] tokenHash) {
+        if (tokenHash != null) {
+            cache.synchronous().invalidate(TokenDigest.toHex(tokenHash));
+        }
+    }
+
+    /**
+     * Evicts the token once the surrounding transaction commits, or right away outside one. Evicting before the
+     * commit would let a concurrent request reload the still-active row and cache it until the JWT expires.
+     */
+    public void invalidateAfterCommit(String jwt) {
+        if (jwt != null) {
+            invalidateHashAfterCommit(TokenDigest.sha256(jwt));
+        }
+    }
+
+    public void invalidateHashAfterCommit(byte[] tokenHash) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateHash(tokenHash);
+                }
+            });
+        } else {
+            invalidateHash(tokenHash);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "token-state");
+    }
+
+    public long getHitCount() {
+        return cache.synchronous().stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.synchronous().stats().missCount();
+    }
+
+    public long getSize() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    private TokenState load(byte[] tokenHash, Date expiresAt) {
+        boolean active = tokenRepository.findByTokenHash(tokenHash)
+                .map(t -> !t.isExpired() && !t.isRevoked())
+                .orElse(false);
+        return new TokenState(active, expiresAt.getTime());
+    }
+
+    private record TokenState(boolean active, long expiresAtMillis) {
+    }
+
+    private static class TokenExpiry implements Expiry<String, TokenState> {
+
+        @Override
+        public long expireAfterCreate(String key, TokenState value, long currentTime) {
+            long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenState value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenState value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
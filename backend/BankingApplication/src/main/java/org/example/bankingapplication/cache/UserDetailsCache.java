@@ -0,0 +1,80 @@
+package org.example.bankingapplication.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.bankingapplication.repository.UserRepository;
+import org.example.bankingapplication.userDetails.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Caches the {@link CustomUserDetails} snapshot per username so the JWT filter and login do not query
+ * {@code users} on every request. {@link UserDetailsCacheInvalidator} evicts an entry after any committed change to
+ * the user through JPA; bulk JPQL updates bypass it and must call {@link #invalidate(String)} themselves.
+ * The cache is local to this instance, so entries also expire after a fixed time to bound staleness across nodes.
+ * Misses are loaded on a separate virtual thread, as in {@link TokenStateCache}. The pending load is the cache entry,
+ * so an eviction that lands while a row is being read drops that load instead of letting it store the old row.
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+    private final UserRepository userRepository;
+    private final AsyncCache<String, CustomUserDetails> cache;
+    private final ExecutorService loadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public UserDetailsCache(UserRepository userRepository,
+                            @Value("${app.security.user-details-cache.max-size:100000}") long maxSize,
+                            @Value("${app.security.user-details-cache.ttl:PT5M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public CustomUserDetails getUserDetails(String username) {
+        CompletableFuture<CustomUserDetails> userDetails = cache.get(username,
+                (key, executor) -> CompletableFuture.supplyAsync(() -> load(key), loadExecutor));
+        try {
+            return userDetails.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    public void invalidate(String username) {
+        cache.synchronous().invalidate(username);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "user-details");
+    }
+
+    public long getHitCount() {
+        return cache.synchronous().stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.synchronous().stats().missCount();
+    }
+
+    private CustomUserDetails load(String username) {
+        return userRepository.findUserDetailsByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.bankingapplication.cache;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.example.bankingapplication.model.User;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on {@link User} that evicts the cached {@link UserDetailsCache} entry whenever a user row is updated
+ * or deleted, covering password and role changes. Eviction waits for the transaction to finish so a concurrent
+ * request cannot reload the old row before the change commits. Created by Hibernate through Spring, which resolves
+ * the provider; contexts without a {@link UserDetailsCache} simply skip eviction.
+ */
+public class UserDetailsCacheInvalidator {
+
+    private final ObjectProvider<UserDetailsCache> userDetailsCache;
+
+    public UserDetailsCacheInvalidator(ObjectProvider<UserDetailsCache> userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    void onUserChanged(User user) {
+        String username = user.getUsername();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(username);
+                }
+            });
+        } else {
+            invalidate(username);
+        }
+    }
+
+    private void invalidate(String username) {
+        userDetailsCache.ifAvailable(cache -> cache.invalidate(username));
+    }
+}
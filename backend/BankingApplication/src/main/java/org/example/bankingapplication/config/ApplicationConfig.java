@@ -1,9 +1,9 @@
 package org.example.bankingapplication.config;
 
 import lombok.RequiredArgsConstructor;
-import org.example.bankingapplication.model.User;
-import org.example.bankingapplication.repository.UserRepository;
-import org.example.bankingapplication.userDetails.CustomUserDetails;
+import org.example.bankingapplication.cache.UserDetailsCache;
+import org.example.bankingapplication.security.BoundedPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,22 +11,26 @@ import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
-    private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+
+    @Value("${app.security.password-hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${app.security.password-hashing.queue-capacity:32}")
+    private int hashingQueueCapacity;
+
+    @Value("${app.security.password-hashing.timeout-ms:5000}")
+    private long hashingTimeoutMillis;
 
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> {
-            User user = userRepository.findUserByUsername(username)
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-            return new CustomUserDetails(user);
-        };
+        return userDetailsCache::getUserDetails;
     }
 
     @Bean
@@ -43,7 +47,9 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public Argon2PasswordEncoder passwordEncoder() {
-        return new Argon2PasswordEncoder(16, 32, 1, 65536, 2);
+    public BoundedPasswordEncoder passwordEncoder() {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new Argon2PasswordEncoder(16, 32, 1, 65536, 2),
+                threads, hashingQueueCapacity, hashingTimeoutMillis);
     }
 }
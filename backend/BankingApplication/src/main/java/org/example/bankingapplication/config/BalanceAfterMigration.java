@@ -0,0 +1,137 @@
+package org.example.bankingapplication.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bankingapplication.model.Transaction;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Backfills {@code transactions.balance_after} for rows written before the column existed. Each account's history
+ * is walked newest first, in history order ({@code transaction_date DESC, id ASC}): the walk starts from the
+ * account's current balance, or from the newest row that already has a value, and undoes one movement per row.
+ * The history is read in keyset pages, one transaction per page, and each page's updates go out as one JDBC batch;
+ * only the running balance and the page's last key are carried to the next page. The account row is locked while
+ * the first page is read, so the starting balance matches the newest rows. Accounts with balance shards are
+ * skipped: credits to their shards carry no running balance. Runs after the transaction journal has replayed and
+ * before the web server starts accepting requests.
+ */
+@Slf4j
+@Component
+public class BalanceAfterMigration implements SmartInitializingSingleton {
+
+    private static final int BATCH_SIZE = 100;
+    private static final int PAGE_SIZE = 500;
+
+    private static final String BALANCE = "SELECT a.balance FROM Account a WHERE a.accountNumber = :accountNumber";
+    private static final String FIRST_PAGE = "FROM transactions t WHERE t.accountNumber = :accountNumber " +
+            "ORDER BY t.transactionDate DESC, t.id ASC";
+    private static final String PAGE_AFTER = "FROM transactions t WHERE t.accountNumber = :accountNumber " +
+            "AND (t.transactionDate < :transactionDate OR (t.transactionDate = :transactionDate AND t.id > :id)) " +
+            "ORDER BY t.transactionDate DESC, t.id ASC";
+
+    private final SessionFactory sessionFactory;
+    private final TransactionRepository transactionRepository;
+
+    public BalanceAfterMigration(EntityManagerFactory entityManagerFactory,
+                                 TransactionRepository transactionRepository) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.transactionRepository = transactionRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int migrated = 0;
+        String after = "";
+        List<String> batch;
+        while (!(batch = transactionRepository.findAccountNumbersWithoutBalanceAfter(after, PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+            for (String accountNumber : batch) {
+                migrated += backfill(accountNumber);
+            }
+            after = batch.get(batch.size() - 1);
+        }
+        if (migrated > 0) {
+            log.info("Backfilled balance_after for {} transaction rows", migrated);
+        }
+    }
+
+    private int backfill(String accountNumber) {
+        Walk walk = null;
+        int changed = 0;
+        do {
+            walk = backfillPage(accountNumber, walk);
+            changed += walk.changed();
+        } while (walk.rows() == PAGE_SIZE);
+        return changed;
+    }
+
+    private Walk backfillPage(String accountNumber, Walk previous) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(PAGE_SIZE);
+            org.hibernate.Transaction transaction = session.beginTransaction();
+            try {
+                BigDecimal running;
+                List<Transaction> page;
+                if (previous == null) {
+                    // Rows of a deleted account cannot be anchored; zero keeps the walk consistent.
+                    running = session.createSelectionQuery(BALANCE, BigDecimal.class)
+                            .setParameter("accountNumber", accountNumber)
+                            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                            .uniqueResultOptional()
+                            .orElse(BigDecimal.ZERO);
+                    page = session.createSelectionQuery(FIRST_PAGE, Transaction.class)
+                            .setParameter("accountNumber", accountNumber)
+                            .setMaxResults(PAGE_SIZE)
+                            .getResultList();
+                } else {
+                    running = previous.running();
+                    page = session.createSelectionQuery(PAGE_AFTER, Transaction.class)
+                            .setParameter("accountNumber", accountNumber)
+                            .setParameter("transactionDate", previous.transactionDate())
+                            .setParameter("id", previous.id())
+                            .setMaxResults(PAGE_SIZE)
+                            .getResultList();
+                }
+                int changed = 0;
+                for (Transaction row : page) {
+                    if (row.getBalanceAfter() != null) {
+                        running = row.getBalanceAfter();
+                    } else {
+                        row.setBalanceAfter(running);
+                        session.update(row);
+                        changed++;
+                    }
+                    running = row.getTransactionType().isDebit()
+                            ? running.add(row.getAmount())
+                            : running.subtract(row.getAmount());
+                }
+                transaction.commit();
+                Transaction last = page.isEmpty() ? null : page.get(page.size() - 1);
+                return new Walk(running,
+                        last == null ? null : last.getTransactionDate(),
+                        last == null ? null : last.getId(),
+                        page.size(),
+                        changed);
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Where one page of the walk ended: the balance before its oldest row and that row's key.
+    private record Walk(BigDecimal running, LocalDateTime transactionDate, UUID id, int rows, int changed) {
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.bankingapplication.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.bankingapplication.cache.RecentWrites;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * With {@code app.datasource.replica.enabled}, {@code dataSource} becomes a {@link ReplicaRoutingDataSource}
+     * over two Hikari pools: {@code primary}, configured by {@code spring.datasource.*}, and {@code replica},
+     * configured by {@code app.datasource.replica.*}. Both pools report their own {@code hikaricp.*} metrics.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    static class ReplicaRoutingConfiguration {
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            dataSource.setPoolName("primary");
+            return dataSource;
+        }
+
+        @Bean
+        @ConfigurationProperties("app.datasource.replica.hikari")
+        public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                                  @Value("${app.datasource.replica.url}") String url,
+                                                  @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                                  @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setPoolName("replica");
+            return dataSource;
+        }
+
+        @Bean
+        public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                                                 RecentWrites recentWrites) {
+            return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, recentWrites);
+        }
+
+        // The routing decision needs the transaction's read-only flag, which is only set after the transaction
+        // manager has asked for a connection; the lazy proxy defers the real one to the first statement.
+        @Bean
+        @Primary
+        public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+            return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.bankingapplication.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.bankingapplication.cache.RecentWrites;
+import org.example.bankingapplication.userDetails.CustomUserDetails;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the connections of {@code @Transactional(readOnly = true)} work of an authenticated account holder to the
+ * replica pool, and everything else to the primary. A holder whose account was moved recently, as tracked by
+ * {@link RecentWrites}, reads from the primary, so neither the sender nor the receiver of a movement sees a replica
+ * that has not caught up with it yet.
+ * <p>
+ * The read-only flag is only known once the transaction has started, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}. Reads without an authenticated user
+ * (login, token checks in the filter chain, scheduled jobs) stay on the primary: Spring Data runs plain repository
+ * reads as read-only transactions, and those callers cannot tolerate replication lag.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final RecentWrites recentWrites;
+    private final AtomicLong primaryConnections = new AtomicLong();
+    private final AtomicLong replicaConnections = new AtomicLong();
+    private final AtomicLong readYourWrites = new AtomicLong();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, RecentWrites recentWrites) {
+        this.recentWrites = recentWrites;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Target target = route();
+        (target == Target.REPLICA ? replicaConnections : primaryConnections).incrementAndGet();
+        return target;
+    }
+
+    private Target route() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Target.PRIMARY;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String accountNumber = authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof CustomUserDetails user ? user.getAccountNumber() : null;
+        if (accountNumber == null) {
+            return Target.PRIMARY;
+        }
+        if (recentWrites.isRecent(accountNumber)) {
+            readYourWrites.incrementAndGet();
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("banking.datasource.routed", primaryConnections, AtomicLong::get)
+                .tag("target", "primary")
+                .description("Connections taken from the primary pool through the routing data source")
+                .register(registry);
+        FunctionCounter.builder("banking.datasource.routed", replicaConnections, AtomicLong::get)
+                .tag("target", "replica")
+                .description("Connections taken from the replica pool through the routing data source")
+                .register(registry);
+        FunctionCounter.builder("banking.datasource.read_your_writes", readYourWrites, AtomicLong::get)
+                .description("Read-only transactions kept on the primary because their account was moved recently")
+                .register(registry);
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.bankingapplication.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.retry.support.RetryTemplate;
+
+@Configuration
+@EnableRetry
+public class RetryConfig {
+
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    /**
+     * Retries a unit of work that ends in its own commit when that commit loses a version check. Same settings as
+     * the {@code @Retryable} on {@code TransactionService#transfer}, for callers that own a wider transaction.
+     */
+    @Bean
+    public RetryTemplate optimisticRetryTemplate(@Value("${app.transactions.optimistic-retry.max-attempts:5}") int maxAttempts,
+                                                 @Value("${app.transactions.optimistic-retry.backoff-ms:5}") long backoffMillis) {
+        return RetryTemplate.builder()
+                .maxAttempts(maxAttempts)
+                .exponentialBackoff(backoffMillis, 2, MAX_BACKOFF_MILLIS, true)
+                .retryOn(OptimisticLockingFailureException.class)
+                .build();
+    }
+}
@@ -28,6 +28,9 @@ public class SecurityConfig {
 
     private static final String[] WHITE_LIST_URL = {"/api/v1/auth/register", "/api/v1/auth/login", "/api/v1/auth/logout", "/error"};
 
+    // Served on the management port, which should only be reachable from the monitoring network.
+    private static final String[] MANAGEMENT_URL = {"/actuator/health", "/actuator/prometheus"};
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http
@@ -36,6 +39,7 @@ public class SecurityConfig {
                 .authorizeHttpRequests(req -> req
                                 .requestMatchers("/api/v1/account/**").hasAnyRole("USER", "ADMIN")
                                 .requestMatchers(WHITE_LIST_URL).permitAll()
+                                .requestMatchers(MANAGEMENT_URL).permitAll()
                                 .anyRequest()
                                 .authenticated()
                 )
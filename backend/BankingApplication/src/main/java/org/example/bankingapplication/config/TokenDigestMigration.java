@@ -0,0 +1,106 @@
+package org.example.bankingapplication.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.bankingapplication.model.Token;
+import org.example.bankingapplication.repository.TokenRepository;
+import org.example.bankingapplication.utils.TokenDigest;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Backfills {@code tokens.token_hash} for rows written before tokens were looked up by digest, one transaction per
+ * batch. Runs before the web server starts accepting requests. Unless raw tokens are still persisted, the raw JWT is
+ * cleared from migrated rows. Afterwards the old unique index on {@code tokens.token}, which {@code ddl-auto=update}
+ * never drops, is removed: nothing looks tokens up by that column any more.
+ */
+@Slf4j
+@Component
+public class TokenDigestMigration implements SmartInitializingSingleton {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String TABLE = "tokens";
+    private static final String RAW_TOKEN_COLUMN = "token";
+
+    private final TokenRepository tokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean persistRawToken;
+
+    public TokenDigestMigration(TokenRepository tokenRepository,
+                                PlatformTransactionManager transactionManager,
+                                JdbcTemplate jdbcTemplate,
+                                @Value("${app.security.token-digest.persist-raw-token:false}") boolean persistRawToken) {
+        this.tokenRepository = tokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = jdbcTemplate;
+        this.persistRawToken = persistRawToken;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int migrated = 0;
+        int batchSize;
+        while ((batchSize = transactionTemplate.execute(status -> migrateBatch())) > 0) {
+            migrated += batchSize;
+        }
+        if (migrated > 0) {
+            log.info("Backfilled token digests for {} stored tokens", migrated);
+        }
+        for (String index : rawTokenIndexes()) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP INDEX " + index);
+            log.info("Dropped unique index {} on {}.{}", index, TABLE, RAW_TOKEN_COLUMN);
+        }
+    }
+
+    private int migrateBatch() {
+        List<Token> batch = tokenRepository.findByTokenHashIsNull(PageRequest.of(0, BATCH_SIZE));
+        List<Token> unusable = batch.stream().filter(token -> token.getToken() == null).toList();
+        List<Token> migratable = batch.stream().filter(token -> token.getToken() != null).toList();
+        migratable.forEach(token -> {
+            token.setTokenHash(TokenDigest.sha256(token.getToken()));
+            if (!persistRawToken) {
+                token.setToken(null);
+            }
+        });
+        tokenRepository.deleteAll(unusable);
+        tokenRepository.saveAll(migratable);
+        return batch.size();
+    }
+
+    // Unique indexes whose only column is the raw token, read from the JDBC metadata so the check does not depend
+    // on the name Hibernate generated for the index.
+    private List<String> rawTokenIndexes() {
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase(Locale.ROOT) : TABLE;
+            Map<String, List<String>> columnsByIndex = new LinkedHashMap<>();
+            try (ResultSet indexInfo = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, true, false)) {
+                while (indexInfo.next()) {
+                    String index = indexInfo.getString("INDEX_NAME");
+                    String column = indexInfo.getString("COLUMN_NAME");
+                    if (index != null && column != null) {
+                        columnsByIndex.computeIfAbsent(index, name -> new ArrayList<>()).add(column);
+                    }
+                }
+            }
+            return columnsByIndex.entrySet().stream()
+                    .filter(entry -> entry.getValue().size() == 1 && entry.getValue().get(0).equalsIgnoreCase(RAW_TOKEN_COLUMN))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        });
+    }
+}
@@ -6,11 +6,13 @@ import org.example.bankingapplication.dto.login.LoginRequestDTO;
 import org.example.bankingapplication.dto.login.LoginResponseDTO;
 import org.example.bankingapplication.dto.register.RegisterRequestDTO;
 import org.example.bankingapplication.dto.register.RegisterResponseDTO;
+import org.example.bankingapplication.exceptions.HashingCapacityExceededException;
 import org.example.bankingapplication.exceptions.UserAlreadyExistsException;
 import org.example.bankingapplication.exceptions.UserAlreadyLoggedInException;
 import org.example.bankingapplication.exceptions.UserNotFoundException;
 import org.example.bankingapplication.exceptions.UsernameOrPasswordInvalidException;
 import org.example.bankingapplication.service.AuthService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -46,6 +48,10 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new LoginResponseDTO(e.getMessage()));
         } catch (UsernameOrPasswordInvalidException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new LoginResponseDTO(e.getMessage()));
+        } catch (HashingCapacityExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new LoginResponseDTO(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new LoginResponseDTO(e.getMessage()));
         }
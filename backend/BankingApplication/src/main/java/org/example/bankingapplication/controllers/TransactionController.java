@@ -2,16 +2,24 @@ package org.example.bankingapplication.controllers;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.bankingapplication.dto.transaction.BatchTransferRequestDTO;
+import org.example.bankingapplication.dto.transaction.BatchTransferResponseDTO;
+import org.example.bankingapplication.dto.transaction.StatementResponseDTO;
+import org.example.bankingapplication.dto.transaction.TransactionPageResponseDTO;
 import org.example.bankingapplication.dto.transaction.TransactionRequestDTO;
 import org.example.bankingapplication.dto.transaction.TransactionResponseDTO;
+import org.example.bankingapplication.enums.ExportFormat;
 import org.example.bankingapplication.exceptions.AccountNotFoundException;
+import org.example.bankingapplication.service.IdempotencyService;
+import org.example.bankingapplication.service.StatementService;
+import org.example.bankingapplication.service.TransactionExportService;
 import org.example.bankingapplication.service.TransactionService;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Collections;
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @RestController
@@ -20,12 +28,19 @@ import java.util.UUID;
 @RequestMapping("/api/v1/account/transactions")
 public class TransactionController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+    private final TransactionExportService transactionExportService;
+    private final StatementService statementService;
 
     @PostMapping("/deposit")
-    public ResponseEntity<TransactionResponseDTO> depositFunds(@Valid @RequestBody TransactionRequestDTO transactionRequestDTO) {
+    public ResponseEntity<TransactionResponseDTO> depositFunds(@Valid @RequestBody TransactionRequestDTO transactionRequestDTO,
+                                                               @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         try {
-            TransactionResponseDTO response = transactionService.deposit(transactionRequestDTO);
+            TransactionResponseDTO response = idempotencyService.execute(idempotencyKey, "deposit", transactionRequestDTO,
+                    () -> transactionService.deposit(transactionRequestDTO));
             return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new TransactionResponseDTO(e.getMessage()));
@@ -35,9 +50,11 @@ public class TransactionController {
     }
 
     @PostMapping("/withdraw")
-    public ResponseEntity<TransactionResponseDTO> withdrawFunds(@Valid @RequestBody TransactionRequestDTO transactionRequestDTO) {
+    public ResponseEntity<TransactionResponseDTO> withdrawFunds(@Valid @RequestBody TransactionRequestDTO transactionRequestDTO,
+                                                                @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         try {
-            TransactionResponseDTO response = transactionService.withdraw(transactionRequestDTO);
+            TransactionResponseDTO response = idempotencyService.execute(idempotencyKey, "withdraw", transactionRequestDTO,
+                    () -> transactionService.withdraw(transactionRequestDTO));
             return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new TransactionResponseDTO(e.getMessage()));
@@ -47,9 +64,11 @@ public class TransactionController {
     }
 
     @PostMapping("/transfer")
-    public ResponseEntity<TransactionResponseDTO> transferFunds(@Valid @RequestBody TransactionRequestDTO transactionRequestDTO) {
+    public ResponseEntity<TransactionResponseDTO> transferFunds(@Valid @RequestBody TransactionRequestDTO transactionRequestDTO,
+                                                                @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         try {
-            TransactionResponseDTO response = transactionService.transfer(transactionRequestDTO);
+            TransactionResponseDTO response = idempotencyService.execute(idempotencyKey, "transfer", transactionRequestDTO,
+                    () -> transactionService.transfer(transactionRequestDTO));
             return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new TransactionResponseDTO(e.getMessage()));
@@ -58,13 +77,55 @@ public class TransactionController {
         }
     }
 
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<BatchTransferResponseDTO> transferFundsBatch(@Valid @RequestBody BatchTransferRequestDTO batchTransferRequestDTO) {
+        try {
+            BatchTransferResponseDTO response = transactionService.transferBatch(batchTransferRequestDTO);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new BatchTransferResponseDTO(e.getMessage()));
+        }
+    }
+
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<TransactionResponseDTO>> getUserTransactions(@PathVariable UUID userId) {
+    public ResponseEntity<TransactionPageResponseDTO> getUserTransactions(@PathVariable UUID userId,
+                                                                          @RequestParam(required = false) String cursor,
+                                                                          @RequestParam(defaultValue = "50") int size) {
         try {
-            List<TransactionResponseDTO> response = transactionService.getAllTransactionsByUserId(userId);
+            TransactionPageResponseDTO response = transactionService.getTransactionsByUserId(userId, cursor, size);
             return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new TransactionPageResponseDTO(e.getMessage()));
         } catch (AccountNotFoundException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Collections.singletonList(new TransactionResponseDTO(e.getMessage())));
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new TransactionPageResponseDTO(e.getMessage()));
         }
     }
+
+    @GetMapping("/user/{userId}/statement")
+    public ResponseEntity<StatementResponseDTO> getUserStatement(@PathVariable UUID userId,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            StatementResponseDTO response = statementService.getStatement(userId, from, to);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new StatementResponseDTO(e.getMessage()));
+        } catch (AccountNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new StatementResponseDTO(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/user/{userId}/export")
+    public ResponseEntity<StreamingResponseBody> exportUserTransactions(@PathVariable UUID userId,
+                                                                        @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        String accountNumber = transactionExportService.getAccountNumberByUserId(userId);
+        StreamingResponseBody body = outputStream -> transactionExportService.export(accountNumber, format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transactions-" + accountNumber + "." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
 }
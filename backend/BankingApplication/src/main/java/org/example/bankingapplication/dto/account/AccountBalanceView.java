@@ -0,0 +1,10 @@
+package org.example.bankingapplication.dto.account;
+
+import java.math.BigDecimal;
+
+/**
+ * Balance, including any balance shards, together with the row version it was read at, so a journal entry can name
+ * the account state it produced.
+ */
+public record AccountBalanceView(BigDecimal balance, long version) {
+}
@@ -22,6 +22,13 @@ public class AccountResponseDTO {
     private BigDecimal balance;
     private String message;
 
+    public AccountResponseDTO(UUID accountId, String accountNumber, String ownerName, BigDecimal balance) {
+        this.accountId = accountId;
+        this.accountNumber = accountNumber;
+        this.ownerName = ownerName;
+        this.balance = balance;
+    }
+
     public AccountResponseDTO(String message) {
         this.message = message;
     }
@@ -0,0 +1,20 @@
+package org.example.bankingapplication.dto.transaction;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferRequestDTO {
+
+    @NotEmpty(message = "At least one transfer is required")
+    private List<@Valid TransactionRequestDTO> transfers;
+}
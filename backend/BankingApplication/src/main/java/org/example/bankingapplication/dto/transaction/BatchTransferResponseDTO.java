@@ -0,0 +1,26 @@
+package org.example.bankingapplication.dto.transaction;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchTransferResponseDTO {
+
+    private int succeeded;
+    private int failed;
+    private List<TransactionResponseDTO> results;
+    private String message;
+
+    public BatchTransferResponseDTO(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.bankingapplication.dto.transaction;
+
+import java.math.BigDecimal;
+
+/**
+ * Credits and debits of one account over a date range, summed by the database.
+ */
+public record MovementTotals(BigDecimal credits, BigDecimal debits, long count) {
+
+    public BigDecimal net() {
+        return credits.subtract(debits);
+    }
+}
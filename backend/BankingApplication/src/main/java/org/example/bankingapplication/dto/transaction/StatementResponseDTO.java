@@ -0,0 +1,32 @@
+package org.example.bankingapplication.dto.transaction;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StatementResponseDTO {
+
+    private String accountNumber;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private BigDecimal openingBalance;
+    private BigDecimal closingBalance;
+    private BigDecimal totalCredits;
+    private BigDecimal totalDebits;
+    private Long transactionCount;
+    private String message;
+
+    public StatementResponseDTO(String message) {
+        this.message = message;
+    }
+}
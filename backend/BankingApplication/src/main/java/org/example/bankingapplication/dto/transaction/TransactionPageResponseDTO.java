@@ -0,0 +1,25 @@
+package org.example.bankingapplication.dto.transaction;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionPageResponseDTO {
+
+    private List<TransactionResponseDTO> transactions;
+    private String nextCursor;
+    private String message;
+
+    public TransactionPageResponseDTO(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.bankingapplication.dto.transaction;
+
+import org.example.bankingapplication.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read model for transaction history, selected with a constructor expression so rows never become managed entities.
+ */
+public record TransactionView(UUID transactionId,
+                                   TransactionType transactionType,
+                                   LocalDateTime transactionDate,
+                                   BigDecimal amount,
+                                   String senderAccountNumber,
+                                   String recipientAccountNumber,
+                                   BigDecimal balanceAfter) {
+}
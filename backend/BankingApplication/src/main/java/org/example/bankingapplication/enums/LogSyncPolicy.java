@@ -0,0 +1,7 @@
+package org.example.bankingapplication.enums;
+
+public enum LogSyncPolicy {
+    ALWAYS,
+    INTERVAL,
+    NONE
+}
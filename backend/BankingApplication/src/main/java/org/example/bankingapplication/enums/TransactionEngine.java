@@ -0,0 +1,6 @@
+package org.example.bankingapplication.enums;
+
+public enum TransactionEngine {
+    JPA,
+    LEDGER
+}
@@ -4,5 +4,9 @@ public enum TransactionType {
     DEPOSIT,
     WITHDRAW,
     TRANSFER_OUT,
-    TRANSFER_IN
+    TRANSFER_IN;
+
+    public boolean isDebit() {
+        return this == WITHDRAW || this == TRANSFER_OUT;
+    }
 }
@@ -0,0 +1,7 @@
+package org.example.bankingapplication.exceptions;
+
+public class HashingCapacityExceededException extends RuntimeException {
+    public HashingCapacityExceededException(String message) {
+        super(message);
+    }
+}
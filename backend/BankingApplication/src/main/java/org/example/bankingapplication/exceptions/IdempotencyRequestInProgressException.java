@@ -0,0 +1,7 @@
+package org.example.bankingapplication.exceptions;
+
+public class IdempotencyRequestInProgressException extends RuntimeException {
+    public IdempotencyRequestInProgressException(String message) {
+        super(message);
+    }
+}
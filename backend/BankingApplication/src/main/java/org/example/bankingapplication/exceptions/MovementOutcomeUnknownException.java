@@ -0,0 +1,7 @@
+package org.example.bankingapplication.exceptions;
+
+public class MovementOutcomeUnknownException extends RuntimeException {
+    public MovementOutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
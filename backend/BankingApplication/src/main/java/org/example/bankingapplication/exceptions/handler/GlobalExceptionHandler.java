@@ -1,6 +1,8 @@
 package org.example.bankingapplication.exceptions.handler;
 
 import org.example.bankingapplication.exceptions.*;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -38,4 +40,36 @@ public class GlobalExceptionHandler {
         ErrorDetails errorDetails = new ErrorDetails(ex.getMessage());
         return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDetails> exceptionOptimisticLockingFailureHandler(OptimisticLockingFailureException ex) {
+        ErrorDetails errorDetails = new ErrorDetails("Account was modified concurrently, please retry");
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorDetails> exceptionIdempotencyKeyReusedHandler(IdempotencyKeyReusedException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(ex.getMessage());
+        return new ResponseEntity<>(errorDetails, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(IdempotencyRequestInProgressException.class)
+    public ResponseEntity<ErrorDetails> exceptionIdempotencyRequestInProgressHandler(IdempotencyRequestInProgressException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(ex.getMessage());
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(MovementOutcomeUnknownException.class)
+    public ResponseEntity<ErrorDetails> exceptionMovementOutcomeUnknownHandler(MovementOutcomeUnknownException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(ex.getMessage() + "; check the transaction history before retrying");
+        return new ResponseEntity<>(errorDetails, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<ErrorDetails> exceptionHashingCapacityExceededHandler(HashingCapacityExceededException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorDetails);
+    }
 }
@@ -1,12 +1,20 @@
 package org.example.bankingapplication.filters;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.RequiredTypeException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
-import org.example.bankingapplication.repository.TokenRepository;
+import org.example.bankingapplication.cache.TokenDenylist;
+import org.example.bankingapplication.cache.TokenStateCache;
+import org.example.bankingapplication.enums.AuthMode;
+import org.example.bankingapplication.enums.Roles;
 import org.example.bankingapplication.service.JwtService;
+import org.example.bankingapplication.userDetails.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,20 +25,57 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private enum Outcome { SKIPPED, ANONYMOUS, REJECTED, AUTHENTICATED, ERROR }
+
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
-    private final TokenRepository tokenRepository;
+    private final TokenStateCache tokenStateCache;
+    private final TokenDenylist tokenDenylist;
+    private final AuthMode authMode;
+    private final Map<Outcome, Timer> timers = new EnumMap<>(Outcome.class);
 
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   UserDetailsService userDetailsService,
+                                   TokenStateCache tokenStateCache,
+                                   TokenDenylist tokenDenylist,
+                                   @Value("${app.security.auth-mode:STATEFUL}") AuthMode authMode,
+                                   MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokenStateCache = tokenStateCache;
+        this.tokenDenylist = tokenDenylist;
+        this.authMode = authMode;
+        for (Outcome outcome : Outcome.values()) {
+            timers.put(outcome, Timer.builder("banking.security.jwt.filter")
+                    .description("Time spent authenticating a request, excluding the rest of the filter chain")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long startNanos = System.nanoTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            outcome = authenticate(request);
+        } finally {
+            timers.get(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Outcome authenticate(HttpServletRequest request) {
 
 //        if (request.getServletPath().contains("/api/v1/auth")) {
 //            filterChain.doFilter(request, response);
@@ -40,33 +85,62 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (request.getServletPath().contains("/api/v1/auth/register") ||
                 request.getServletPath().contains("/api/v1/auth/login") ||
                 request.getServletPath().contains("/api/v1/auth/logout")) {
-            filterChain.doFilter(request, response);
-            return;
+            return Outcome.SKIPPED;
         }
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final Claims claims;
         final String username;
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
+            return Outcome.ANONYMOUS;
         }
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        claims = jwtService.extractAllClaims(jwt);
+        username = claims.getSubject();
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (authMode == AuthMode.STATELESS) {
+                return authenticateFromClaims(request, claims);
+            }
+            var isTokenValidInDb = tokenStateCache.isTokenActive(jwt, claims.getExpiration());
+            if (!isTokenValidInDb) {
+                return Outcome.REJECTED;
+            }
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            var isTokenValidInDb = tokenRepository.findByToken(jwt)
-                    .map(t -> !t.isExpired() && !t.isRevoked())
-                    .orElse(false);
-            var isJwtValid = jwtService.isTokenValid(jwt, userDetails);
-            if (isJwtValid && isTokenValidInDb) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+            var isJwtValid = jwtService.isTokenValid(claims, userDetails);
+            if (isJwtValid) {
+                setAuthentication(request, userDetails);
+                return Outcome.AUTHENTICATED;
             }
+            return Outcome.REJECTED;
         }
-        filterChain.doFilter(request, response);
+        return Outcome.SKIPPED;
+    }
+
+    // The parser has already verified the signature and expiry, so the signed claims are trusted as-is and only
+    // revocation is checked, against the in-memory denylist. No SQL is issued. A signed token whose claims do not
+    // parse (a jti or id that is not a UUID, an unknown role, a claim of the wrong type) is treated as unauthenticated.
+    private Outcome authenticateFromClaims(HttpServletRequest request, Claims claims) {
+        try {
+            String jti = claims.getId();
+            String userId = claims.get("id", String.class);
+            String role = claims.get("role", String.class);
+            if (jti == null || userId == null || role == null || tokenDenylist.isRevoked(UUID.fromString(jti))) {
+                return Outcome.REJECTED;
+            }
+            setAuthentication(request, new CustomUserDetails(UUID.fromString(userId), claims.getSubject(), null,
+                    Roles.valueOf(role), claims.get("account_number", String.class)));
+            return Outcome.AUTHENTICATED;
+        } catch (IllegalArgumentException | RequiredTypeException e) {
+            return Outcome.REJECTED;
+        }
+    }
+
+    private void setAuthentication(HttpServletRequest request, UserDetails userDetails) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
     }
 }
\ No newline at end of file
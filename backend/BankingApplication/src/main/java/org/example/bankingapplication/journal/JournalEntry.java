@@ -0,0 +1,41 @@
+package org.example.bankingapplication.journal;
+
+import org.example.bankingapplication.enums.TransactionType;
+import org.example.bankingapplication.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One {@code transactions} row waiting in the write-ahead journal. {@code accountVersion} is the version of
+ * {@code accountNumber} after the movement, which lets recovery tell a committed movement from one whose
+ * database transaction never finished.
+ */
+public record JournalEntry(UUID id,
+                           TransactionType transactionType,
+                           BigDecimal amount,
+                           String accountNumber,
+                           String receiverAccountNumber,
+                           LocalDateTime transactionDate,
+                           BigDecimal balanceAfter,
+                           long accountVersion) {
+
+    public static JournalEntry of(Transaction transaction, long accountVersion) {
+        return new JournalEntry(transaction.getId(), transaction.getTransactionType(), transaction.getAmount(),
+                transaction.getAccountNumber(), transaction.getReceiverAccountNumber(),
+                transaction.getTransactionDate(), transaction.getBalanceAfter(), accountVersion);
+    }
+
+    public Transaction toTransaction() {
+        return Transaction.builder()
+                .id(id)
+                .transactionType(transactionType)
+                .amount(amount)
+                .accountNumber(accountNumber)
+                .receiverAccountNumber(receiverAccountNumber)
+                .transactionDate(transactionDate)
+                .balanceAfter(balanceAfter)
+                .build();
+    }
+}
@@ -0,0 +1,403 @@
+package org.example.bankingapplication.journal;
+
+import org.example.bankingapplication.enums.TransactionType;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local, append-only journal of money movements whose {@code transactions} rows have not been written yet.
+ * Records go to numbered segment files as {@code [length][crc32][kind][sequence][payload]}; an append returns
+ * once the record is on disk. Appenders that arrive while another thread is in {@code fsync} are covered by
+ * the next one, so concurrent commits share disk flushes.
+ * <p>
+ * Every appended movement stays pending until it is {@linkplain #complete completed} (written to the
+ * database) or {@linkplain #appendAbort aborted}. The checkpoint is the highest sequence below which nothing
+ * is pending; it is kept in a small side file, and segments entirely below it are deleted.
+ */
+public class JournalWriteAheadLog implements Closeable {
+
+    public record Record(long sequence, List<JournalEntry> entries) {
+    }
+
+    private static final byte ENTRIES = 1;
+    private static final byte ABORT = 2;
+    private static final int HEADER_BYTES = 8;
+    private static final int BODY_HEADER_BYTES = 9;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final AtomicLong syncedOffset = new AtomicLong();
+    private final AtomicLong syncCount = new AtomicLong();
+    // Guarded by appendLock: sequence -> System.nanoTime() of the append.
+    private final TreeMap<Long, Long> pending = new TreeMap<>();
+
+    private FileChannel channel;
+    private long segmentSize;
+    private long writtenOffset;
+    private long lastSequence;
+    private long checkpoint;
+    private boolean failed;
+
+    public JournalWriteAheadLog(Path directory, long segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.checkpoint = readCheckpoint();
+        this.lastSequence = checkpoint;
+    }
+
+    /**
+     * Reads all segments and opens the log for appending. A torn record at the end of the last segment (a crash
+     * during a write) is cut off. Returns the movements after the checkpoint that were not aborted, in order.
+     */
+    public List<Record> recover() throws IOException {
+        appendLock.lock();
+        try {
+            List<Path> segments = segments();
+            LinkedHashMap<Long, Record> records = new LinkedHashMap<>();
+            for (int i = 0; i < segments.size(); i++) {
+                Path segment = segments.get(i);
+                boolean last = i == segments.size() - 1;
+                long validBytes = read(segment, records, last);
+                if (last) {
+                    channel = FileChannel.open(segment, StandardOpenOption.WRITE);
+                    if (validBytes < channel.size()) {
+                        channel.truncate(validBytes);
+                        channel.force(true);
+                    }
+                    channel.position(validBytes);
+                    segmentSize = validBytes;
+                }
+            }
+            if (channel == null) {
+                openSegment(lastSequence + 1);
+            }
+            return records.values().stream()
+                    .filter(record -> record.sequence() > checkpoint)
+                    .toList();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long append(List<JournalEntry> entries) {
+        byte[] payload = encode(entries);
+        long sequence;
+        long end;
+        appendLock.lock();
+        try {
+            sequence = write(ENTRIES, payload);
+            pending.put(sequence, System.nanoTime());
+            end = writtenOffset;
+        } finally {
+            appendLock.unlock();
+        }
+        sync(end);
+        return sequence;
+    }
+
+    public void appendAbort(long sequence) {
+        byte[] payload = ByteBuffer.allocate(Long.BYTES).putLong(sequence).array();
+        long end;
+        appendLock.lock();
+        try {
+            write(ABORT, payload);
+            pending.remove(sequence);
+            end = writtenOffset;
+        } finally {
+            appendLock.unlock();
+        }
+        sync(end);
+    }
+
+    public void complete(Collection<Long> sequences) {
+        appendLock.lock();
+        try {
+            sequences.forEach(pending::remove);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Advances the checkpoint past every finished movement and deletes segments that are no longer needed.
+     * The side file is not fsynced: losing an update only means recovery replays rows it then finds present.
+     */
+    public long checkpoint() throws IOException {
+        long newCheckpoint;
+        appendLock.lock();
+        try {
+            newCheckpoint = pending.isEmpty() ? lastSequence : pending.firstKey() - 1;
+            if (newCheckpoint <= checkpoint) {
+                return checkpoint;
+            }
+            checkpoint = newCheckpoint;
+        } finally {
+            appendLock.unlock();
+        }
+
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, Long.toString(newCheckpoint));
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        List<Path> segments = segments();
+        // A segment can go once the next one starts at or below checkpoint + 1; the newest segment always stays.
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (firstSequence(segments.get(i + 1)) - 1 <= newCheckpoint) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+        return newCheckpoint;
+    }
+
+    public int pendingCount() {
+        appendLock.lock();
+        try {
+            return pending.size();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long oldestPendingNanos() {
+        appendLock.lock();
+        try {
+            return pending.isEmpty() ? 0 : System.nanoTime() - pending.firstEntry().getValue();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long syncCount() {
+        return syncCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (channel != null && channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Caller holds appendLock.
+    private long write(byte kind, byte[] payload) {
+        if (channel == null) {
+            throw new IllegalStateException("The journal must be recovered before appending");
+        }
+        if (failed) {
+            throw new UncheckedIOException(new IOException("Journal is unavailable after an earlier write failure"));
+        }
+        try {
+            if (segmentSize >= segmentBytes) {
+                roll();
+            }
+            long sequence = lastSequence + 1;
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + BODY_HEADER_BYTES + payload.length);
+            buffer.putInt(BODY_HEADER_BYTES + payload.length).putInt(0).put(kind).putLong(sequence).put(payload);
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), HEADER_BYTES, BODY_HEADER_BYTES + payload.length);
+            buffer.putInt(Integer.BYTES, (int) crc.getValue());
+            buffer.flip();
+
+            long start = channel.position();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                // A partial record in the middle of the segment would hide every later record from recovery.
+                failed = true;
+                channel.truncate(start);
+                failed = false;
+                throw e;
+            }
+            lastSequence = sequence;
+            segmentSize += buffer.limit();
+            writtenOffset += buffer.limit();
+            return sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void sync(long offset) {
+        if (syncedOffset.get() >= offset) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (syncedOffset.get() >= offset) {
+                return;
+            }
+            FileChannel current;
+            long upTo;
+            appendLock.lock();
+            try {
+                current = channel;
+                upTo = writtenOffset;
+            } finally {
+                appendLock.unlock();
+            }
+            try {
+                current.force(false);
+                syncCount.incrementAndGet();
+                syncedOffset.accumulateAndGet(upTo, Math::max);
+            } catch (ClosedChannelException e) {
+                // The segment was rolled meanwhile, and rolling forces it before closing.
+                if (syncedOffset.get() < offset) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Caller holds appendLock.
+    private void roll() throws IOException {
+        channel.force(false);
+        syncedOffset.accumulateAndGet(writtenOffset, Math::max);
+        channel.close();
+        openSegment(lastSequence + 1);
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        segmentSize = channel.size();
+    }
+
+    private long read(Path segment, Map<Long, Record> records, boolean last) throws IOException {
+        long validBytes = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            while (true) {
+                int length;
+                int checksum;
+                byte[] body;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    if (length < BODY_HEADER_BYTES || length > MAX_BODY_BYTES) {
+                        return torn(segment, validBytes, last);
+                    }
+                    body = new byte[length];
+                    in.readFully(body);
+                } catch (EOFException e) {
+                    return validBytes == Files.size(segment) ? validBytes : torn(segment, validBytes, last);
+                }
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) {
+                    return torn(segment, validBytes, last);
+                }
+
+                ByteBuffer buffer = ByteBuffer.wrap(body);
+                byte kind = buffer.get();
+                long sequence = buffer.getLong();
+                if (kind == ENTRIES) {
+                    records.put(sequence, new Record(sequence, decode(body, BODY_HEADER_BYTES)));
+                } else if (kind == ABORT) {
+                    records.remove(buffer.getLong());
+                }
+                lastSequence = Math.max(lastSequence, sequence);
+                validBytes += HEADER_BYTES + length;
+            }
+        }
+    }
+
+    private static long torn(Path segment, long validBytes, boolean last) {
+        if (!last) {
+            throw new IllegalStateException("Corrupt journal segment " + segment + " at byte " + validBytes);
+        }
+        return validBytes;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(JournalWriteAheadLog::firstSequence))
+                    .toList();
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        return Files.exists(file) ? Long.parseLong(Files.readString(file).trim()) : 0;
+    }
+
+    private static byte[] encode(List<JournalEntry> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96 * entries.size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeShort(entries.size());
+            for (JournalEntry entry : entries) {
+                out.writeLong(entry.id().getMostSignificantBits());
+                out.writeLong(entry.id().getLeastSignificantBits());
+                out.writeUTF(entry.transactionType().name());
+                out.writeUTF(entry.amount().toPlainString());
+                out.writeUTF(entry.accountNumber());
+                out.writeBoolean(entry.receiverAccountNumber() != null);
+                if (entry.receiverAccountNumber() != null) {
+                    out.writeUTF(entry.receiverAccountNumber());
+                }
+                out.writeUTF(entry.transactionDate().toString());
+                out.writeUTF(entry.balanceAfter().toPlainString());
+                out.writeLong(entry.accountVersion());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<JournalEntry> decode(byte[] body, int offset) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body, offset, body.length - offset));
+        int count = in.readShort();
+        List<JournalEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID id = new UUID(in.readLong(), in.readLong());
+            TransactionType type = TransactionType.valueOf(in.readUTF());
+            BigDecimal amount = new BigDecimal(in.readUTF());
+            String accountNumber = in.readUTF();
+            String receiverAccountNumber = in.readBoolean() ? in.readUTF() : null;
+            LocalDateTime transactionDate = LocalDateTime.parse(in.readUTF());
+            BigDecimal balanceAfter = new BigDecimal(in.readUTF());
+            entries.add(new JournalEntry(id, type, amount, accountNumber, receiverAccountNumber, transactionDate,
+                    balanceAfter, in.readLong()));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,300 @@
+package org.example.bankingapplication.journal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bankingapplication.enums.JournalMode;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journal pipeline for {@code app.transactions.journal.mode=ASYNC}. A movement's balance changes still commit in
+ * the request's database transaction, but its {@code transactions} rows are appended to a local
+ * {@link JournalWriteAheadLog} just before that commit and written to the database afterwards by a single
+ * background writer that inserts whatever has queued up in one transaction (group commit).
+ * <p>
+ * On startup any movements left in the log are replayed, whatever the configured mode. A movement counts as
+ * committed when every account it touched has reached the version recorded with it and no later movement
+ * claims the same account version; otherwise its database transaction never committed and it is dropped.
+ */
+@Slf4j
+@Component
+public class TransactionJournal implements MeterBinder {
+
+    private final SessionFactory sessionFactory;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final JournalMode mode;
+    private final Path directory;
+    private final long segmentBytes;
+    private final int batchSize;
+    private final Duration retryBackoff;
+    private final BlockingQueue<JournalWriteAheadLog.Record> queue = new LinkedBlockingQueue<>();
+
+    private volatile JournalWriteAheadLog writeAheadLog;
+    private Thread writer;
+    private volatile boolean running;
+
+    private volatile Timer appendTimer;
+    private volatile Timer flushTimer;
+    private volatile DistributionSummary batchRows;
+
+    public TransactionJournal(EntityManagerFactory entityManagerFactory,
+                              AccountRepository accountRepository,
+                              TransactionRepository transactionRepository,
+                              @Value("${app.transactions.journal.mode:SYNCHRONOUS}") JournalMode mode,
+                              @Value("${app.transactions.journal.directory:data/journal}") Path directory,
+                              @Value("${app.transactions.journal.segment-size:64MB}") DataSize segmentSize,
+                              @Value("${app.transactions.journal.batch-size:500}") int batchSize,
+                              @Value("${app.transactions.journal.retry-backoff:PT1S}") Duration retryBackoff) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.mode = mode;
+        this.directory = directory;
+        this.segmentBytes = segmentSize.toBytes();
+        this.batchSize = batchSize;
+        this.retryBackoff = retryBackoff;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (mode == JournalMode.SYNCHRONOUS && !Files.isDirectory(directory)) {
+            return;
+        }
+        writeAheadLog = new JournalWriteAheadLog(directory, segmentBytes);
+        replay(writeAheadLog.recover());
+        writeAheadLog.checkpoint();
+
+        if (mode == JournalMode.SYNCHRONOUS) {
+            writeAheadLog.close();
+            writeAheadLog = null;
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "transaction-journal-writer");
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (writer != null) {
+            running = false;
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        if (writeAheadLog != null) {
+            writeAheadLog.close();
+        }
+    }
+
+    public boolean isAsync() {
+        return mode == JournalMode.ASYNC;
+    }
+
+    public int pendingRecords() {
+        return writeAheadLog == null ? 0 : writeAheadLog.pendingCount();
+    }
+
+    public Duration oldestPendingAge() {
+        return writeAheadLog == null ? Duration.ZERO : Duration.ofNanos(writeAheadLog.oldestPendingNanos());
+    }
+
+    /**
+     * Journals a movement made in the current database transaction. The entries reach disk before the transaction
+     * commits and the database once it has; a rollback writes an abort marker instead.
+     */
+    public void append(List<JournalEntry> entries) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Journal entries must be appended inside a transaction");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private long sequence = -1;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                long startNanos = System.nanoTime();
+                sequence = writeAheadLog.append(entries);
+                if (appendTimer != null) {
+                    appendTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (sequence < 0) {
+                    return;
+                }
+                if (status == STATUS_COMMITTED) {
+                    queue.add(new JournalWriteAheadLog.Record(sequence, entries));
+                } else if (status == STATUS_ROLLED_BACK) {
+                    writeAheadLog.appendAbort(sequence);
+                } else {
+                    // Left pending on purpose: the next startup decides from the account versions.
+                    log.error("Commit outcome of journal sequence {} is unknown; it will be resolved on restart", sequence);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("banking.journal.lag.records", this, TransactionJournal::pendingRecords)
+                .description("Committed movements whose transaction rows are not in the database yet")
+                .register(registry);
+        Gauge.builder("banking.journal.lag.seconds", this, journal -> journal.oldestPendingAge().toNanos() / 1e9)
+                .description("Age of the oldest movement not yet written to the database")
+                .register(registry);
+        FunctionCounter.builder("banking.journal.wal.syncs", this, journal -> journal.writeAheadLog == null ? 0 : journal.writeAheadLog.syncCount())
+                .description("fsync calls on the journal; fewer than appends when commits share a flush")
+                .register(registry);
+        appendTimer = Timer.builder("banking.journal.wal.append")
+                .description("Time to append a movement to the journal file, including the wait for fsync")
+                .register(registry);
+        flushTimer = Timer.builder("banking.journal.flush")
+                .description("Time to insert one group of journal rows into the database")
+                .register(registry);
+        batchRows = DistributionSummary.builder("banking.journal.batch.size")
+                .description("Transaction rows inserted per group commit")
+                .register(registry);
+    }
+
+    private void runWriter() {
+        List<JournalWriteAheadLog.Record> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                JournalWriteAheadLog.Record first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flushUntilWritten(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flushUntilWritten(List<JournalWriteAheadLog.Record> batch) throws InterruptedException {
+        boolean retry = false;
+        while (true) {
+            try {
+                long startNanos = System.nanoTime();
+                // After a failure the earlier attempt may have committed, so skip rows that are already there.
+                int rows = insert(batch, retry);
+                writeAheadLog.complete(batch.stream().map(JournalWriteAheadLog.Record::sequence).toList());
+                writeAheadLog.checkpoint();
+                if (flushTimer != null) {
+                    flushTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                    batchRows.record(rows);
+                }
+                return;
+            } catch (RuntimeException | IOException e) {
+                log.warn("Writing {} journal records failed, retrying in {}", batch.size(), retryBackoff, e);
+                retry = true;
+                Thread.sleep(retryBackoff.toMillis());
+            }
+        }
+    }
+
+    private int insert(List<JournalWriteAheadLog.Record> records, boolean skipExisting) {
+        List<JournalEntry> entries = new ArrayList<>();
+        records.forEach(record -> entries.addAll(record.entries()));
+        if (skipExisting) {
+            Set<UUID> existing = existingIds(entries);
+            entries.removeIf(entry -> existing.contains(entry.id()));
+        }
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(batchSize);
+            org.hibernate.Transaction transaction = session.beginTransaction();
+            try {
+                entries.forEach(entry -> session.insert(entry.toTransaction()));
+                transaction.commit();
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+        return entries.size();
+    }
+
+    private void replay(List<JournalWriteAheadLog.Record> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        // Highest sequence claiming each account version: a rolled-back movement shares its version with the
+        // next movement on that account.
+        Map<String, Long> latestClaim = new HashMap<>();
+        Set<String> accountNumbers = new HashSet<>();
+        for (JournalWriteAheadLog.Record record : records) {
+            for (JournalEntry entry : record.entries()) {
+                latestClaim.merge(entry.accountNumber() + '@' + entry.accountVersion(), record.sequence(), Math::max);
+                accountNumbers.add(entry.accountNumber());
+            }
+        }
+        Map<String, Long> versions = new HashMap<>();
+        for (Object[] row : accountRepository.findVersionsByAccountNumberIn(accountNumbers)) {
+            versions.put((String) row[0], (Long) row[1]);
+        }
+
+        List<JournalWriteAheadLog.Record> committed = new ArrayList<>();
+        for (JournalWriteAheadLog.Record record : records) {
+            boolean isCommitted = record.entries().stream().allMatch(entry ->
+                    versions.getOrDefault(entry.accountNumber(), -1L) >= entry.accountVersion()
+                            && latestClaim.get(entry.accountNumber() + '@' + entry.accountVersion()) == record.sequence());
+            if (isCommitted) {
+                committed.add(record);
+            } else {
+                log.warn("Dropping journal sequence {}: its database transaction did not commit", record.sequence());
+            }
+        }
+
+        int rows = 0;
+        for (int from = 0; from < committed.size(); from += batchSize) {
+            rows += insert(committed.subList(from, Math.min(from + batchSize, committed.size())), true);
+        }
+        log.info("Journal recovery: {} movements found, {} rows written", records.size(), rows);
+    }
+
+    private Set<UUID> existingIds(List<JournalEntry> entries) {
+        Set<UUID> existing = new HashSet<>();
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<UUID> ids = entries.subList(from, Math.min(from + batchSize, entries.size())).stream()
+                    .map(JournalEntry::id)
+                    .toList();
+            existing.addAll(transactionRepository.findExistingIds(ids));
+        }
+        return existing;
+    }
+}
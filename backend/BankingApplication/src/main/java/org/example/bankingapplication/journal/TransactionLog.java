@@ -0,0 +1,391 @@
+package org.example.bankingapplication.journal;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bankingapplication.enums.LogSyncPolicy;
+import org.example.bankingapplication.enums.TransactionType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local, append-only record of every committed movement, for rebuilding balances and for audits without the
+ * database. Records have a fixed width of {@value #RECORD_BYTES} bytes,
+ * {@code [crc32][id][type ordinal][unscaled amount][scale][account number][epoch micros]}, and are written into
+ * memory-mapped segment files of a fixed number of slots, so an append is a copy into the page cache. When the
+ * pages reach the disk depends on {@code app.transactions.log.sync-policy}: {@code ALWAYS} forces every append,
+ * {@code INTERVAL} forces on a schedule and {@code NONE} leaves it to the operating system.
+ * <p>
+ * A slot whose checksum does not match ends the log; on startup the current segment is cut back to its last good
+ * record. Type ordinals are stored, so new transaction types must be added at the end of the enum.
+ */
+@Slf4j
+@Component
+public class TransactionLog implements MeterBinder {
+
+    static final int RECORD_BYTES = 72;
+    static final int ACCOUNT_NUMBER_BYTES = 34;
+
+    private static final String SEGMENT_PREFIX = "transactions-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final LogSyncPolicy syncPolicy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong appends = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    // Guarded by lock.
+    private MappedByteBuffer segment;
+    private int position;
+    private long nextIndex;
+    private volatile boolean dirty;
+
+    public TransactionLog(@Value("${app.transactions.log.enabled:false}") boolean enabled,
+                          @Value("${app.transactions.log.directory:data/transaction-log}") Path directory,
+                          @Value("${app.transactions.log.segment-size:64MB}") DataSize segmentSize,
+                          @Value("${app.transactions.log.sync-policy:INTERVAL}") LogSyncPolicy syncPolicy) {
+        long records = segmentSize.toBytes() / RECORD_BYTES;
+        if (records < 1 || records * RECORD_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Transaction log segment size out of range: " + segmentSize);
+        }
+        this.enabled = enabled;
+        this.directory = directory;
+        this.recordsPerSegment = (int) records;
+        this.syncPolicy = syncPolicy;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<Path> segments = segments(directory);
+        lock.lock();
+        try {
+            if (segments.isEmpty()) {
+                openSegment(0);
+                return;
+            }
+            Path last = segments.getLast();
+            long firstIndex = firstIndex(last);
+            segment = map(last, FileChannel.MapMode.READ_WRITE, (long) recordsPerSegment * RECORD_BYTES);
+            position = 0;
+            while (position < recordsPerSegment && decode(segment, position) != null) {
+                position++;
+            }
+            // Anything after the first bad slot is a torn write; clear it so it cannot resurface behind new records.
+            for (int slot = position; slot < recordsPerSegment; slot++) {
+                clear(segment, slot);
+            }
+            segment.force();
+            nextIndex = firstIndex + position;
+            log.info("Transaction log opened at record {}", nextIndex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            if (segment != null && syncPolicy != LogSyncPolicy.NONE) {
+                segment.force();
+            }
+            segment = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends the records in order. Returns once they are in the mapped segment and, under {@code ALWAYS}, on disk.
+     */
+    public void append(List<TransactionLogRecord> records) {
+        if (!enabled || records.isEmpty()) {
+            return;
+        }
+        List<byte[]> encoded = new ArrayList<>(records.size());
+        records.forEach(record -> encoded.add(encode(record)));
+
+        MappedByteBuffer written;
+        int from;
+        int to;
+        lock.lock();
+        try {
+            if (segment == null) {
+                throw new IllegalStateException("Transaction log is closed");
+            }
+            for (byte[] bytes : encoded) {
+                if (position == recordsPerSegment) {
+                    rollOver();
+                }
+                segment.put(position * RECORD_BYTES, bytes);
+                position++;
+                nextIndex++;
+            }
+            written = segment;
+            to = position * RECORD_BYTES;
+            from = Math.max(0, to - encoded.size() * RECORD_BYTES);
+            dirty = true;
+        } catch (IOException e) {
+            throw new IllegalStateException("Transaction log segment could not be created", e);
+        } finally {
+            lock.unlock();
+        }
+        appends.addAndGet(records.size());
+        if (syncPolicy == LogSyncPolicy.ALWAYS) {
+            written.force(from, to - from);
+            syncs.incrementAndGet();
+        }
+    }
+
+    /**
+     * Appends the records once the current database transaction commits, or right away outside a transaction. A
+     * failed append is logged and counted; it never fails a movement that has already committed.
+     */
+    public void appendAfterCommit(List<TransactionLogRecord> records) {
+        if (!enabled || records.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            appendOrReport(records);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                appendOrReport(records);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.transactions.log.sync-interval:PT0.2S}")
+    public void sync() {
+        if (syncPolicy != LogSyncPolicy.INTERVAL || !dirty) {
+            return;
+        }
+        MappedByteBuffer current;
+        lock.lock();
+        try {
+            current = segment;
+            dirty = false;
+        } finally {
+            lock.unlock();
+        }
+        if (current != null) {
+            current.force();
+            syncs.incrementAndGet();
+        }
+    }
+
+    /**
+     * Index the next appended record will get; records are numbered from zero across all segments.
+     */
+    public long nextIndex() {
+        lock.lock();
+        try {
+            return nextIndex;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Passes every record of this log to {@code consumer}, oldest first, and returns how many there were.
+     */
+    public long replay(Consumer<TransactionLogRecord> consumer) throws IOException {
+        return replay(directory, consumer);
+    }
+
+    /**
+     * Reads a transaction log directory, oldest record first. Works on a copy of the files as well as on the log of
+     * a running instance; the newest segment simply ends at its last complete record. A bad record anywhere else
+     * means the log was damaged and fails the replay.
+     */
+    public static long replay(Path directory, Consumer<TransactionLogRecord> consumer) throws IOException {
+        List<Path> segments = segments(directory);
+        long count = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = segments.get(i);
+            MappedByteBuffer buffer = map(path, FileChannel.MapMode.READ_ONLY, Files.size(path));
+            int slots = buffer.capacity() / RECORD_BYTES;
+            for (int slot = 0; slot < slots; slot++) {
+                TransactionLogRecord record = decode(buffer, slot);
+                if (record == null) {
+                    if (i < segments.size() - 1) {
+                        throw new IllegalStateException("Corrupt transaction log record " + (firstIndex(path) + slot) + " in " + path);
+                    }
+                    break;
+                }
+                consumer.accept(record);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("banking.transaction.log.appends", appends, AtomicLong::get)
+                .description("Records appended to the local transaction log")
+                .register(registry);
+        FunctionCounter.builder("banking.transaction.log.syncs", syncs, AtomicLong::get)
+                .description("Forces of transaction log pages to disk")
+                .register(registry);
+        FunctionCounter.builder("banking.transaction.log.failures", failures, AtomicLong::get)
+                .description("Committed movements that could not be appended to the transaction log")
+                .register(registry);
+    }
+
+    static byte[] encode(TransactionLogRecord record) {
+        byte[] accountNumber = record.accountNumber().getBytes(StandardCharsets.US_ASCII);
+        if (accountNumber.length > ACCOUNT_NUMBER_BYTES) {
+            throw new IllegalArgumentException("Account number does not fit the transaction log: " + record.accountNumber());
+        }
+        int scale = record.amount().scale();
+        if (scale < Byte.MIN_VALUE || scale > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Amount scale does not fit the transaction log: " + record.amount());
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES);
+        buffer.position(Integer.BYTES);
+        buffer.putLong(record.id().getMostSignificantBits());
+        buffer.putLong(record.id().getLeastSignificantBits());
+        buffer.put((byte) record.transactionType().ordinal());
+        buffer.putLong(record.amount().unscaledValue().longValueExact());
+        buffer.put((byte) scale);
+        buffer.put(accountNumber);
+        buffer.position(buffer.position() + ACCOUNT_NUMBER_BYTES - accountNumber.length);
+        buffer.putLong(ChronoUnit.MICROS.between(Instant.EPOCH, record.timestamp()));
+        buffer.putInt(0, checksum(buffer.array()));
+        return buffer.array();
+    }
+
+    private static TransactionLogRecord decode(ByteBuffer segment, int slot) {
+        byte[] bytes = new byte[RECORD_BYTES];
+        segment.get(slot * RECORD_BYTES, bytes);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != checksum(bytes)) {
+            return null;
+        }
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        TransactionType type = TransactionType.values()[buffer.get()];
+        long unscaled = buffer.getLong();
+        int scale = buffer.get();
+        byte[] accountNumber = new byte[ACCOUNT_NUMBER_BYTES];
+        buffer.get(accountNumber);
+        int length = 0;
+        while (length < ACCOUNT_NUMBER_BYTES && accountNumber[length] != 0) {
+            length++;
+        }
+        Instant timestamp = Instant.EPOCH.plus(buffer.getLong(), ChronoUnit.MICROS);
+        return new TransactionLogRecord(id, type, new BigDecimal(BigInteger.valueOf(unscaled), scale),
+                new String(accountNumber, 0, length, StandardCharsets.US_ASCII), timestamp);
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, Integer.BYTES, RECORD_BYTES - Integer.BYTES);
+        return (int) crc.getValue();
+    }
+
+    private void appendOrReport(List<TransactionLogRecord> records) {
+        try {
+            append(records);
+        } catch (RuntimeException e) {
+            failures.addAndGet(records.size());
+            log.error("{} committed movements could not be appended to the transaction log", records.size(), e);
+        }
+    }
+
+    private void rollOver() throws IOException {
+        if (syncPolicy != LogSyncPolicy.NONE) {
+            segment.force();
+            syncs.incrementAndGet();
+        }
+        openSegment(nextIndex);
+    }
+
+    private void openSegment(long firstIndex) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstIndex, SEGMENT_SUFFIX));
+        segment = map(path, FileChannel.MapMode.READ_WRITE, (long) recordsPerSegment * RECORD_BYTES);
+        position = 0;
+        nextIndex = firstIndex;
+    }
+
+    private static void clear(MappedByteBuffer segment, int slot) {
+        int offset = slot * RECORD_BYTES;
+        for (int i = 0; i < RECORD_BYTES; i += Long.BYTES) {
+            if (segment.getLong(offset + i) != 0) {
+                segment.put(offset, new byte[RECORD_BYTES]);
+                return;
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(Path path, FileChannel.MapMode mode, long size) throws IOException {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE};
+        // The mapping stays valid after the channel is closed.
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            return channel.map(mode, 0, size);
+        }
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long firstIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
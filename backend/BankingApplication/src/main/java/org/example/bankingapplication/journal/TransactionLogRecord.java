@@ -0,0 +1,35 @@
+package org.example.bankingapplication.journal;
+
+import org.example.bankingapplication.enums.TransactionType;
+import org.example.bankingapplication.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+/**
+ * One movement as kept in the {@link TransactionLog}. Transaction dates are local times of the server's zone; the
+ * log stores them as instants.
+ */
+public record TransactionLogRecord(UUID id,
+                                   TransactionType transactionType,
+                                   BigDecimal amount,
+                                   String accountNumber,
+                                   Instant timestamp) {
+
+    public static TransactionLogRecord of(Transaction transaction) {
+        return new TransactionLogRecord(transaction.getId(), transaction.getTransactionType(), transaction.getAmount(),
+                transaction.getAccountNumber(), toInstant(transaction.getTransactionDate()));
+    }
+
+    public static TransactionLogRecord of(JournalEntry entry) {
+        return new TransactionLogRecord(entry.id(), entry.transactionType(), entry.amount(), entry.accountNumber(),
+                toInstant(entry.transactionDate()));
+    }
+
+    private static Instant toInstant(LocalDateTime transactionDate) {
+        return transactionDate.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
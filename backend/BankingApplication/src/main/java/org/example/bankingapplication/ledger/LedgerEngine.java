@@ -0,0 +1,389 @@
+package org.example.bankingapplication.ledger;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bankingapplication.dto.account.AccountBalanceView;
+import org.example.bankingapplication.enums.TransactionEngine;
+import org.example.bankingapplication.enums.TransactionType;
+import org.example.bankingapplication.exceptions.AccountNotFoundException;
+import org.example.bankingapplication.exceptions.MovementOutcomeUnknownException;
+import org.example.bankingapplication.journal.JournalEntry;
+import org.example.bankingapplication.journal.JournalWriteAheadLog;
+import org.example.bankingapplication.journal.TransactionLog;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.example.bankingapplication.service.ShardedBalanceService;
+import org.example.bankingapplication.utils.Money;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Execution engine for {@code app.transactions.engine=LEDGER}. Balances live in memory, split over partitions by
+ * account number hash, and each partition is changed by its own thread only, so movements take no database locks.
+ * A movement is answered once its journal entries are on disk in the partition's {@link JournalWriteAheadLog};
+ * the {@code accounts} and {@code transactions} tables follow asynchronously through the {@link LedgerProjector}.
+ * <p>
+ * On startup anything left in the partition journals is projected, whatever the configured engine, and transfers
+ * whose credit leg never got journaled are credited. The ledger then loads accounts from the database as they are
+ * first used and from then on owns their balances: while it runs, only the projector writes {@code accounts.balance}.
+ * Sharded balances would credit accounts behind its back, so the ledger refuses to start when
+ * {@code app.accounts.sharded-balance.account-numbers} is set; accounts sharded earlier have their shards collected
+ * into the row when they are loaded. Everything that reads balances or history from the tables (account summaries,
+ * statements, exports) sees the projection, which trails the ledger by {@code banking.ledger.projection.lag.seconds}.
+ */
+@Slf4j
+@Component
+public class LedgerEngine implements MeterBinder {
+
+    private static final String PARTITION_PREFIX = "partition-";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ShardedBalanceService shardedBalanceService;
+    private final TransactionLog transactionLog;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionEngine engine;
+    private final Path directory;
+    private final int partitionCount;
+    private final int ringSize;
+    private final int batchSize;
+    private final long segmentBytes;
+    private final Duration timeout;
+    private final LedgerProjector projector;
+    private final Set<String> knownAccounts = ConcurrentHashMap.newKeySet();
+
+    private volatile LedgerPartition[] partitions;
+    private ExecutorService loader;
+
+    public LedgerEngine(AccountRepository accountRepository,
+                        TransactionRepository transactionRepository,
+                        ShardedBalanceService shardedBalanceService,
+                        TransactionLog transactionLog,
+                        EntityManagerFactory entityManagerFactory,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.transactions.engine:JPA}") TransactionEngine engine,
+                        @Value("${app.transactions.ledger.directory:data/ledger}") Path directory,
+                        @Value("${app.transactions.ledger.partitions:4}") int partitionCount,
+                        @Value("${app.transactions.ledger.ring-size:4096}") int ringSize,
+                        @Value("${app.transactions.ledger.batch-size:256}") int batchSize,
+                        @Value("${app.transactions.ledger.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${app.transactions.ledger.timeout:PT5S}") Duration timeout,
+                        @Value("${app.transactions.ledger.projection.batch-size:500}") int projectionBatchSize,
+                        @Value("${app.transactions.ledger.projection.retry-backoff:PT1S}") Duration retryBackoff) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Ledger partition count must be positive: " + partitionCount);
+        }
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.shardedBalanceService = shardedBalanceService;
+        this.transactionLog = transactionLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.engine = engine;
+        this.directory = directory;
+        this.partitionCount = partitionCount;
+        this.ringSize = ringSize;
+        this.batchSize = batchSize;
+        this.segmentBytes = segmentSize.toBytes();
+        this.timeout = timeout;
+        this.projector = new LedgerProjector(entityManagerFactory.unwrap(SessionFactory.class), transactionRepository,
+                projectionBatchSize, retryBackoff);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (engine == TransactionEngine.JPA && !Files.isDirectory(directory)) {
+            return;
+        }
+        recover();
+        if (engine == TransactionEngine.JPA) {
+            return;
+        }
+        if (shardedBalanceService.hasConfiguredAccounts()) {
+            throw new IllegalStateException("app.accounts.sharded-balance.account-numbers cannot be used with "
+                    + "app.transactions.engine=LEDGER, which keeps one balance per account");
+        }
+
+        loader = Executors.newFixedThreadPool(partitionCount, Thread.ofPlatform().name("ledger-loader-", 0).daemon().factory());
+        LedgerPartition[] started = new LedgerPartition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            JournalWriteAheadLog writeAheadLog = new JournalWriteAheadLog(directory.resolve(PARTITION_PREFIX + i), segmentBytes);
+            writeAheadLog.recover();
+            started[i] = new LedgerPartition(i, this, projector, writeAheadLog, transactionLog, ringSize, batchSize);
+        }
+        partitions = started;
+        projector.start();
+        for (LedgerPartition partition : started) {
+            partition.start();
+        }
+        log.info("Ledger engine started with {} partitions", partitionCount);
+    }
+
+    /**
+     * Stops the partitions, then the projector once it has written everything they journaled. A credit leg still on
+     * its way between partitions is not lost: its debit stays pending in the sender's journal and the next startup
+     * applies it.
+     */
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        LedgerPartition[] running = partitions;
+        if (running == null) {
+            return;
+        }
+        partitions = null;
+        for (LedgerPartition partition : running) {
+            partition.stop();
+        }
+        loader.shutdown();
+        projector.stop();
+        for (LedgerPartition partition : running) {
+            partition.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return engine == TransactionEngine.LEDGER;
+    }
+
+    public CompletableFuture<LedgerReceipt> deposit(String accountNumber, Money amount) {
+        CompletableFuture<LedgerReceipt> result = new CompletableFuture<>();
+        partitionFor(accountNumber).submit(new LedgerPartition.Deposit(accountNumber, amount, result), timeout);
+        return result;
+    }
+
+    public CompletableFuture<LedgerReceipt> withdraw(String accountNumber, Money amount) {
+        CompletableFuture<LedgerReceipt> result = new CompletableFuture<>();
+        partitionFor(accountNumber).submit(new LedgerPartition.Withdraw(accountNumber, amount, result), timeout);
+        return result;
+    }
+
+    /**
+     * Transfers between two accounts. The receiver and its partition are checked up front, because once the sender's
+     * partition has debited, the credit leg must not fail.
+     */
+    public CompletableFuture<LedgerReceipt> transfer(String senderAccountNumber, String receiverAccountNumber, Money amount) {
+        if (!accountExists(receiverAccountNumber)) {
+            throw new AccountNotFoundException("Receiver account not found");
+        }
+        LedgerPartition receiverPartition = partitionFor(receiverAccountNumber);
+        if (!receiverPartition.isAccepting()) {
+            throw new IllegalStateException("Ledger partition " + receiverPartition.index() + " is not accepting movements");
+        }
+        CompletableFuture<LedgerReceipt> result = new CompletableFuture<>();
+        partitionFor(senderAccountNumber).submit(
+                new LedgerPartition.Transfer(senderAccountNumber, receiverAccountNumber, amount, result), timeout);
+        return result;
+    }
+
+    /**
+     * Waits for a movement to be journaled and returns its receipt, rethrowing the reason it was refused. A movement
+     * that is not confirmed in time may still be applied later, so that case is reported as
+     * {@link MovementOutcomeUnknownException} rather than as a refusal.
+     */
+    public LedgerReceipt await(CompletableFuture<LedgerReceipt> movement) {
+        try {
+            return movement.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Ledger movement failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new MovementOutcomeUnknownException("Ledger did not confirm the movement within " + timeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MovementOutcomeUnknownException("Interrupted while waiting for the ledger", e);
+        }
+    }
+
+    /**
+     * Journaled movements whose rows are not all in the database yet.
+     */
+    public int pendingRecords() {
+        LedgerPartition[] running = partitions;
+        return running == null ? 0 : Arrays.stream(running).mapToInt(LedgerPartition::pendingRecords).sum();
+    }
+
+    public Duration oldestPendingAge() {
+        LedgerPartition[] running = partitions;
+        return running == null ? Duration.ZERO
+                : Duration.ofNanos(Arrays.stream(running).mapToLong(LedgerPartition::oldestPendingNanos).max().orElse(0));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("banking.ledger.queued", this, ledger -> ledger.sum(LedgerPartition::queued))
+                .description("Movements and credit legs waiting for a ledger partition")
+                .register(registry);
+        Gauge.builder("banking.ledger.projection.lag.records", this, LedgerEngine::pendingRecords)
+                .description("Journaled ledger records not yet projected to the database")
+                .register(registry);
+        Gauge.builder("banking.ledger.projection.lag.seconds", this, ledger -> ledger.oldestPendingAge().toNanos() / 1e9)
+                .description("Age of the oldest ledger record not yet projected to the database")
+                .register(registry);
+        FunctionCounter.builder("banking.ledger.journal.syncs", this, ledger -> ledger.sum(LedgerPartition::syncCount))
+                .description("fsync calls on the ledger journals; one per group of movements a partition applies")
+                .register(registry);
+    }
+
+    LedgerPartition partitionFor(String accountNumber) {
+        LedgerPartition[] running = partitions;
+        if (running == null) {
+            throw new IllegalStateException("Ledger engine is not running");
+        }
+        if (accountNumber == null) {
+            throw new AccountNotFoundException("Account not found");
+        }
+        return running[Math.floorMod(accountNumber.hashCode(), running.length)];
+    }
+
+    /**
+     * Reads an account on a loader thread and hands the result to the partition that asked for it.
+     */
+    void loadAsync(String accountNumber, LedgerPartition partition) {
+        loader.execute(() -> {
+            LedgerPartition.Loaded result;
+            try {
+                result = new LedgerPartition.Loaded(accountNumber, load(accountNumber).orElse(null), null);
+            } catch (RuntimeException e) {
+                log.warn("Ledger could not load account {}", accountNumber, e);
+                result = new LedgerPartition.Loaded(accountNumber, null, e);
+            }
+            partition.loaded(result);
+        });
+    }
+
+    /**
+     * Reads an account for a partition. Balance shards are collected into the account row first, since the ledger
+     * keeps one balance per account.
+     */
+    Optional<AccountBalanceView> load(String accountNumber) {
+        Optional<AccountBalanceView> view = transactionTemplate.execute(status -> {
+            if (shardedBalanceService.isSharded(accountNumber)) {
+                BigDecimal swept = shardedBalanceService.sweep(accountNumber);
+                if (swept.signum() != 0) {
+                    accountRepository.creditBalance(accountNumber, swept);
+                }
+            }
+            return accountRepository.findBalanceViewByAccountNumber(accountNumber);
+        });
+        view.ifPresent(found -> knownAccounts.add(accountNumber));
+        return view;
+    }
+
+    /**
+     * Id of the {@code TRANSFER_IN} row that pairs with a ledger transfer's debit, so recovery can tell whether the
+     * credit leg was journaled.
+     */
+    static UUID creditLegId(UUID debitId) {
+        return UUID.nameUUIDFromBytes(("credit-leg:" + debitId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean accountExists(String accountNumber) {
+        if (accountNumber == null) {
+            return false;
+        }
+        // Accounts are never deleted, so a positive answer can be kept.
+        if (knownAccounts.contains(accountNumber) || accountRepository.existsByAccountNumber(accountNumber)) {
+            knownAccounts.add(accountNumber);
+            return true;
+        }
+        return false;
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        List<JournalWriteAheadLog> logs = new ArrayList<>();
+        List<JournalEntry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path partitionDirectory : files.filter(path -> path.getFileName().toString().startsWith(PARTITION_PREFIX)).toList()) {
+                JournalWriteAheadLog writeAheadLog = new JournalWriteAheadLog(partitionDirectory, segmentBytes);
+                logs.add(writeAheadLog);
+                writeAheadLog.recover().forEach(record -> entries.addAll(record.entries()));
+            }
+        } catch (IOException e) {
+            logs.forEach(this::closeQuietly);
+            throw e;
+        }
+
+        try {
+            if (!entries.isEmpty()) {
+                int rows = projector.replay(entries);
+                int credited = creditMissingLegs(entries);
+                log.info("Ledger recovery: {} journaled entries, {} rows written, {} credit legs applied",
+                        entries.size(), rows, credited);
+            }
+            for (JournalWriteAheadLog writeAheadLog : logs) {
+                writeAheadLog.checkpoint();
+            }
+        } finally {
+            logs.forEach(this::closeQuietly);
+        }
+    }
+
+    private int creditMissingLegs(List<JournalEntry> entries) {
+        List<JournalEntry> debits = entries.stream()
+                .filter(entry -> entry.transactionType() == TransactionType.TRANSFER_OUT)
+                .toList();
+        Set<UUID> existing = projector.existingIds(debits.stream().map(debit -> creditLegId(debit.id())).toList());
+
+        int credited = 0;
+        for (JournalEntry debit : debits) {
+            UUID legId = creditLegId(debit.id());
+            if (existing.contains(legId)) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                if (accountRepository.creditBalance(debit.receiverAccountNumber(), debit.amount()) == 0) {
+                    throw new IllegalStateException("Receiver of ledger transfer " + debit.id() + " no longer exists");
+                }
+                AccountBalanceView view = accountRepository.findBalanceViewByAccountNumber(debit.receiverAccountNumber())
+                        .orElseThrow();
+                transactionRepository.save(new JournalEntry(legId, TransactionType.TRANSFER_IN, debit.amount(),
+                        debit.receiverAccountNumber(), debit.accountNumber(), debit.transactionDate(),
+                        view.balance(), view.version()).toTransaction());
+            });
+            credited++;
+        }
+        return credited;
+    }
+
+    private long sum(ToLongFunction<LedgerPartition> metric) {
+        LedgerPartition[] running = partitions;
+        return running == null ? 0 : Arrays.stream(running).mapToLong(metric).sum();
+    }
+
+    private void closeQuietly(JournalWriteAheadLog writeAheadLog) {
+        try {
+            writeAheadLog.close();
+        } catch (IOException e) {
+            log.warn("Closing a ledger journal after recovery failed", e);
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package org.example.bankingapplication.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.bankingapplication.dto.account.AccountBalanceView;
+import org.example.bankingapplication.enums.TransactionType;
+import org.example.bankingapplication.exceptions.AccountNotFoundException;
+import org.example.bankingapplication.exceptions.MovementOutcomeUnknownException;
+import org.example.bankingapplication.journal.JournalEntry;
+import org.example.bankingapplication.journal.JournalWriteAheadLog;
+import org.example.bankingapplication.journal.TransactionLog;
+import org.example.bankingapplication.journal.TransactionLogRecord;
+import org.example.bankingapplication.utils.Money;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One partition of the {@link LedgerEngine}: the accounts whose number hashes to it, their authoritative balances,
+ * and the single thread that reads and changes them. Requests wait in a bounded ring; the thread takes whatever has
+ * queued up, applies it in order, appends all resulting journal entries as one record (one fsync for the group) and
+ * only then answers the callers and hands the entries to the {@link LedgerProjector}.
+ * <p>
+ * A transfer to an account of another partition is debited here and its credit leg is passed to the receiving
+ * partition, which answers the caller once the credit is journaled too. Credit legs bypass the ring, so partitions
+ * never wait on each other.
+ * <p>
+ * An account is read from the database the first time a movement needs it. The read runs on one of the engine's
+ * loader threads, so the partition thread never waits on JDBC: movements of an account that is being loaded are set
+ * aside, in arrival order, and applied once it arrives, while the partition carries on with other accounts.
+ * <p>
+ * Balances are held as {@link Money}; amounts become {@code BigDecimal} only in the journal entries.
+ * <p>
+ * A group is applied to the balances before it is journaled, so a failed append leaves them ahead of the journal.
+ * The partition then halts for good: anything journaled from those balances would carry running balances that
+ * include movements the journal may not have. The next startup reloads the accounts from the database, which the
+ * recovered journals are projected into first.
+ */
+@Slf4j
+final class LedgerPartition implements Runnable {
+
+    sealed interface Command permits Deposit, Withdraw, Transfer, CreditLeg {
+        CompletableFuture<LedgerReceipt> result();
+    }
+
+    record Deposit(String accountNumber, Money amount, CompletableFuture<LedgerReceipt> result) implements Command {
+    }
+
+    record Withdraw(String accountNumber, Money amount, CompletableFuture<LedgerReceipt> result) implements Command {
+    }
+
+    record Transfer(String senderAccountNumber, String receiverAccountNumber, Money amount,
+                    CompletableFuture<LedgerReceipt> result) implements Command {
+    }
+
+    record CreditLeg(JournalEntry debit, LedgerReceipt receipt, LedgerProjector.Record senderRecord,
+                     CompletableFuture<LedgerReceipt> result) implements Command {
+    }
+
+    /**
+     * Outcome of reading an account for the partition: its view, or neither a view nor an error when it does not
+     * exist, or the error the read failed with.
+     */
+    record Loaded(String accountNumber, AccountBalanceView view, RuntimeException error) {
+    }
+
+    private record PendingCredit(LedgerPartition target, JournalEntry debit, LedgerReceipt receipt,
+                                 CompletableFuture<LedgerReceipt> result) {
+    }
+
+    private static final class Account {
+
+        private Money balance;
+        private long version;
+
+        private Account(AccountBalanceView view) {
+            this.balance = Money.of(view.balance());
+            this.version = view.version();
+        }
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final int index;
+    private final LedgerEngine engine;
+    private final LedgerProjector projector;
+    private final JournalWriteAheadLog writeAheadLog;
+    private final TransactionLog transactionLog;
+    private final int batchSize;
+    private final ArrayBlockingQueue<Command> ring;
+    private final Queue<CreditLeg> credits = new ConcurrentLinkedQueue<>();
+    private final Queue<Loaded> loaded = new ConcurrentLinkedQueue<>();
+    // Confined to the partition thread.
+    private final Map<String, Account> accounts = new HashMap<>();
+    // Movements waiting for an account to be loaded, and accounts that could not be, for the batch being applied.
+    private final Map<String, List<Command>> deferred = new HashMap<>();
+    private final Map<String, Loaded> unresolved = new HashMap<>();
+    private final Thread thread;
+
+    private volatile boolean running;
+    // Set once, on the partition thread, when a journal append fails.
+    private volatile MovementOutcomeUnknownException haltedBy;
+
+    LedgerPartition(int index, LedgerEngine engine, LedgerProjector projector, JournalWriteAheadLog writeAheadLog,
+                    TransactionLog transactionLog, int ringSize, int batchSize) {
+        this.index = index;
+        this.engine = engine;
+        this.projector = projector;
+        this.writeAheadLog = writeAheadLog;
+        this.transactionLog = transactionLog;
+        this.batchSize = batchSize;
+        this.ring = new ArrayBlockingQueue<>(ringSize);
+        this.thread = new Thread(this, "ledger-partition-" + index);
+    }
+
+    int index() {
+        return index;
+    }
+
+    void start() {
+        running = true;
+        thread.start();
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    void close() throws IOException {
+        writeAheadLog.close();
+    }
+
+    /**
+     * Queues a request, waiting up to {@code timeout} for room in the ring.
+     */
+    void submit(Command command, Duration timeout) {
+        if (!isAccepting()) {
+            throw notAccepting();
+        }
+        try {
+            if (!ring.offer(command, timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("Ledger partition " + index + " is overloaded");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queuing a ledger movement", e);
+        }
+        // The partition may have halted and drained the ring while this was being queued.
+        if (haltedBy != null && ring.remove(command)) {
+            throw notAccepting();
+        }
+        LockSupport.unpark(thread);
+    }
+
+    void credit(CreditLeg creditLeg) {
+        credits.add(creditLeg);
+        if (haltedBy != null) {
+            failCredits();
+        }
+        LockSupport.unpark(thread);
+    }
+
+    void loaded(Loaded result) {
+        if (haltedBy == null) {
+            loaded.add(result);
+            LockSupport.unpark(thread);
+        }
+    }
+
+    boolean isAccepting() {
+        return running && haltedBy == null;
+    }
+
+    void complete(long sequence) {
+        writeAheadLog.complete(List.of(sequence));
+    }
+
+    void checkpoint() throws IOException {
+        writeAheadLog.checkpoint();
+    }
+
+    int pendingRecords() {
+        return writeAheadLog.pendingCount();
+    }
+
+    long oldestPendingNanos() {
+        return writeAheadLog.oldestPendingNanos();
+    }
+
+    long syncCount() {
+        return writeAheadLog.syncCount();
+    }
+
+    int queued() {
+        return ring.size() + credits.size();
+    }
+
+    @Override
+    public void run() {
+        List<Command> batch = new ArrayList<>(batchSize);
+        while (haltedBy == null && (running || !ring.isEmpty() || !credits.isEmpty() || !deferred.isEmpty())) {
+            // Movements that waited for an account go first, then credit legs: their debits are already durable and
+            // their callers are waiting.
+            Loaded result;
+            while ((result = loaded.poll()) != null) {
+                resolve(result, batch);
+            }
+            CreditLeg creditLeg;
+            while (batch.size() < batchSize && (creditLeg = credits.poll()) != null) {
+                batch.add(creditLeg);
+            }
+            ring.drainTo(batch, batchSize - batch.size());
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            process(batch);
+            batch.clear();
+            unresolved.clear();
+        }
+        if (haltedBy != null) {
+            halt();
+        }
+    }
+
+    private void process(List<Command> batch) {
+        List<JournalEntry> entries = new ArrayList<>();
+        List<Runnable> replies = new ArrayList<>();
+        List<PendingCredit> pendingCredits = new ArrayList<>();
+        List<LedgerProjector.Record> creditedRecords = new ArrayList<>();
+
+        for (Command command : batch) {
+            try {
+                String missing = missingAccount(command);
+                if (missing != null) {
+                    defer(missing, command);
+                    continue;
+                }
+                switch (command) {
+                    case Deposit deposit -> {
+                        Account account = account(deposit.accountNumber(), "Account not found");
+                        JournalEntry entry = credit(account, UUID.randomUUID(), TransactionType.DEPOSIT,
+                                deposit.amount().toBigDecimal(), deposit.accountNumber(), null, LocalDateTime.now());
+                        entries.add(entry);
+                        replies.add(() -> deposit.result().complete(receipt(entry)));
+                    }
+                    case Withdraw withdraw -> {
+                        Account account = account(withdraw.accountNumber(), "Account not found");
+                        JournalEntry entry = debit(account, TransactionType.WITHDRAW, withdraw.amount(),
+                                withdraw.accountNumber(), null);
+                        entries.add(entry);
+                        replies.add(() -> withdraw.result().complete(receipt(entry)));
+                    }
+                    case Transfer transfer -> {
+                        Account sender = account(transfer.senderAccountNumber(), "Sender account not found");
+                        LedgerPartition target = engine.partitionFor(transfer.receiverAccountNumber());
+                        // A local receiver is loaded before the debit, so a missing one leaves nothing to undo.
+                        Account receiver = target == this
+                                ? account(transfer.receiverAccountNumber(), "Receiver account not found")
+                                : null;
+                        JournalEntry debit = debit(sender, TransactionType.TRANSFER_OUT, transfer.amount(),
+                                transfer.senderAccountNumber(), transfer.receiverAccountNumber());
+                        entries.add(debit);
+                        LedgerReceipt receipt = receipt(debit);
+                        if (receiver != null) {
+                            entries.add(creditLeg(receiver, debit));
+                            replies.add(() -> transfer.result().complete(receipt));
+                        } else {
+                            pendingCredits.add(new PendingCredit(target, debit, receipt, transfer.result()));
+                        }
+                    }
+                    case CreditLeg leg -> {
+                        Account receiver = account(leg.debit().receiverAccountNumber(), "Receiver account not found");
+                        entries.add(creditLeg(receiver, leg.debit()));
+                        creditedRecords.add(leg.senderRecord());
+                        replies.add(() -> leg.result().complete(leg.receipt()));
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (command instanceof CreditLeg leg) {
+                    // The debit is journaled, so its record stays pending and recovery applies the credit on restart.
+                    log.error("Credit leg of ledger transfer {} could not be applied", leg.debit().id(), e);
+                    leg.result().completeExceptionally(creditPending(e));
+                } else {
+                    command.result().completeExceptionally(e);
+                }
+            }
+        }
+
+        if (!entries.isEmpty()) {
+            long sequence;
+            try {
+                sequence = writeAheadLog.append(entries);
+            } catch (RuntimeException e) {
+                log.error("Ledger partition {} could not journal {} entries and halts", index, entries.size(), e);
+                // Part of the record may have reached the disk, so recovery could still apply these movements.
+                haltedBy = new MovementOutcomeUnknownException(
+                        "Ledger partition " + index + " could not journal the movement", e);
+                batch.forEach(command -> command.result().completeExceptionally(
+                        command instanceof CreditLeg ? creditPending(haltedBy) : haltedBy));
+                return;
+            }
+            if (transactionLog.isEnabled()) {
+                // The journal append is the commit here, so the entries go to the transaction log right away.
+                transactionLog.appendAfterCommit(entries.stream().map(TransactionLogRecord::of).toList());
+            }
+            LedgerProjector.Record record = new LedgerProjector.Record(this, sequence, 1 + pendingCredits.size());
+            creditedRecords.add(record);
+            projector.submit(new LedgerProjector.Projection(entries, creditedRecords));
+            for (PendingCredit pending : pendingCredits) {
+                pending.target().credit(new CreditLeg(pending.debit(), pending.receipt(), record, pending.result()));
+            }
+        }
+        replies.forEach(Runnable::run);
+    }
+
+    /**
+     * Ends the partition after a failed append. Nothing further is applied: movements still in the ring were never
+     * applied and are refused; commands waiting for an account and credit legs fail as outcome unknown. The debit of
+     * a refused credit leg stays pending in its sender's journal, so the next startup credits it exactly once.
+     */
+    private void halt() {
+        Command command;
+        while ((command = ring.poll()) != null) {
+            command.result().completeExceptionally(notAccepting());
+        }
+        failCredits();
+        deferred.values().forEach(waiting -> waiting.forEach(deferredCommand -> deferredCommand.result().completeExceptionally(haltedBy)));
+        deferred.clear();
+        unresolved.clear();
+        loaded.clear();
+        accounts.clear();
+    }
+
+    private void failCredits() {
+        CreditLeg leg;
+        while ((leg = credits.poll()) != null) {
+            leg.result().completeExceptionally(creditPending(haltedBy));
+        }
+    }
+
+    private IllegalStateException notAccepting() {
+        return new IllegalStateException("Ledger partition " + index + " is not accepting movements");
+    }
+
+    private static MovementOutcomeUnknownException creditPending(Throwable cause) {
+        return new MovementOutcomeUnknownException("Transfer was debited but its credit is pending", cause);
+    }
+
+    /**
+     * Returns the first account, in the order the command uses them, that has to be loaded before it can be applied,
+     * or null when it can be applied now. An account that could not be loaded counts as available, since applying
+     * the command then refuses it.
+     */
+    private String missingAccount(Command command) {
+        List<String> accountNumbers = switch (command) {
+            case Deposit deposit -> List.of(deposit.accountNumber());
+            case Withdraw withdraw -> List.of(withdraw.accountNumber());
+            case Transfer transfer -> engine.partitionFor(transfer.receiverAccountNumber()) == this
+                    ? List.of(transfer.senderAccountNumber(), transfer.receiverAccountNumber())
+                    : List.of(transfer.senderAccountNumber());
+            case CreditLeg leg -> List.of(leg.debit().receiverAccountNumber());
+        };
+        for (String accountNumber : accountNumbers) {
+            if (unresolved.containsKey(accountNumber)) {
+                return null;
+            }
+            if (!accounts.containsKey(accountNumber)) {
+                return accountNumber;
+            }
+        }
+        return null;
+    }
+
+    private void defer(String accountNumber, Command command) {
+        List<Command> waiting = deferred.get(accountNumber);
+        if (waiting == null) {
+            waiting = new ArrayList<>();
+            deferred.put(accountNumber, waiting);
+            engine.loadAsync(accountNumber, this);
+        }
+        waiting.add(command);
+    }
+
+    private void resolve(Loaded result, List<Command> batch) {
+        if (result.view() != null) {
+            accounts.put(result.accountNumber(), new Account(result.view()));
+        } else {
+            unresolved.put(result.accountNumber(), result);
+        }
+        List<Command> waiting = deferred.remove(result.accountNumber());
+        if (waiting != null) {
+            batch.addAll(waiting);
+        }
+    }
+
+    /**
+     * Returns the partition's state of an account, which {@link #missingAccount} has made sure was loaded.
+     */
+    private Account account(String accountNumber, String notFoundMessage) {
+        Account account = accounts.get(accountNumber);
+        if (account != null) {
+            return account;
+        }
+        Loaded failed = unresolved.get(accountNumber);
+        if (failed == null) {
+            throw new IllegalStateException("Account " + accountNumber + " was used before it was loaded");
+        }
+        if (failed.error() != null) {
+            throw failed.error();
+        }
+        throw new AccountNotFoundException(notFoundMessage);
+    }
+
+    private static JournalEntry debit(Account account, TransactionType type, Money amount,
+                                      String accountNumber, String receiverAccountNumber) {
+        if (account.balance.isLessThan(amount)) {
+            throw new IllegalArgumentException("Insufficient funds");
+        }
+        account.balance = account.balance.minus(amount);
+        account.version++;
+        return new JournalEntry(UUID.randomUUID(), type, amount.toBigDecimal(), accountNumber, receiverAccountNumber,
+                LocalDateTime.now(), account.balance.toBigDecimal(), account.version);
+    }
+
+    private static JournalEntry credit(Account account, UUID id, TransactionType type, BigDecimal amount,
+                                       String accountNumber, String receiverAccountNumber, LocalDateTime transactionDate) {
+        account.balance = account.balance.plus(Money.of(amount));
+        account.version++;
+        return new JournalEntry(id, type, amount, accountNumber, receiverAccountNumber, transactionDate,
+                account.balance.toBigDecimal(), account.version);
+    }
+
+    private static JournalEntry creditLeg(Account receiver, JournalEntry debit) {
+        return credit(receiver, LedgerEngine.creditLegId(debit.id()), TransactionType.TRANSFER_IN, debit.amount(),
+                debit.receiverAccountNumber(), debit.accountNumber(), debit.transactionDate());
+    }
+
+    private static LedgerReceipt receipt(JournalEntry entry) {
+        return new LedgerReceipt(entry.id(), entry.balanceAfter(), entry.transactionDate());
+    }
+}
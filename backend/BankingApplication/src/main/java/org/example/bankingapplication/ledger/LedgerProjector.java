@@ -0,0 +1,202 @@
+package org.example.bankingapplication.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.bankingapplication.journal.JournalEntry;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes what the ledger partitions have journaled into the {@code accounts} and {@code transactions} tables, from
+ * a single background thread. Each group of projections is one database transaction: the rows are inserted and
+ * every touched account is set to its newest ledger balance. The balance update only applies over an older version,
+ * so projecting the same entries twice, or out of order, leaves the account at its latest state.
+ * <p>
+ * A journal record is completed once all of its entries are in the database, including the credit legs that other
+ * partitions journal for its cross-partition transfers.
+ */
+@Slf4j
+final class LedgerProjector {
+
+    /**
+     * A journal record of one partition. It stays pending in that partition's journal until {@code unprojected}
+     * drops to zero.
+     */
+    static final class Record {
+
+        private final LedgerPartition partition;
+        private final long sequence;
+        private int unprojected;
+
+        Record(LedgerPartition partition, long sequence, int parts) {
+            this.partition = partition;
+            this.sequence = sequence;
+            this.unprojected = parts;
+        }
+    }
+
+    record Projection(List<JournalEntry> entries, List<Record> records) {
+    }
+
+    private static final String UPDATE_BALANCE = """
+            UPDATE Account a
+            SET a.balance = :balance, a.version = :version
+            WHERE a.accountNumber = :accountNumber AND a.version < :version
+            """;
+
+    private final SessionFactory sessionFactory;
+    private final TransactionRepository transactionRepository;
+    private final int batchSize;
+    private final Duration retryBackoff;
+    private final BlockingQueue<Projection> queue = new LinkedBlockingQueue<>();
+
+    private Thread writer;
+    private volatile boolean running;
+
+    LedgerProjector(SessionFactory sessionFactory, TransactionRepository transactionRepository, int batchSize, Duration retryBackoff) {
+        this.sessionFactory = sessionFactory;
+        this.transactionRepository = transactionRepository;
+        this.batchSize = batchSize;
+        this.retryBackoff = retryBackoff;
+    }
+
+    void start() {
+        running = true;
+        writer = new Thread(this::run, "ledger-projector");
+        writer.start();
+    }
+
+    void stop() throws InterruptedException {
+        if (writer != null) {
+            running = false;
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    void submit(Projection projection) {
+        queue.add(projection);
+    }
+
+    /**
+     * Writes the entries in one database transaction and returns how many rows were inserted. With
+     * {@code skipExisting} rows already in the table are left out, for entries that may have been projected before.
+     */
+    int project(List<JournalEntry> entries, boolean skipExisting) {
+        List<JournalEntry> inserts = entries;
+        if (skipExisting) {
+            Set<UUID> existing = existingIds(entries.stream().map(JournalEntry::id).toList());
+            inserts = entries.stream().filter(entry -> !existing.contains(entry.id())).toList();
+        }
+        Map<String, JournalEntry> latest = new HashMap<>();
+        for (JournalEntry entry : entries) {
+            latest.merge(entry.accountNumber(), entry,
+                    (current, candidate) -> candidate.accountVersion() > current.accountVersion() ? candidate : current);
+        }
+
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(batchSize);
+            org.hibernate.Transaction transaction = session.beginTransaction();
+            try {
+                inserts.forEach(entry -> session.insert(entry.toTransaction()));
+                for (JournalEntry entry : latest.values()) {
+                    session.createMutationQuery(UPDATE_BALANCE)
+                            .setParameter("balance", entry.balanceAfter())
+                            .setParameter("version", entry.accountVersion())
+                            .setParameter("accountNumber", entry.accountNumber())
+                            .executeUpdate();
+                }
+                transaction.commit();
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+        return inserts.size();
+    }
+
+    /**
+     * Projects recovered entries in groups of the batch size, skipping rows that are already present.
+     */
+    int replay(List<JournalEntry> entries) {
+        int rows = 0;
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            rows += project(entries.subList(from, Math.min(from + batchSize, entries.size())), true);
+        }
+        return rows;
+    }
+
+    Set<UUID> existingIds(List<UUID> ids) {
+        Set<UUID> existing = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            existing.addAll(transactionRepository.findExistingIds(ids.subList(from, Math.min(from + batchSize, ids.size()))));
+        }
+        return existing;
+    }
+
+    private void run() {
+        List<Projection> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Projection first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                projectUntilWritten(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void projectUntilWritten(List<Projection> batch) throws InterruptedException {
+        List<JournalEntry> entries = new ArrayList<>();
+        batch.forEach(projection -> entries.addAll(projection.entries()));
+        boolean retry = false;
+        while (true) {
+            try {
+                // After a failure the earlier attempt may have committed, so skip rows that are already there.
+                project(entries, retry);
+                break;
+            } catch (RuntimeException e) {
+                log.warn("Projecting {} ledger entries failed, retrying in {}", entries.size(), retryBackoff, e);
+                retry = true;
+                Thread.sleep(retryBackoff.toMillis());
+            }
+        }
+        release(batch);
+    }
+
+    private void release(List<Projection> batch) {
+        Set<LedgerPartition> touched = new HashSet<>();
+        for (Projection projection : batch) {
+            for (Record record : projection.records()) {
+                // Only this thread counts down, so the counter needs no synchronization.
+                if (--record.unprojected == 0) {
+                    record.partition.complete(record.sequence);
+                    touched.add(record.partition);
+                }
+            }
+        }
+        for (LedgerPartition partition : touched) {
+            try {
+                partition.checkpoint();
+            } catch (IOException e) {
+                // The next checkpoint covers it; until then recovery would only replay rows it finds present.
+                log.warn("Checkpointing ledger partition {} failed", partition.index(), e);
+            }
+        }
+    }
+}
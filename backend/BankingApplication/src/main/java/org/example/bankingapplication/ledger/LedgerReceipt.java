@@ -0,0 +1,12 @@
+package org.example.bankingapplication.ledger;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Outcome of a movement applied by the {@link LedgerEngine}: the id of the {@code transactions} row it will be
+ * projected to, and the balance of the acting account right after it.
+ */
+public record LedgerReceipt(UUID transactionId, BigDecimal balance, LocalDateTime transactionDate) {
+}
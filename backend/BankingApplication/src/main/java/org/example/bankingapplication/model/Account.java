@@ -32,6 +32,14 @@ public class Account {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Number of account_balance_shards rows that take this account's credits; 0 keeps the whole balance here.
+    @Column(name = "balance_shards", nullable = false, columnDefinition = "int default 0")
+    private int balanceShards;
+
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     @PrePersist
     public void onCreate() {
         if (this.balance == null) {
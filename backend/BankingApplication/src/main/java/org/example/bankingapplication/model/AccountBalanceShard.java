@@ -0,0 +1,35 @@
+package org.example.bankingapplication.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One sub-balance of a sharded account. The account's balance is {@code accounts.balance} plus all of its shards.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "account_balance_shards", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_account_balance_shards_account_shard", columnNames = {"account_number", "shard"})
+})
+public class AccountBalanceShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id")
+    private UUID id;
+
+    @Column(name = "account_number", nullable = false)
+    private String accountNumber;
+
+    @Column(name = "shard", nullable = false)
+    private int shard;
+
+    @Column(name = "balance", nullable = false)
+    private BigDecimal balance;
+}
@@ -0,0 +1,34 @@
+package org.example.bankingapplication.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "balance_snapshots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_balance_snapshots_account_as_of", columnNames = {"account_number", "as_of"})
+})
+public class BalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id")
+    private UUID id;
+
+    @Column(name = "account_number", nullable = false)
+    private String accountNumber;
+
+    // Balance after every movement dated before this instant.
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+
+    @Column(name = "balance", nullable = false)
+    private BigDecimal balance;
+}
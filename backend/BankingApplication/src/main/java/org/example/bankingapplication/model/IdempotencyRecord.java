@@ -0,0 +1,37 @@
+package org.example.bankingapplication.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id")
+    private UUID id;
+
+    @Column(name = "idempotency_key", nullable = false, unique = true)
+    private String idempotencyKey;
+
+    @Column(name = "request_hash", nullable = false, columnDefinition = "BINARY(32)")
+    private byte[] requestHash;
+
+    // Empty while the request that claimed the key is still running.
+    @Column(name = "response", nullable = false, length = 2048)
+    private String response;
+
+    @Column(name = "pending", nullable = false)
+    private boolean pending;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
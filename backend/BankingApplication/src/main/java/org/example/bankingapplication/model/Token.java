@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 import org.example.bankingapplication.enums.TokenType;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
@@ -19,9 +20,12 @@ public class Token {
     @Column(name = "id")
     private UUID id;
 
-    @Column(name = "token", unique = true, length = 1024)
+    @Column(name = "token", length = 1024)
     private String token;
 
+    @Column(name = "token_hash", unique = true, columnDefinition = "BINARY(32)")
+    private byte[] tokenHash;
+
     @Column(name = "token_type")
     @Enumerated(EnumType.STRING)
     private TokenType tokenType;
@@ -32,6 +36,12 @@ public class Token {
     @Column(name = "is_revoked")
     private boolean isRevoked;
 
+    @Column(name = "jti")
+    private UUID jti;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User user;
@@ -19,10 +19,14 @@ import java.util.UUID;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_account_date_id", columnList = "account_number, transaction_date DESC, id"),
+        @Index(name = "idx_transactions_date", columnList = "transaction_date")
+})
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @AssignableUuid
     private UUID id;
 
     @Column(name = "transaction_type")
@@ -35,6 +39,11 @@ public class Transaction {
     @Column(name = "amount", nullable = false)
     private BigDecimal amount;
 
+    // Balance of accountNumber once this movement was applied, written in the same transaction as the balance.
+    // Null on credits taken by a balance shard, which do not lock the account and so cannot know it.
+    @Column(name = "balance_after")
+    private BigDecimal balanceAfter;
+
     @JoinColumn(name = "account_number", nullable = false)
     private String accountNumber;
 
@@ -43,6 +52,8 @@ public class Transaction {
 
     @PrePersist
     public void prePersist() {
-        this.transactionDate = ZonedDateTime.now(ZoneId.systemDefault()).toLocalDateTime();
+        if (this.transactionDate == null) {
+            this.transactionDate = ZonedDateTime.now(ZoneId.systemDefault()).toLocalDateTime();
+        }
     }
 }
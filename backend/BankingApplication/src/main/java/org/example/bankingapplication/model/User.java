@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.example.bankingapplication.cache.UserDetailsCacheInvalidator;
 import org.example.bankingapplication.enums.Roles;
 
 import java.util.HashSet;
@@ -16,6 +17,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(UserDetailsCacheInvalidator.class)
 @Table(name = "users")
 public class User {
 
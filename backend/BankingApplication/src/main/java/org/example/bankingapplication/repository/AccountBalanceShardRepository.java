@@ -0,0 +1,33 @@
+package org.example.bankingapplication.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.bankingapplication.model.AccountBalanceShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AccountBalanceShardRepository extends JpaRepository<AccountBalanceShard, UUID> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountBalanceShard s WHERE s.accountNumber = :accountNumber ORDER BY s.shard")
+    List<AccountBalanceShard> findByAccountNumberForUpdate(@Param("accountNumber") String accountNumber);
+
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM AccountBalanceShard s WHERE s.accountNumber = :accountNumber")
+    BigDecimal sumBalanceByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    @Modifying
+    @Query("""
+            UPDATE AccountBalanceShard s
+            SET s.balance = s.balance + :amount
+            WHERE s.accountNumber = :accountNumber AND s.shard = :shard
+            """)
+    int creditShard(@Param("accountNumber") String accountNumber, @Param("shard") int shard, @Param("amount") BigDecimal amount);
+}
@@ -1,10 +1,19 @@
 package org.example.bankingapplication.repository;
 
+import jakarta.persistence.LockModeType;
+import org.example.bankingapplication.dto.account.AccountBalanceView;
+import org.example.bankingapplication.dto.account.AccountResponseDTO;
 import org.example.bankingapplication.model.Account;
-import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,6 +24,55 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
 
     Optional<Account> findByAccountNumber(String accountNumber);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<Account> findByAccountNumberForUpdate(@Param("accountNumber") String accountNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber IN :accountNumbers ORDER BY a.accountNumber")
+    List<Account> findAllByAccountNumberInForUpdate(@Param("accountNumbers") Collection<String> accountNumbers);
+
     Optional<Account> findByUserId(UUID userId);
 
+    @Query("""
+            SELECT new org.example.bankingapplication.dto.account.AccountResponseDTO(a.id, a.accountNumber, a.ownerName,
+                a.balance + COALESCE((SELECT SUM(s.balance) FROM AccountBalanceShard s WHERE s.accountNumber = a.accountNumber), 0))
+            FROM Account a
+            WHERE a.user.id = :userId
+            """)
+    Optional<AccountResponseDTO> findSummaryByUserId(@Param("userId") UUID userId);
+
+    boolean existsByAccountNumber(String accountNumber);
+
+    @Query("""
+            SELECT new org.example.bankingapplication.dto.account.AccountBalanceView(
+                a.balance + COALESCE((SELECT SUM(s.balance) FROM AccountBalanceShard s WHERE s.accountNumber = a.accountNumber), 0),
+                a.version)
+            FROM Account a
+            WHERE a.accountNumber = :accountNumber
+            """)
+    Optional<AccountBalanceView> findBalanceViewByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    @Query("SELECT a.accountNumber, a.balanceShards FROM Account a WHERE a.balanceShards > 0")
+    List<Object[]> findShardedAccounts();
+
+    @Query("SELECT a.accountNumber, a.version FROM Account a WHERE a.accountNumber IN :accountNumbers")
+    List<Object[]> findVersionsByAccountNumberIn(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    @Modifying
+    @Query("""
+            UPDATE Account a
+            SET a.balance = a.balance + :amount, a.version = a.version + 1
+            WHERE a.accountNumber = :accountNumber
+            """)
+    int creditBalance(@Param("accountNumber") String accountNumber, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("""
+            UPDATE Account a
+            SET a.balance = a.balance - :amount, a.version = a.version + 1
+            WHERE a.accountNumber = :accountNumber AND a.balance >= :amount
+            """)
+    int debitBalance(@Param("accountNumber") String accountNumber, @Param("amount") BigDecimal amount);
+
 }
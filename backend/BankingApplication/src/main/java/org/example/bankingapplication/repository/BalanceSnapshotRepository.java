@@ -0,0 +1,29 @@
+package org.example.bankingapplication.repository;
+
+import org.example.bankingapplication.model.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, UUID> {
+
+    Optional<BalanceSnapshot> findFirstByAccountNumberAndAsOfLessThanEqualOrderByAsOfDesc(String accountNumber, LocalDateTime asOf);
+
+    @Query("SELECT MAX(s.asOf) FROM BalanceSnapshot s")
+    Optional<LocalDateTime> findLatestAsOf();
+
+    @Query("""
+            SELECT s FROM BalanceSnapshot s
+            WHERE s.accountNumber IN :accountNumbers
+              AND s.asOf = (SELECT MAX(l.asOf) FROM BalanceSnapshot l WHERE l.accountNumber = s.accountNumber)
+            """)
+    List<BalanceSnapshot> findLatestByAccountNumberIn(@Param("accountNumbers") Collection<String> accountNumbers);
+}
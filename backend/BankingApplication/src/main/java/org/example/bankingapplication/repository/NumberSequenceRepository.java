@@ -0,0 +1,19 @@
+package org.example.bankingapplication.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.bankingapplication.model.NumberSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface NumberSequenceRepository extends JpaRepository<NumberSequence, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM NumberSequence s WHERE s.name = :name")
+    Optional<NumberSequence> findByNameForUpdate(@Param("name") String name);
+}
@@ -1,6 +1,8 @@
 package org.example.bankingapplication.repository;
 
 import org.example.bankingapplication.model.Token;
+import org.example.bankingapplication.utils.TokenDigest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -29,7 +31,13 @@ public interface TokenRepository extends JpaRepository<Token, UUID> {
         """)
     List<Token> findAllValidTokensByUserId(@Param("userId") UUID userId);
 
-    Optional<Token> findByToken(String token);
+    default Optional<Token> findByToken(String token) {
+        return findByTokenHash(TokenDigest.sha256(token));
+    }
+
+    Optional<Token> findByTokenHash(byte[] tokenHash);
+
+    List<Token> findByTokenHashIsNull(Pageable pageable);
 
     List<Token> findAllByUserId(UUID userId);
 }
@@ -1,15 +1,103 @@
 package org.example.bankingapplication.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.bankingapplication.dto.transaction.MovementTotals;
+import org.example.bankingapplication.dto.transaction.TransactionView;
 import org.example.bankingapplication.model.Transaction;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
 
     List<Transaction> findByAccountNumberOrderByTransactionDateDesc(String accountNumber);
 
+    // Accounts with balance shards are left out: their shard credits have no balance_after by design. Keyset-paged
+    // by account number, so each account is visited once.
+    @Query("SELECT DISTINCT t.accountNumber FROM transactions t WHERE t.balanceAfter IS NULL " +
+            "AND t.accountNumber > :after " +
+            "AND NOT EXISTS (SELECT a.id FROM Account a WHERE a.accountNumber = t.accountNumber AND a.balanceShards > 0) " +
+            "ORDER BY t.accountNumber")
+    List<String> findAccountNumbersWithoutBalanceAfter(@Param("after") String after, Pageable pageable);
+
+    @Query("SELECT t.id FROM transactions t WHERE t.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("""
+            SELECT new org.example.bankingapplication.dto.transaction.TransactionView(
+                t.id, t.transactionType, t.transactionDate, t.amount, t.accountNumber, t.receiverAccountNumber, t.balanceAfter)
+            FROM transactions t
+            WHERE t.accountNumber = :accountNumber
+            ORDER BY t.transactionDate DESC, t.id ASC
+            """)
+    List<TransactionView> findFirstPage(@Param("accountNumber") String accountNumber, Pageable pageable);
+
+    @Query("""
+            SELECT new org.example.bankingapplication.dto.transaction.TransactionView(
+                t.id, t.transactionType, t.transactionDate, t.amount, t.accountNumber, t.receiverAccountNumber, t.balanceAfter)
+            FROM transactions t
+            WHERE t.accountNumber = :accountNumber
+              AND (t.transactionDate < :transactionDate
+                   OR (t.transactionDate = :transactionDate AND t.id > :id))
+            ORDER BY t.transactionDate DESC, t.id ASC
+            """)
+    List<TransactionView> findPageAfter(@Param("accountNumber") String accountNumber,
+                                    @Param("transactionDate") LocalDateTime transactionDate,
+                                    @Param("id") UUID id,
+                                    Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT new org.example.bankingapplication.dto.transaction.TransactionView(
+                t.id, t.transactionType, t.transactionDate, t.amount, t.accountNumber, t.receiverAccountNumber, t.balanceAfter)
+            FROM transactions t
+            WHERE t.accountNumber = :accountNumber
+            ORDER BY t.transactionDate DESC, t.id ASC
+            """)
+    Stream<TransactionView> streamExportRows(@Param("accountNumber") String accountNumber);
+
+    @Query("""
+            SELECT new org.example.bankingapplication.dto.transaction.MovementTotals(
+                COALESCE(SUM(CASE WHEN t.transactionType IN (
+                        org.example.bankingapplication.enums.TransactionType.WITHDRAW,
+                        org.example.bankingapplication.enums.TransactionType.TRANSFER_OUT)
+                    THEN 0 ELSE t.amount END), 0),
+                COALESCE(SUM(CASE WHEN t.transactionType IN (
+                        org.example.bankingapplication.enums.TransactionType.WITHDRAW,
+                        org.example.bankingapplication.enums.TransactionType.TRANSFER_OUT)
+                    THEN t.amount ELSE 0 END), 0),
+                COUNT(t))
+            FROM transactions t
+            WHERE t.accountNumber = :accountNumber
+              AND t.transactionDate >= :from AND t.transactionDate < :to
+            """)
+    MovementTotals sumMovements(@Param("accountNumber") String accountNumber,
+                                @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to);
+
+    @Query("""
+            SELECT t.accountNumber, SUM(CASE WHEN t.transactionType IN (
+                        org.example.bankingapplication.enums.TransactionType.WITHDRAW,
+                        org.example.bankingapplication.enums.TransactionType.TRANSFER_OUT)
+                    THEN -t.amount ELSE t.amount END)
+            FROM transactions t
+            WHERE t.transactionDate >= :from AND t.transactionDate < :to
+            GROUP BY t.accountNumber
+            """)
+    List<Object[]> sumNetMovementsByAccount(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
 }
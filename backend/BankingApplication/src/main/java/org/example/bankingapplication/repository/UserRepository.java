@@ -1,7 +1,10 @@
 package org.example.bankingapplication.repository;
 
 import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.userDetails.CustomUserDetails;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,9 +15,19 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findUserByUsername(String username);
 
+    @Query("""
+            SELECT new org.example.bankingapplication.userDetails.CustomUserDetails(u.id, u.username, u.password, u.role, u.accountNumber)
+            FROM User u
+            WHERE u.username = :username
+            """)
+    Optional<CustomUserDetails> findUserDetailsByUsername(@Param("username") String username);
+
     boolean existsUserByEmail(String email);
 
     boolean existsUserByUsername(String username);
 
     boolean existsByAccountNumber(String accountNumber);
+
+    @Query("SELECT u.accountNumber FROM User u WHERE u.id = :userId")
+    Optional<String> findAccountNumberById(@Param("userId") UUID userId);
 }
@@ -0,0 +1,151 @@
+package org.example.bankingapplication.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.bankingapplication.model.NumberSequence;
+import org.example.bankingapplication.repository.NumberSequenceRepository;
+import org.example.bankingapplication.utils.Iban;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Issues Lithuanian IBANs ({@code LTkk BBBB BCCC CCCC CCCC}) that are unique without asking the database
+ * whether a number is taken. Each instance reserves a block of sequence values with one row-locked update
+ * of {@code number_sequences}, and every value is mapped to an 11-digit account part through a keyed
+ * Feistel permutation. The permutation is a bijection, so distinct sequence values never produce the same
+ * number, while consecutive registrations still get unrelated-looking account numbers.
+ * <p>
+ * The permutation key must stay the same for the lifetime of the data; changing it can reissue numbers. It has no
+ * default, so a deployment that forgets to set it fails to start instead of issuing numbers under a guessable key.
+ */
+@Slf4j
+@Service
+public class AccountNumberGenerator {
+
+    static final String SEQUENCE_NAME = "account-number";
+    static final long ACCOUNT_SPACE = 100_000_000_000L;
+
+    private static final String COUNTRY_CODE = "LT";
+    private static final int IBAN_LENGTH = 20;
+    private static final int ACCOUNT_DIGITS = 11;
+    // 2^38 is the smallest even power of two above 10^11; out-of-range outputs are re-encrypted (cycle walking).
+    private static final int HALF_BITS = 19;
+    private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+    private static final int ROUNDS = 4;
+
+    private final NumberSequenceRepository numberSequenceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String bankCode;
+    private final int blockSize;
+    private final long[] roundKeys = new long[ROUNDS];
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long next;
+    private long limit;
+
+    public AccountNumberGenerator(NumberSequenceRepository numberSequenceRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.accounts.account-number.bank-code:73000}") String bankCode,
+                                  @Value("${app.accounts.account-number.block-size:100}") int blockSize,
+                                  @Value("${app.accounts.account-number.permutation-key}") long permutationKey) {
+        if (!bankCode.matches("\\d{5}")) {
+            throw new IllegalArgumentException("Bank code must be 5 digits: " + bankCode);
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.numberSequenceRepository = numberSequenceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.bankCode = bankCode;
+        this.blockSize = blockSize;
+        for (int i = 0; i < ROUNDS; i++) {
+            roundKeys[i] = mix(permutationKey + (i + 1) * 0x9E3779B97F4A7C15L);
+        }
+    }
+
+    public String nextAccountNumber() {
+        long sequence;
+        // A ReentrantLock rather than synchronized: a block refill does JDBC and must not pin a virtual thread.
+        lock.lock();
+        try {
+            if (next == limit) {
+                allocateBlock();
+            }
+            sequence = next++;
+        } finally {
+            lock.unlock();
+        }
+        return format(permute(sequence));
+    }
+
+    String format(long account) {
+        char[] iban = new char[IBAN_LENGTH];
+        iban[0] = COUNTRY_CODE.charAt(0);
+        iban[1] = COUNTRY_CODE.charAt(1);
+        bankCode.getChars(0, bankCode.length(), iban, 4);
+        for (int i = IBAN_LENGTH - 1; i >= IBAN_LENGTH - ACCOUNT_DIGITS; i--) {
+            iban[i] = (char) ('0' + account % 10);
+            account /= 10;
+        }
+        Iban.writeCheckDigits(iban);
+        return new String(iban);
+    }
+
+    long permute(long sequence) {
+        long value = sequence;
+        do {
+            value = feistel(value);
+        } while (value >= ACCOUNT_SPACE);
+        return value;
+    }
+
+    private void allocateBlock() {
+        long start;
+        try {
+            start = reserveBlock();
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the sequence row first; it exists now, so the retry locks it.
+            start = reserveBlock();
+        }
+        if (start + blockSize > ACCOUNT_SPACE) {
+            throw new IllegalStateException("Account number space exhausted");
+        }
+        next = start;
+        limit = start + blockSize;
+        log.debug("Reserved account number block [{}, {})", next, limit);
+    }
+
+    private long reserveBlock() {
+        return transactionTemplate.execute(status -> {
+            NumberSequence sequence = numberSequenceRepository.findByNameForUpdate(SEQUENCE_NAME)
+                    .orElseGet(() -> NumberSequence.builder().name(SEQUENCE_NAME).nextValue(0).build());
+            long start = sequence.getNextValue();
+            sequence.setNextValue(start + blockSize);
+            numberSequenceRepository.saveAndFlush(sequence);
+            return start;
+        });
+    }
+
+    private long feistel(long value) {
+        long left = value >>> HALF_BITS;
+        long right = value & HALF_MASK;
+        for (long roundKey : roundKeys) {
+            long mixed = left ^ (mix(right ^ roundKey) & HALF_MASK);
+            left = right;
+            right = mixed;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
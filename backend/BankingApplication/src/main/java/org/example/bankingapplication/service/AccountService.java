@@ -1,6 +1,7 @@
 package org.example.bankingapplication.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.bankingapplication.cache.RecentWrites;
 import org.example.bankingapplication.dto.account.AccountRequestDTO;
 import org.example.bankingapplication.dto.account.AccountResponseDTO;
 import org.example.bankingapplication.exceptions.AccountNotFoundException;
@@ -9,12 +10,11 @@ import org.example.bankingapplication.model.User;
 import org.example.bankingapplication.repository.AccountRepository;
 import org.example.bankingapplication.repository.UserRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
-import java.util.Random;
 import java.util.UUID;
-import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +22,7 @@ public class AccountService {
 
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final RecentWrites recentWrites;
 
     public AccountResponseDTO createAccount(AccountRequestDTO accountRequestDTO) {
         if (accountRequestDTO.getUserId() == null || accountRequestDTO.getAccountNumber() == null) {
@@ -44,7 +45,7 @@ public class AccountService {
 
         Account savedAccount = accountRepository.save(account);
         user.getAccounts().add(savedAccount);
-        userRepository.save(user);
+        recentWrites.mark(savedAccount.getAccountNumber());
 
         return AccountResponseDTO.builder()
                 .accountId(savedAccount.getId())
@@ -54,25 +55,13 @@ public class AccountService {
                 .build();
     }
 
+    /**
+     * Returns the account with its balance as stored in {@code accounts}. On the {@code LEDGER} engine that is the
+     * projected balance, which can trail the latest movements by the projection lag.
+     */
+    @Transactional(readOnly = true)
     public AccountResponseDTO getAccountByUserId(UUID userId) {
-        return accountRepository.findByUserId(userId)
-                .map(account -> AccountResponseDTO.builder()
-                        .accountId(account.getId())
-                        .accountNumber(account.getAccountNumber())
-                        .ownerName(account.getOwnerName())
-                        .balance(account.getBalance())
-                        .build())
+        return accountRepository.findSummaryByUserId(userId)
                 .orElseThrow(() -> new AccountNotFoundException("Account not found for user: " + userId));
     }
-
-    public static String generateAccountNumber() {
-        String countryCode = "LT";
-        Random random = new Random();
-        StringBuilder accountNumber = new StringBuilder(countryCode);
-        accountNumber.append(random.nextInt(90) + 10);
-        IntStream.range(0, 16).
-                forEach(i -> accountNumber.append(random.nextInt(10)));
-
-        return accountNumber.toString();
-    }
 }
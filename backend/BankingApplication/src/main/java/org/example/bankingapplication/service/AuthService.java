@@ -1,8 +1,7 @@
 package org.example.bankingapplication.service;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.example.bankingapplication.dto.account.AccountRequestDTO;
 import org.example.bankingapplication.dto.login.LoginRequestDTO;
 import org.example.bankingapplication.dto.login.LoginResponseDTO;
 import org.example.bankingapplication.dto.register.RegisterRequestDTO;
@@ -10,6 +9,7 @@ import org.example.bankingapplication.dto.register.RegisterResponseDTO;
 import org.example.bankingapplication.enums.Roles;
 import org.example.bankingapplication.exceptions.UserAlreadyExistsException;
 import org.example.bankingapplication.exceptions.UserAlreadyLoggedInException;
+import org.example.bankingapplication.model.Account;
 import org.example.bankingapplication.model.User;
 import org.example.bankingapplication.repository.UserRepository;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -17,10 +17,11 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.Optional;
 
 @Service
@@ -28,13 +29,15 @@ import java.util.Optional;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final Argon2PasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final TokenService tokenService;
-    private final AccountService accountService;
+    private final AccountNumberGenerator accountNumberGenerator;
 
-    @Transactional
+    // Not transactional: the Argon2 hash may wait for a hashing thread and must not hold a pooled
+    // connection meanwhile. The single cascading save below is atomic on its own.
+    @Timed(value = "banking.auth", histogram = true)
     public RegisterResponseDTO register(RegisterRequestDTO registerRequestDTO) throws UserAlreadyExistsException {
         if (userRepository.existsUserByEmail(registerRequestDTO.getEmail())) {
             throw new UserAlreadyExistsException("Email already exists!");
@@ -43,10 +46,7 @@ public class AuthService {
             throw new UserAlreadyExistsException("This username already exists!");
         }
 
-        String accountNumber = AccountService.generateAccountNumber();
-        if (userRepository.existsByAccountNumber(accountNumber)) {
-            accountNumber = AccountService.generateAccountNumber();
-        }
+        String accountNumber = accountNumberGenerator.nextAccountNumber();
 
         User user = User.builder()
                 .username(registerRequestDTO.getUsername())
@@ -54,21 +54,23 @@ public class AuthService {
                 .password(passwordEncoder.encode(registerRequestDTO.getPassword()))
                 .role(Roles.ROLE_USER)
                 .accountNumber(accountNumber)
+                .accounts(new HashSet<>())
                 .build();
-        userRepository.save(user);
-
-        AccountRequestDTO accountRequestDTO = AccountRequestDTO.builder()
-                .userId(user.getId())
+        Account account = Account.builder()
                 .accountNumber(accountNumber)
-                .initialDeposit(BigDecimal.ZERO)
+                .ownerName(user.getUsername())
+                .balance(BigDecimal.ZERO)
+                .user(user)
                 .build();
-
-        accountService.createAccount(accountRequestDTO);
+        user.getAccounts().add(account);
+        // The account is persisted through the cascade, so each row is inserted exactly once.
+        userRepository.save(user);
 
         return new RegisterResponseDTO(user.getId(), "User registered successfully!");
     }
 
 
+    @Timed(value = "banking.auth", histogram = true)
     public LoginResponseDTO login(LoginRequestDTO loginRequestDTO) {
         authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(loginRequestDTO.getUsername(), loginRequestDTO.getPassword()));
 
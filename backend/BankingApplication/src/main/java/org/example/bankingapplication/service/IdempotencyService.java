@@ -0,0 +1,279 @@
+package org.example.bankingapplication.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bankingapplication.dto.transaction.TransactionRequestDTO;
+import org.example.bankingapplication.dto.transaction.TransactionResponseDTO;
+import org.example.bankingapplication.exceptions.IdempotencyKeyReusedException;
+import org.example.bankingapplication.exceptions.IdempotencyRequestInProgressException;
+import org.example.bankingapplication.exceptions.MovementOutcomeUnknownException;
+import org.example.bankingapplication.ledger.LedgerEngine;
+import org.example.bankingapplication.model.IdempotencyRecord;
+import org.example.bankingapplication.repository.IdempotencyRecordRepository;
+import org.example.bankingapplication.utils.TokenDigest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Makes money movements safe to retry with an {@code Idempotency-Key} header. On the JPA engine the key and the
+ * stored response are inserted in the movement's own transaction, so a first-seen key costs one row in a commit
+ * that happens anyway. The unique index on {@code idempotency_keys} lets exactly one of several concurrent attempts
+ * commit; the others roll back with their movement and replay the stored response. A version conflict retries the
+ * whole keyed transaction.
+ * <p>
+ * The ledger engine commits a movement to its journal, not to the database, so there a request first claims its key
+ * by inserting a pending row in a short transaction of its own; the others wait for the claim to be completed and
+ * replay it. A claim whose movement fails is released for the next attempt, unless the movement may still be
+ * applied ({@link MovementOutcomeUnknownException}); that key stays claimed until it expires.
+ * <p>
+ * Replays are served from a bounded local cache, falling back to the table, and never touch accounts.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MILLIS = 20;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final RetryTemplate optimisticRetryTemplate;
+    private final LedgerEngine ledgerEngine;
+    private final Cache<String, StoredResponse> cache;
+    private final Duration retention;
+    private final Duration inProgressWait;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              RetryTemplate optimisticRetryTemplate,
+                              LedgerEngine ledgerEngine,
+                              @Value("${app.idempotency.cache.max-size:100000}") long maxSize,
+                              @Value("${app.idempotency.retention:PT24H}") Duration retention,
+                              @Value("${app.idempotency.in-progress-wait:PT5S}") Duration inProgressWait) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.optimisticRetryTemplate = optimisticRetryTemplate;
+        this.ledgerEngine = ledgerEngine;
+        this.retention = retention;
+        this.inProgressWait = inProgressWait;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    public TransactionResponseDTO execute(String idempotencyKey, String operation, TransactionRequestDTO request,
+                                          Supplier<TransactionResponseDTO> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        byte[] requestHash = fingerprint(operation, request);
+
+        StoredResponse cached = cache.getIfPresent(idempotencyKey);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+        StoredResponse outcome = ledgerEngine.isEnabled()
+                ? executeClaimed(idempotencyKey, requestHash, action)
+                : executeInTransaction(idempotencyKey, requestHash, action);
+        cache.put(idempotencyKey, outcome);
+        return replay(outcome, requestHash);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * Runs the movement and inserts the completed key in one transaction. A key already in the table (one this
+     * instance has not cached) is looked up by its unique index first and replayed without touching accounts. When a
+     * concurrent request with the same key commits first, the insert fails, this movement rolls back with it, and
+     * that request's response is replayed.
+     */
+    private StoredResponse executeInTransaction(String idempotencyKey, byte[] requestHash,
+                                                Supplier<TransactionResponseDTO> action) {
+        StoredResponse outcome;
+        try {
+            outcome = optimisticRetryTemplate.execute(context -> transactionTemplate.execute(status -> {
+                if (idempotencyRecordRepository.findByIdempotencyKey(idempotencyKey).isPresent()) {
+                    return null;
+                }
+                TransactionResponseDTO result = action.get();
+                idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                        .idempotencyKey(idempotencyKey)
+                        .requestHash(requestHash)
+                        .response(serialize(result))
+                        .pending(false)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+                return new StoredResponse(requestHash, result);
+            }));
+        } catch (DataIntegrityViolationException e) {
+            return awaitCommitted(idempotencyKey, requestHash, e);
+        }
+        return outcome != null ? outcome : awaitCommitted(idempotencyKey, requestHash, null);
+    }
+
+    /**
+     * Waits for the request that holds the key to commit and returns its response. After a failed insert, a key
+     * that never shows up means the violation came from the movement itself, which is rethrown.
+     */
+    private StoredResponse awaitCommitted(String idempotencyKey, byte[] requestHash, DataIntegrityViolationException violation) {
+        long deadline = System.nanoTime() + inProgressWait.toNanos();
+        while (true) {
+            IdempotencyRecord record = idempotencyRecordRepository.findByIdempotencyKey(idempotencyKey).orElse(null);
+            if (record != null && !record.isPending()) {
+                return new StoredResponse(record.getRequestHash(), deserialize(record.getResponse()));
+            }
+            if (record != null && !Arrays.equals(record.getRequestHash(), requestHash)) {
+                throw new IdempotencyKeyReusedException("Idempotency-Key was already used for a different request");
+            }
+            if (System.nanoTime() - deadline > 0) {
+                if (record == null && violation != null) {
+                    throw violation;
+                }
+                throw new IdempotencyRequestInProgressException("A request with this Idempotency-Key is still in progress");
+            }
+            pause();
+        }
+    }
+
+    private StoredResponse executeClaimed(String idempotencyKey, byte[] requestHash, Supplier<TransactionResponseDTO> action) {
+        StoredResponse completed = claimOrAwait(idempotencyKey, requestHash);
+        if (completed != null) {
+            return completed;
+        }
+
+        TransactionResponseDTO result;
+        try {
+            result = action.get();
+        } catch (MovementOutcomeUnknownException e) {
+            log.warn("Keeping idempotency key {} claimed: {}", idempotencyKey, e.getMessage());
+            throw e;
+        } catch (RuntimeException e) {
+            release(idempotencyKey);
+            throw e;
+        }
+        try {
+            if (idempotencyRecordRepository.complete(idempotencyKey, serialize(result)) == 0) {
+                log.warn("Idempotency key {} was no longer claimed when its request completed", idempotencyKey);
+            }
+        } catch (RuntimeException e) {
+            // The movement has happened; the key stays claimed, so a retry waits and is refused rather than repeating it.
+            log.error("Could not store the response for idempotency key {}", idempotencyKey, e);
+        }
+        return new StoredResponse(requestHash, result);
+    }
+
+    /**
+     * Claims the key for this request and returns null, or returns the response of the request that completed it.
+     * While another request holds the claim this waits up to {@code app.idempotency.in-progress-wait} for it to
+     * finish, and claims the key itself if that request failed and released it.
+     */
+    private StoredResponse claimOrAwait(String idempotencyKey, byte[] requestHash) {
+        long deadline = System.nanoTime() + inProgressWait.toNanos();
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                        .idempotencyKey(idempotencyKey)
+                        .requestHash(requestHash)
+                        .response("")
+                        .pending(true)
+                        .createdAt(LocalDateTime.now())
+                        .build()));
+                return null;
+            } catch (DataIntegrityViolationException e) {
+                // Another request holds or has completed the key.
+            }
+            IdempotencyRecord record = idempotencyRecordRepository.findByIdempotencyKey(idempotencyKey).orElse(null);
+            if (record == null) {
+                continue;
+            }
+            if (!record.isPending()) {
+                return new StoredResponse(record.getRequestHash(), deserialize(record.getResponse()));
+            }
+            if (!Arrays.equals(record.getRequestHash(), requestHash)) {
+                throw new IdempotencyKeyReusedException("Idempotency-Key was already used for a different request");
+            }
+            if (System.nanoTime() - deadline > 0) {
+                throw new IdempotencyRequestInProgressException("A request with this Idempotency-Key is still in progress");
+            }
+            pause();
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyRequestInProgressException("A request with this Idempotency-Key is still in progress");
+        }
+    }
+
+    private void release(String idempotencyKey) {
+        try {
+            idempotencyRecordRepository.release(idempotencyKey);
+        } catch (RuntimeException e) {
+            log.error("Could not release idempotency key {}; retries with it will be refused until it expires",
+                    idempotencyKey, e);
+        }
+    }
+
+    private TransactionResponseDTO replay(StoredResponse stored, byte[] requestHash) {
+        if (!Arrays.equals(stored.requestHash(), requestHash)) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key was already used for a different request");
+        }
+        return stored.response();
+    }
+
+    private static byte[] fingerprint(String operation, TransactionRequestDTO request) {
+        return TokenDigest.sha256(String.join("|",
+                operation,
+                String.valueOf(request.getSenderAccountNumber()),
+                String.valueOf(request.getRecipientAccountNumber()),
+                request.getAmount() == null ? "" : request.getAmount().stripTrailingZeros().toPlainString()));
+    }
+
+    private String serialize(TransactionResponseDTO response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize transaction response", e);
+        }
+    }
+
+    private TransactionResponseDTO deserialize(String response) {
+        try {
+            return objectMapper.readValue(response, TransactionResponseDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored transaction response", e);
+        }
+    }
+
+    private record StoredResponse(byte[] requestHash, TransactionResponseDTO response) {
+    }
+}
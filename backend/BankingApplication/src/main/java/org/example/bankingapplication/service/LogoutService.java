@@ -3,6 +3,8 @@ package org.example.bankingapplication.service;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.example.bankingapplication.cache.TokenDenylist;
+import org.example.bankingapplication.cache.TokenStateCache;
 import org.example.bankingapplication.repository.TokenRepository;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,6 +18,8 @@ import java.io.IOException;
 public class LogoutService implements LogoutHandler {
 
     private final TokenRepository tokenRepository;
+    private final TokenStateCache tokenStateCache;
+    private final TokenDenylist tokenDenylist;
 
     @Override
     public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
@@ -36,6 +40,8 @@ public class LogoutService implements LogoutHandler {
             storedToken.setExpired(true);
             storedToken.setRevoked(true);
             tokenRepository.delete(storedToken);
+            tokenStateCache.invalidateAfterCommit(jwt);
+            tokenDenylist.revoke(storedToken.getJti(), storedToken.getExpiresAt());
             SecurityContextHolder.clearContext();
             response.setStatus(HttpServletResponse.SC_OK);
             try {
@@ -0,0 +1,161 @@
+package org.example.bankingapplication.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bankingapplication.exceptions.AccountNotFoundException;
+import org.example.bankingapplication.model.Account;
+import org.example.bankingapplication.model.AccountBalanceShard;
+import org.example.bankingapplication.repository.AccountBalanceShardRepository;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sharded balances for hot accounts, such as merchant collection accounts that receive a constant stream of
+ * transfers. A flagged account takes its credits in one of N {@code account_balance_shards} rows, picked by the
+ * crediting thread, so concurrent credits lock different rows instead of queuing on the account row. Debits still
+ * go against {@code accounts.balance}: a withdrawal through a conditional {@code UPDATE} of the row, a transfer on
+ * the locked row. When that is short, the shards are swept into it and the debit is tried once more. The balance of
+ * an account is always its row plus its shards.
+ * <p>
+ * Which accounts are sharded is kept in memory and refreshed from the database. A stale answer only means a credit
+ * lands on the account row, which is still correct. Accounts are never unsharded.
+ */
+@Slf4j
+@Service
+public class ShardedBalanceService implements SmartInitializingSingleton, MeterBinder {
+
+    private final AccountRepository accountRepository;
+    private final AccountBalanceShardRepository accountBalanceShardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final List<String> configuredAccountNumbers;
+    private final int defaultShards;
+    private final Map<String, Integer> shardCounts = new ConcurrentHashMap<>();
+    private final AtomicLong sweeps = new AtomicLong();
+
+    public ShardedBalanceService(AccountRepository accountRepository,
+                                 AccountBalanceShardRepository accountBalanceShardRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.accounts.sharded-balance.account-numbers:}") List<String> configuredAccountNumbers,
+                                 @Value("${app.accounts.sharded-balance.shards:16}") int defaultShards) {
+        if (defaultShards < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + defaultShards);
+        }
+        this.accountRepository = accountRepository;
+        this.accountBalanceShardRepository = accountBalanceShardRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.configuredAccountNumbers = configuredAccountNumbers;
+        this.defaultShards = defaultShards;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh();
+        for (String accountNumber : configuredAccountNumbers) {
+            if (!accountNumber.isBlank()) {
+                enable(accountNumber.trim(), defaultShards);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.accounts.sharded-balance.refresh-interval:PT30S}")
+    public void refresh() {
+        Map<String, Integer> current = new HashMap<>();
+        for (Object[] row : accountRepository.findShardedAccounts()) {
+            current.put((String) row[0], (Integer) row[1]);
+        }
+        shardCounts.putAll(current);
+        shardCounts.keySet().retainAll(current.keySet());
+    }
+
+    /**
+     * Flags an account as sharded with at least {@code shards} sub-balances. Existing shards and their balances are
+     * kept, so this can also widen an account that is already sharded.
+     */
+    public void enable(String accountNumber, int shards) {
+        int enabled = transactionTemplate.execute(status -> {
+            Account account = accountRepository.findByAccountNumberForUpdate(accountNumber)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+            for (int shard = account.getBalanceShards(); shard < shards; shard++) {
+                accountBalanceShardRepository.save(AccountBalanceShard.builder()
+                        .accountNumber(accountNumber)
+                        .shard(shard)
+                        .balance(BigDecimal.ZERO)
+                        .build());
+            }
+            account.setBalanceShards(Math.max(account.getBalanceShards(), shards));
+            return account.getBalanceShards();
+        });
+        shardCounts.put(accountNumber, enabled);
+        log.info("Account {} takes credits in {} balance shards", accountNumber, enabled);
+    }
+
+    /**
+     * Whether {@code app.accounts.sharded-balance.account-numbers} names any account to shard.
+     */
+    public boolean hasConfiguredAccounts() {
+        return configuredAccountNumbers.stream().anyMatch(accountNumber -> !accountNumber.isBlank());
+    }
+
+    public boolean isSharded(String accountNumber) {
+        return accountNumber != null && shardCounts.containsKey(accountNumber);
+    }
+
+    /**
+     * Adds {@code amount} to one of the account's shards in the current transaction. Returns false when the account
+     * has no shards, i.e. it does not exist or is not sharded.
+     */
+    public boolean credit(String accountNumber, BigDecimal amount) {
+        Integer shards = shardCounts.get(accountNumber);
+        if (shards == null) {
+            return false;
+        }
+        // Request threads are spread over the shards without any coordination between them.
+        int shard = (int) Math.floorMod(Thread.currentThread().threadId(), (long) shards);
+        return accountBalanceShardRepository.creditShard(accountNumber, shard, amount) > 0;
+    }
+
+    /**
+     * Locks the account's shards, zeroes them and returns what they held, for the caller to add to the account row
+     * in the same transaction. Returns zero for an account without shards.
+     */
+    public BigDecimal sweep(String accountNumber) {
+        BigDecimal swept = BigDecimal.ZERO;
+        for (AccountBalanceShard shard : accountBalanceShardRepository.findByAccountNumberForUpdate(accountNumber)) {
+            swept = swept.add(shard.getBalance());
+            shard.setBalance(BigDecimal.ZERO);
+        }
+        if (swept.signum() != 0) {
+            sweeps.incrementAndGet();
+        }
+        return swept;
+    }
+
+    public BigDecimal shardBalance(String accountNumber) {
+        return accountBalanceShardRepository.sumBalanceByAccountNumber(accountNumber);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("banking.accounts.sharded", shardCounts, Map::size)
+                .description("Accounts whose credits are spread over balance shards")
+                .register(registry);
+        FunctionCounter.builder("banking.accounts.shard.sweeps", sweeps, AtomicLong::get)
+                .description("Debits that had to collect shard balances into the account row first")
+                .register(registry);
+    }
+}
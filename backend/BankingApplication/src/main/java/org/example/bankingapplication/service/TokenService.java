@@ -1,15 +1,23 @@
 package org.example.bankingapplication.service;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.example.bankingapplication.cache.TokenDenylist;
+import org.example.bankingapplication.cache.TokenStateCache;
 import org.example.bankingapplication.enums.TokenType;
 import org.example.bankingapplication.model.Token;
 import org.example.bankingapplication.model.User;
 import org.example.bankingapplication.repository.TokenRepository;
+import org.example.bankingapplication.utils.TokenDigest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -17,16 +25,26 @@ public class TokenService {
 
 
     private final TokenRepository tokenRepository;
+    private final TokenStateCache tokenStateCache;
+    private final TokenDenylist tokenDenylist;
+    private final JwtService jwtService;
     private final HttpServletRequest request;
 
+    @Value("${app.security.token-digest.persist-raw-token:false}")
+    private boolean persistRawToken;
+
     public void saveUserToken(User user, String jwtToken) {
         if (user == null || jwtToken == null) {
             throw new IllegalArgumentException("User and JWT token must not be null");
         }
 
+        Claims claims = jwtService.extractAllClaims(jwtToken);
         var token = Token.builder()
                 .user(user)
-                .token(jwtToken)
+                .token(persistRawToken ? jwtToken : null)
+                .tokenHash(TokenDigest.sha256(jwtToken))
+                .jti(claims.getId() != null ? UUID.fromString(claims.getId()) : null)
+                .expiresAt(LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()))
                 .tokenType(TokenType.BEARER)
                 .isExpired(false)
                 .isRevoked(false)
@@ -44,12 +62,14 @@ public class TokenService {
             token.setRevoked(true);
         });
         tokenRepository.saveAll(validUserTokens);
+        validUserTokens.forEach(this::forget);
     }
 
     public void deleteAllUserTokens(User user) {
         var allUserTokens = tokenRepository.findAllByUserId(user.getId());
         if (!allUserTokens.isEmpty()) {
             tokenRepository.deleteAll(allUserTokens);
+            allUserTokens.forEach(this::forget);
         }
     }
 
@@ -69,4 +89,10 @@ public class TokenService {
     public void clearToken() {
         SecurityContextHolder.clearContext();
     }
+
+    // Drops the token from both revocation paths: the stateful cache and the stateless jti denylist.
+    private void forget(Token token) {
+        tokenStateCache.invalidateHashAfterCommit(token.getTokenHash());
+        tokenDenylist.revoke(token.getJti(), token.getExpiresAt());
+    }
 }
@@ -0,0 +1,79 @@
+package org.example.bankingapplication.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.example.bankingapplication.cache.AccountNumberCache;
+import org.example.bankingapplication.dto.transaction.TransactionView;
+import org.example.bankingapplication.enums.ExportFormat;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Streams an account's full transaction history row by row. Rows are read through a forward-only
+ * cursor as projections and written straight to the response, so memory use does not grow with
+ * the size of the history.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+
+    private static final String CSV_HEADER =
+            "transactionId,transactionType,transactionDate,amount,senderAccountNumber,recipientAccountNumber,balanceAfter\n";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AccountNumberCache accountNumberCache;
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    public String getAccountNumberByUserId(UUID userId) {
+        return accountNumberCache.getAccountNumber(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public long export(String accountNumber, ExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long rows = 0;
+        try (Stream<TransactionView> stream = transactionRepository.streamExportRows(accountNumber)) {
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+            }
+            Iterator<TransactionView> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                TransactionView row = iterator.next();
+                if (format == ExportFormat.CSV) {
+                    writeCsv(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                rows++;
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private void writeCsv(Writer writer, TransactionView row) throws IOException {
+        writer.write(row.transactionId().toString());
+        writer.write(',');
+        writer.write(row.transactionType() == null ? "" : row.transactionType().name());
+        writer.write(',');
+        writer.write(row.transactionDate() == null ? "" : row.transactionDate().toString());
+        writer.write(',');
+        writer.write(row.amount().toPlainString());
+        writer.write(',');
+        writer.write(row.senderAccountNumber() == null ? "" : row.senderAccountNumber());
+        writer.write(',');
+        writer.write(row.recipientAccountNumber() == null ? "" : row.recipientAccountNumber());
+        writer.write(',');
+        writer.write(row.balanceAfter() == null ? "" : row.balanceAfter().toPlainString());
+        writer.write('\n');
+    }
+}
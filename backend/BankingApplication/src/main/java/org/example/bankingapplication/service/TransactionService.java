@@ -1,147 +1,284 @@
 package org.example.bankingapplication.service;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.bankingapplication.cache.AccountNumberCache;
+import org.example.bankingapplication.cache.RecentWrites;
+import org.example.bankingapplication.dto.account.AccountBalanceView;
+import org.example.bankingapplication.dto.transaction.BatchTransferRequestDTO;
+import org.example.bankingapplication.dto.transaction.BatchTransferResponseDTO;
+import org.example.bankingapplication.dto.transaction.TransactionPageResponseDTO;
 import org.example.bankingapplication.dto.transaction.TransactionRequestDTO;
 import org.example.bankingapplication.dto.transaction.TransactionResponseDTO;
+import org.example.bankingapplication.dto.transaction.TransactionView;
+import org.example.bankingapplication.enums.ConcurrencyControl;
 import org.example.bankingapplication.enums.TransactionType;
 import org.example.bankingapplication.exceptions.AccountNotFoundException;
+import org.example.bankingapplication.exceptions.MovementOutcomeUnknownException;
+import org.example.bankingapplication.journal.JournalEntry;
+import org.example.bankingapplication.journal.TransactionJournal;
+import org.example.bankingapplication.journal.TransactionLog;
+import org.example.bankingapplication.journal.TransactionLogRecord;
+import org.example.bankingapplication.ledger.LedgerEngine;
+import org.example.bankingapplication.ledger.LedgerReceipt;
 import org.example.bankingapplication.model.Account;
 import org.example.bankingapplication.model.Transaction;
 import org.example.bankingapplication.repository.AccountRepository;
 import org.example.bankingapplication.repository.TransactionRepository;
+import org.example.bankingapplication.utils.Money;
+import org.example.bankingapplication.utils.TransactionCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed("banking.transaction.service")
 public class TransactionService {
 
+    // Journal version of rows whose movement does not change the account version: credits to balance shards.
+    private static final long UNVERSIONED = -1;
+
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
-
-
-    @Transactional
+    private final AccountNumberCache accountNumberCache;
+    private final TransactionJournal transactionJournal;
+    private final ShardedBalanceService shardedBalanceService;
+    private final LedgerEngine ledgerEngine;
+    private final TransactionLog transactionLog;
+    private final TransactionTemplate transactionTemplate;
+    private final RecentWrites recentWrites;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.transactions.concurrency-control:PESSIMISTIC}")
+    private ConcurrencyControl concurrencyControl;
+
+    @Value("${app.transactions.batch.max-size:5000}")
+    private int maxBatchSize;
+
+    @Value("${app.transactions.history.max-page-size:200}")
+    private int maxPageSize;
+
+    // Movements take no database transaction of their own on the ledger, so only the JPA path runs in one. Either
+    // way the accounts are marked in RecentWrites once the movement is applied.
+    @Timed(value = "banking.transaction.latency", histogram = true)
     public TransactionResponseDTO deposit(TransactionRequestDTO transactionRequestDTO) {
-        checkAmount(transactionRequestDTO.getAmount());
-
-        Account account = accountRepository.findByAccountNumber(transactionRequestDTO.getSenderAccountNumber())
-                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        Money amount = checkAmount(transactionRequestDTO.getAmount());
+
+        String accountNumber = transactionRequestDTO.getSenderAccountNumber();
+        TransactionResponseDTO response;
+        if (ledgerEngine.isEnabled()) {
+            LedgerReceipt receipt = onLedger("deposit", () -> ledgerEngine.deposit(accountNumber, amount));
+            response = ledgerResponse(receipt, TransactionType.DEPOSIT, accountNumber, null, "Deposit successful");
+        } else {
+            response = transactionTemplate.execute(status -> depositInTransaction(transactionRequestDTO));
+        }
+        recentWrites.mark(accountNumber);
+        return response;
+    }
 
-        BigDecimal newBalance = account.getBalance().add(transactionRequestDTO.getAmount());
-        account.setBalance(newBalance);
+    private TransactionResponseDTO depositInTransaction(TransactionRequestDTO transactionRequestDTO) {
+        String accountNumber = transactionRequestDTO.getSenderAccountNumber();
+        boolean sharded = shardedBalanceService.isSharded(accountNumber);
+        boolean credited = sharded
+                ? shardedBalanceService.credit(accountNumber, transactionRequestDTO.getAmount())
+                : accountRepository.creditBalance(accountNumber, transactionRequestDTO.getAmount()) > 0;
+        if (!credited) {
+            throw accountNotFound("deposit", "Account not found");
+        }
+        AccountBalanceView newBalance = currentBalanceView(accountNumber);
 
         Transaction transaction = Transaction.builder()
                 .transactionType(TransactionType.DEPOSIT)
                 .amount(transactionRequestDTO.getAmount())
-                .accountNumber(account.getAccountNumber())
+                .accountNumber(accountNumber)
+                .balanceAfter(sharded ? null : newBalance.balance())
                 .transactionDate(LocalDateTime.now())
                 .build();
 
-        Transaction savedTransaction = transactionRepository.save(transaction);
-
-        accountRepository.save(account);
+        journal(List.of(transaction), sharded ? UNVERSIONED : newBalance.version());
 
         return TransactionResponseDTO.builder()
-                .transactionId(savedTransaction.getId())
-                .senderAccountNumber(account.getAccountNumber())
-                .balance(newBalance)
+                .transactionId(transaction.getId())
+                .senderAccountNumber(accountNumber)
+                .balance(newBalance.balance())
                 .transactionType(TransactionType.DEPOSIT)
-                .transactionDate(savedTransaction.getTransactionDate())
+                .transactionDate(transaction.getTransactionDate())
                 .message("Deposit successful")
                 .build();
 
     }
 
-    @Transactional
+    @Timed(value = "banking.transaction.latency", histogram = true)
     public TransactionResponseDTO withdraw(TransactionRequestDTO transactionRequestDTO) {
-        checkAmount(transactionRequestDTO.getAmount());
-
-        Account account = accountRepository.findByAccountNumber(transactionRequestDTO.getSenderAccountNumber())
-                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
-
-        if (account.getBalance().compareTo(transactionRequestDTO.getAmount()) < 0) {
-            throw new IllegalArgumentException("Insufficient funds");
+        Money amount = checkAmount(transactionRequestDTO.getAmount());
+
+        String accountNumber = transactionRequestDTO.getSenderAccountNumber();
+        TransactionResponseDTO response;
+        if (ledgerEngine.isEnabled()) {
+            LedgerReceipt receipt = onLedger("withdraw", () -> ledgerEngine.withdraw(accountNumber, amount));
+            response = ledgerResponse(receipt, TransactionType.WITHDRAW, accountNumber, null, "Withdrawal successful");
+        } else {
+            response = transactionTemplate.execute(status -> withdrawInTransaction(transactionRequestDTO));
         }
+        recentWrites.mark(accountNumber);
+        return response;
+    }
 
-        BigDecimal newBalance = account.getBalance().subtract(transactionRequestDTO.getAmount());
-        account.setBalance(newBalance);
+    private TransactionResponseDTO withdrawInTransaction(TransactionRequestDTO transactionRequestDTO) {
+        String accountNumber = transactionRequestDTO.getSenderAccountNumber();
+        if (accountRepository.debitBalance(accountNumber, transactionRequestDTO.getAmount()) == 0
+                && !debitAfterSweep(accountNumber, transactionRequestDTO.getAmount())) {
+            if (!accountRepository.existsByAccountNumber(accountNumber)) {
+                throw accountNotFound("withdraw", "Account not found");
+            }
+            throw insufficientFunds("withdraw");
+        }
+        AccountBalanceView newBalance = currentBalanceView(accountNumber);
 
         Transaction transaction = Transaction.builder()
                 .transactionType(TransactionType.WITHDRAW)
                 .amount(transactionRequestDTO.getAmount())
-                .accountNumber(account.getAccountNumber())
+                .accountNumber(accountNumber)
+                .balanceAfter(newBalance.balance())
                 .transactionDate(LocalDateTime.now())
                 .build();
-        Transaction savedTransaction = transactionRepository.save(transaction);
-
-        accountRepository.save(account);
+        journal(List.of(transaction), newBalance.version());
 
         return TransactionResponseDTO.builder()
-                .transactionId(savedTransaction.getId())
-                .senderAccountNumber(account.getAccountNumber())
-                .balance(newBalance)
+                .transactionId(transaction.getId())
+                .senderAccountNumber(accountNumber)
+                .balance(newBalance.balance())
                 .transactionType(TransactionType.WITHDRAW)
-                .transactionDate(savedTransaction.getTransactionDate())
+                .transactionDate(transaction.getTransactionDate())
                 .message("Withdrawal successful")
                 .build();
     }
 
 
-    @Transactional
+    // Each attempt runs in a transaction of its own, so a version conflict fails the attempt at its commit and is retried.
+    // Inside a caller's transaction (a keyed request) the conflict is left to the caller, which retries it as a whole.
+    @Retryable(retryFor = OptimisticLockingFailureException.class,
+            exceptionExpression = "!T(org.springframework.transaction.support.TransactionSynchronizationManager).isActualTransactionActive()",
+            maxAttemptsExpression = "${app.transactions.optimistic-retry.max-attempts:5}",
+            backoff = @Backoff(delayExpression = "${app.transactions.optimistic-retry.backoff-ms:5}", multiplier = 2, random = true))
+    @Timed(value = "banking.transaction.latency", histogram = true)
     public TransactionResponseDTO transfer(TransactionRequestDTO transactionRequestDTO) {
         if (transactionRequestDTO.getRecipientAccountNumber() == null) {
             throw new IllegalArgumentException("Receiver account number is required for transfers.");
         }
 
-        checkAmount(transactionRequestDTO.getAmount());
-
-        Account senderAccount = accountRepository.findByAccountNumber(transactionRequestDTO.getSenderAccountNumber())
-                .orElseThrow(() -> new AccountNotFoundException("Sender account not found"));
-
-        Account receiverAccount = accountRepository.findByAccountNumber(transactionRequestDTO.getRecipientAccountNumber())
-                .orElseThrow(() -> new AccountNotFoundException("Receiver account not found"));
+        Money amount = checkAmount(transactionRequestDTO.getAmount());
+
+        String senderAccountNumber = transactionRequestDTO.getSenderAccountNumber();
+        String receiverAccountNumber = transactionRequestDTO.getRecipientAccountNumber();
+        TransactionResponseDTO response;
+        if (ledgerEngine.isEnabled()) {
+            LedgerReceipt receipt = onLedger("transfer",
+                    () -> ledgerEngine.transfer(senderAccountNumber, receiverAccountNumber, amount));
+            response = ledgerResponse(receipt, TransactionType.TRANSFER_OUT, senderAccountNumber, receiverAccountNumber,
+                    "Funds transferred successfully");
+        } else {
+            response = transactionTemplate.execute(status -> transferInTransaction(transactionRequestDTO, amount));
+        }
+        recentWrites.mark(senderAccountNumber, receiverAccountNumber);
+        return response;
+    }
 
-        if (senderAccount.getBalance().compareTo(transactionRequestDTO.getAmount()) < 0) {
-            throw new IllegalArgumentException("Insufficient funds");
+    private TransactionResponseDTO transferInTransaction(TransactionRequestDTO transactionRequestDTO, Money amount) {
+        String senderAccountNumber = transactionRequestDTO.getSenderAccountNumber();
+        String receiverAccountNumber = transactionRequestDTO.getRecipientAccountNumber();
+        // A sharded receiver is credited through one of its shards, so its account row is never locked.
+        boolean shardedReceiver = shardedBalanceService.isSharded(receiverAccountNumber)
+                && !receiverAccountNumber.equals(senderAccountNumber);
+        Account senderAccount;
+        Account receiverAccount = null;
+        if (shardedReceiver) {
+            senderAccount = loadAccount(senderAccountNumber, "Sender account not found");
+        } else if (senderAccountNumber != null && senderAccountNumber.compareTo(receiverAccountNumber) > 0) {
+            // Always lock the lower account number first so opposite transfers cannot deadlock.
+            receiverAccount = loadAccount(receiverAccountNumber, "Receiver account not found");
+            senderAccount = loadAccount(senderAccountNumber, "Sender account not found");
+        } else {
+            senderAccount = loadAccount(senderAccountNumber, "Sender account not found");
+            receiverAccount = loadAccount(receiverAccountNumber, "Receiver account not found");
+        }
+        // Both rows name the account versions this transfer's flush will write. They are taken now because the
+        // balance queries below may trigger that flush early.
+        long senderVersion = senderAccount.getVersion() + 1;
+        long receiverVersion = shardedReceiver ? UNVERSIONED : receiverAccount.getVersion() + 1;
+
+        Money senderRowBalance = Money.of(senderAccount.getBalance());
+        if (senderRowBalance.isLessThan(amount) && senderAccount.getBalanceShards() > 0) {
+            senderRowBalance = senderRowBalance.plus(Money.of(shardedBalanceService.sweep(senderAccountNumber)));
+        }
+        if (senderRowBalance.isLessThan(amount)) {
+            throw insufficientFunds("transfer");
         }
 
-        senderAccount.setBalance(senderAccount.getBalance().subtract(transactionRequestDTO.getAmount()));
-        receiverAccount.setBalance(receiverAccount.getBalance().add(transactionRequestDTO.getAmount()));
+        senderRowBalance = senderRowBalance.minus(amount);
+        senderAccount.setBalance(senderRowBalance.toBigDecimal());
+        BigDecimal senderBalance = senderAccount.getBalanceShards() > 0
+                ? senderRowBalance.plus(Money.of(shardedBalanceService.shardBalance(senderAccountNumber))).toBigDecimal()
+                : senderAccount.getBalance();
+        // A shard credit does not lock the account, so it has no running balance of its own to record.
+        BigDecimal receiverBalance = null;
+        if (shardedReceiver) {
+            if (!shardedBalanceService.credit(receiverAccountNumber, transactionRequestDTO.getAmount())) {
+                throw accountNotFound("transfer", "Receiver account not found");
+            }
+        } else {
+            receiverAccount.setBalance(Money.of(receiverAccount.getBalance()).plus(amount).toBigDecimal());
+            receiverBalance = receiverAccount.getBalance();
+        }
 
         Transaction senderTransaction = Transaction.builder()
                 .transactionType(TransactionType.TRANSFER_OUT)
                 .amount(transactionRequestDTO.getAmount())
-                .accountNumber(senderAccount.getAccountNumber())
-                .receiverAccountNumber(receiverAccount.getAccountNumber())
+                .accountNumber(senderAccountNumber)
+                .receiverAccountNumber(receiverAccountNumber)
+                .balanceAfter(senderBalance)
                 .transactionDate(LocalDateTime.now())
                 .build();
 
         Transaction receiverTransaction = Transaction.builder()
                 .transactionType(TransactionType.TRANSFER_IN)
                 .amount(transactionRequestDTO.getAmount())
-                .accountNumber(receiverAccount.getAccountNumber())
-                .receiverAccountNumber(senderAccount.getAccountNumber())
+                .accountNumber(receiverAccountNumber)
+                .receiverAccountNumber(senderAccountNumber)
+                .balanceAfter(receiverBalance)
                 .transactionDate(LocalDateTime.now())
                 .build();
 
-        transactionRepository.save(senderTransaction);
-        transactionRepository.save(receiverTransaction);
+        journal(List.of(senderTransaction, receiverTransaction), senderVersion, receiverVersion);
 
         accountRepository.save(senderAccount);
-        accountRepository.save(receiverAccount);
+        if (!shardedReceiver) {
+            accountRepository.save(receiverAccount);
+        }
 
         return TransactionResponseDTO.builder()
                 .transactionId(senderTransaction.getId())
-                .senderAccountNumber(senderAccount.getAccountNumber())
-                .recipientAccountNumber(receiverAccount.getAccountNumber())
-                .balance(senderAccount.getBalance())
+                .senderAccountNumber(senderAccountNumber)
+                .recipientAccountNumber(receiverAccountNumber)
+                .balance(senderBalance)
                 .transactionType(TransactionType.TRANSFER_OUT)
                 .transactionDate(senderTransaction.getTransactionDate())
                 .message("Funds transferred successfully")
@@ -149,31 +286,401 @@ public class TransactionService {
     }
 
 
-    @Transactional
-    public List<TransactionResponseDTO> getAllTransactionsByUserId(UUID userId) {
-        Account account = accountRepository.findByUserId(userId)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+    /**
+     * Applies a batch of transfers in one database transaction. All involved accounts are locked
+     * in a single ordered pass, and every journal row is written through JDBC batching. Items that
+     * fail validation or lack funds are reported individually and do not abort the batch.
+     */
+    public BatchTransferResponseDTO transferBatch(BatchTransferRequestDTO batchTransferRequestDTO) {
+        List<TransactionRequestDTO> transfers = batchTransferRequestDTO.getTransfers();
+        if (transfers == null || transfers.isEmpty()) {
+            throw new IllegalArgumentException("At least one transfer is required");
+        }
+        if (transfers.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch cannot contain more than " + maxBatchSize + " transfers");
+        }
+        BatchTransferResponseDTO response = ledgerEngine.isEnabled()
+                ? transferBatchOnLedger(transfers)
+                : transactionTemplate.execute(status -> transferBatchInTransaction(transfers));
+        recentWrites.mark(transfers.stream()
+                .flatMap(transfer -> Stream.of(transfer.getSenderAccountNumber(), transfer.getRecipientAccountNumber()))
+                .toArray(String[]::new));
+        return response;
+    }
+
+    private BatchTransferResponseDTO transferBatchInTransaction(List<TransactionRequestDTO> transfers) {
+        Set<String> accountNumbers = new TreeSet<>();
+        for (TransactionRequestDTO transfer : transfers) {
+            if (transfer.getSenderAccountNumber() != null) {
+                accountNumbers.add(transfer.getSenderAccountNumber());
+            }
+            if (transfer.getRecipientAccountNumber() != null) {
+                accountNumbers.add(transfer.getRecipientAccountNumber());
+            }
+        }
+        Map<String, Account> accounts = accountRepository.findAllByAccountNumberInForUpdate(accountNumbers).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+        // The batch works on the locked account rows, so sharded accounts first collect their shards. Running
+        // balances are kept in minor units and written back to the rows once, after the last transfer.
+        Map<String, Money> runningBalances = new HashMap<>(accounts.size() * 2);
+        for (Account account : accounts.values()) {
+            Money balance = Money.of(account.getBalance());
+            if (account.getBalanceShards() > 0) {
+                balance = balance.plus(Money.of(shardedBalanceService.sweep(account.getAccountNumber())));
+            }
+            runningBalances.put(account.getAccountNumber(), balance);
+        }
+
+        String[] errors = new String[transfers.size()];
+        Transaction[] outgoing = new Transaction[transfers.size()];
+        BigDecimal[] balances = new BigDecimal[transfers.size()];
+        List<Transaction> journal = new ArrayList<>(transfers.size() * 2);
+
+        for (int i = 0; i < transfers.size(); i++) {
+            TransactionRequestDTO transfer = transfers.get(i);
+            Account senderAccount = accounts.get(transfer.getSenderAccountNumber());
+            Account receiverAccount = accounts.get(transfer.getRecipientAccountNumber());
+            errors[i] = validateBatchTransfer(transfer, senderAccount, receiverAccount, runningBalances);
+            if (errors[i] != null) {
+                continue;
+            }
+
+            Money amount = Money.of(transfer.getAmount());
+            Money senderBalance = runningBalances.get(senderAccount.getAccountNumber()).minus(amount);
+            Money receiverBalance = runningBalances.get(receiverAccount.getAccountNumber()).plus(amount);
+            runningBalances.put(senderAccount.getAccountNumber(), senderBalance);
+            runningBalances.put(receiverAccount.getAccountNumber(), receiverBalance);
+            balances[i] = senderBalance.toBigDecimal();
+
+            outgoing[i] = Transaction.builder()
+                    .transactionType(TransactionType.TRANSFER_OUT)
+                    .amount(transfer.getAmount())
+                    .accountNumber(senderAccount.getAccountNumber())
+                    .receiverAccountNumber(receiverAccount.getAccountNumber())
+                    .balanceAfter(balances[i])
+                    .build();
+            journal.add(outgoing[i]);
+            journal.add(Transaction.builder()
+                    .transactionType(TransactionType.TRANSFER_IN)
+                    .amount(transfer.getAmount())
+                    .accountNumber(receiverAccount.getAccountNumber())
+                    .receiverAccountNumber(senderAccount.getAccountNumber())
+                    .balanceAfter(receiverBalance.toBigDecimal())
+                    .build());
+        }
+        for (Account account : accounts.values()) {
+            account.setBalance(runningBalances.get(account.getAccountNumber()).toBigDecimal());
+        }
+
+        transactionRepository.saveAll(journal);
+        logAfterCommit(journal);
+
+        List<TransactionResponseDTO> results = new ArrayList<>(transfers.size());
+        int succeeded = 0;
+        for (int i = 0; i < transfers.size(); i++) {
+            if (errors[i] != null) {
+                results.add(new TransactionResponseDTO(errors[i]));
+                continue;
+            }
+            succeeded++;
+            results.add(TransactionResponseDTO.builder()
+                    .transactionId(outgoing[i].getId())
+                    .senderAccountNumber(outgoing[i].getAccountNumber())
+                    .recipientAccountNumber(outgoing[i].getReceiverAccountNumber())
+                    .amount(outgoing[i].getAmount())
+                    .balance(balances[i])
+                    .transactionType(TransactionType.TRANSFER_OUT)
+                    .transactionDate(outgoing[i].getTransactionDate())
+                    .message("Funds transferred successfully")
+                    .build());
+        }
+
+        return BatchTransferResponseDTO.builder()
+                .succeeded(succeeded)
+                .failed(transfers.size() - succeeded)
+                .results(results)
+                .message("Batch processed")
+                .build();
+    }
+
+    /**
+     * Ledger variant of {@link #transferBatch}: every transfer is queued at once and the partitions apply them in
+     * parallel, so the batch is not atomic, but each item still succeeds or fails on its own.
+     */
+    private BatchTransferResponseDTO transferBatchOnLedger(List<TransactionRequestDTO> transfers) {
+        List<CompletableFuture<LedgerReceipt>> movements = new ArrayList<>(transfers.size());
+        String[] errors = new String[transfers.size()];
+        for (int i = 0; i < transfers.size(); i++) {
+            TransactionRequestDTO transfer = transfers.get(i);
+            errors[i] = validateLedgerTransfer(transfer);
+            CompletableFuture<LedgerReceipt> movement = null;
+            if (errors[i] == null) {
+                try {
+                    movement = ledgerEngine.transfer(transfer.getSenderAccountNumber(), transfer.getRecipientAccountNumber(), Money.of(transfer.getAmount()));
+                } catch (AccountNotFoundException e) {
+                    recordOutcome("batch_transfer", "account_not_found");
+                    errors[i] = e.getMessage();
+                } catch (IllegalStateException e) {
+                    errors[i] = e.getMessage();
+                }
+            }
+            movements.add(movement);
+        }
+
+        List<TransactionResponseDTO> results = new ArrayList<>(transfers.size());
+        int succeeded = 0;
+        for (int i = 0; i < transfers.size(); i++) {
+            TransactionRequestDTO transfer = transfers.get(i);
+            CompletableFuture<LedgerReceipt> movement = movements.get(i);
+            if (errors[i] == null) {
+                try {
+                    LedgerReceipt receipt = onLedger("batch_transfer", () -> movement);
+                    succeeded++;
+                    results.add(TransactionResponseDTO.builder()
+                            .transactionId(receipt.transactionId())
+                            .senderAccountNumber(transfer.getSenderAccountNumber())
+                            .recipientAccountNumber(transfer.getRecipientAccountNumber())
+                            .amount(transfer.getAmount())
+                            .balance(receipt.balance())
+                            .transactionType(TransactionType.TRANSFER_OUT)
+                            .transactionDate(receipt.transactionDate())
+                            .message("Funds transferred successfully")
+                            .build());
+                    continue;
+                } catch (AccountNotFoundException | IllegalArgumentException | IllegalStateException
+                         | MovementOutcomeUnknownException e) {
+                    errors[i] = e.getMessage();
+                }
+            }
+            results.add(new TransactionResponseDTO(errors[i]));
+        }
+
+        return BatchTransferResponseDTO.builder()
+                .succeeded(succeeded)
+                .failed(transfers.size() - succeeded)
+                .results(results)
+                .message("Batch processed")
+                .build();
+    }
+
+    /**
+     * Returns one page of history, newest first. Each row carries the balance the account had right after that
+     * movement, as recorded with the row.
+     */
+    @Transactional(readOnly = true)
+    public TransactionPageResponseDTO getTransactionsByUserId(UUID userId, String cursor, int size) {
+        if (size <= 0 || size > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+        String accountNumber = accountNumberCache.getAccountNumber(userId);
+
+        // One extra row tells whether another page exists without a COUNT query.
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<TransactionView> transactions;
+        if (cursor == null || cursor.isBlank()) {
+            transactions = transactionRepository.findFirstPage(accountNumber, limit);
+        } else {
+            TransactionCursor after = TransactionCursor.decode(cursor);
+            transactions = transactionRepository.findPageAfter(accountNumber, after.transactionDate(), after.id(), limit);
+        }
 
-        List<Transaction> transactions = transactionRepository.findByAccountNumberOrderByTransactionDateDesc(account.getAccountNumber());
+        String nextCursor = null;
+        if (transactions.size() > size) {
+            transactions = transactions.subList(0, size);
+            TransactionView last = transactions.get(size - 1);
+            nextCursor = new TransactionCursor(last.transactionDate(), last.transactionId()).encode();
+        }
 
-        return transactions.stream()
+        List<TransactionResponseDTO> page = transactions.stream()
                 .map(transaction -> TransactionResponseDTO.builder()
-                        .transactionId(transaction.getId())
-                        .senderAccountNumber(transaction.getAccountNumber())
-                        .recipientAccountNumber(transaction.getReceiverAccountNumber())
-                        .amount(transaction.getAmount())
-                        .balance(account.getBalance())
-                        .transactionType(transaction.getTransactionType())
-                        .transactionDate(transaction.getTransactionDate())
+                        .transactionId(transaction.transactionId())
+                        .senderAccountNumber(transaction.senderAccountNumber())
+                        .recipientAccountNumber(transaction.recipientAccountNumber())
+                        .amount(transaction.amount())
+                        .balance(transaction.balanceAfter())
+                        .transactionType(transaction.transactionType())
+                        .transactionDate(transaction.transactionDate())
                         .build())
                 .collect(Collectors.toList());
 
+        return TransactionPageResponseDTO.builder()
+                .transactions(page)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private String validateLedgerTransfer(TransactionRequestDTO transfer) {
+        String amountError = amountError(transfer.getAmount());
+        if (amountError != null) {
+            return amountError;
+        }
+        if (transfer.getRecipientAccountNumber() == null) {
+            return "Receiver account number is required for transfers.";
+        }
+        if (transfer.getRecipientAccountNumber().equals(transfer.getSenderAccountNumber())) {
+            return "Sender and receiver accounts must differ";
+        }
+        return null;
+    }
+
+    private String validateBatchTransfer(TransactionRequestDTO transfer, Account senderAccount, Account receiverAccount,
+                                         Map<String, Money> runningBalances) {
+        String amountError = amountError(transfer.getAmount());
+        if (amountError != null) {
+            return amountError;
+        }
+        if (transfer.getRecipientAccountNumber() == null) {
+            return "Receiver account number is required for transfers.";
+        }
+        if (senderAccount == null) {
+            recordOutcome("batch_transfer", "account_not_found");
+            return "Sender account not found";
+        }
+        if (receiverAccount == null) {
+            recordOutcome("batch_transfer", "account_not_found");
+            return "Receiver account not found";
+        }
+        if (senderAccount == receiverAccount) {
+            return "Sender and receiver accounts must differ";
+        }
+        if (runningBalances.get(senderAccount.getAccountNumber()).isLessThan(Money.of(transfer.getAmount()))) {
+            recordOutcome("batch_transfer", "insufficient_funds");
+            return "Insufficient funds";
+        }
+        return null;
+    }
+
+    private static String amountError(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            return "Amount must be greater than zero";
+        }
+        try {
+            Money.of(amount);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Writes the journal rows of a movement in the current transaction, or in {@code ASYNC} journal mode assigns
+     * their ids and hands them to the {@link TransactionJournal}, which writes them after the commit. Recovery
+     * needs an account version to tell whether a journaled row committed, so {@link #UNVERSIONED} rows are always
+     * written in the current transaction. Either way the rows reach the {@link TransactionLog} after the commit.
+     */
+    private void journal(List<Transaction> transactions, long... accountVersions) {
+        if (!transactionJournal.isAsync()) {
+            transactions.forEach(transactionRepository::save);
+            logAfterCommit(transactions);
+            return;
+        }
+        List<JournalEntry> entries = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            if (accountVersions[i] == UNVERSIONED) {
+                transactionRepository.save(transaction);
+                continue;
+            }
+            transaction.setId(UUID.randomUUID());
+            entries.add(JournalEntry.of(transaction, accountVersions[i]));
+        }
+        if (!entries.isEmpty()) {
+            transactionJournal.append(entries);
+        }
+        logAfterCommit(transactions);
+    }
+
+    private void logAfterCommit(List<Transaction> transactions) {
+        if (transactionLog.isEnabled()) {
+            transactionLog.appendAfterCommit(transactions.stream().map(TransactionLogRecord::of).toList());
+        }
+    }
+
+    /**
+     * Retries a failed debit of a sharded account once its balance shards have been collected into its row. The
+     * debit is retried even when there was nothing to collect: a concurrent debit may have swept the shards first,
+     * and its credit to the row is visible once this sweep has waited for its shard locks. Returns false for an
+     * account that is not sharded or when the debit still does not fit.
+     */
+    private boolean debitAfterSweep(String accountNumber, BigDecimal amount) {
+        if (!shardedBalanceService.isSharded(accountNumber)) {
+            return false;
+        }
+        BigDecimal swept = shardedBalanceService.sweep(accountNumber);
+        if (swept.signum() != 0) {
+            accountRepository.creditBalance(accountNumber, swept);
+        }
+        return accountRepository.debitBalance(accountNumber, amount) > 0;
+    }
+
+    /**
+     * Runs a movement on the ledger and waits until it is journaled, counting refusals like the JPA path does.
+     */
+    private LedgerReceipt onLedger(String operation, Supplier<CompletableFuture<LedgerReceipt>> movement) {
+        try {
+            return ledgerEngine.await(movement.get());
+        } catch (AccountNotFoundException e) {
+            recordOutcome(operation, "account_not_found");
+            throw e;
+        } catch (IllegalArgumentException e) {
+            recordOutcome(operation, "insufficient_funds");
+            throw e;
+        }
+    }
+
+    private TransactionResponseDTO ledgerResponse(LedgerReceipt receipt, TransactionType transactionType,
+                                                  String accountNumber, String recipientAccountNumber, String message) {
+        return TransactionResponseDTO.builder()
+                .transactionId(receipt.transactionId())
+                .senderAccountNumber(accountNumber)
+                .recipientAccountNumber(recipientAccountNumber)
+                .balance(receipt.balance())
+                .transactionType(transactionType)
+                .transactionDate(receipt.transactionDate())
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Reads the balance a movement left, for its response and journal row. This is a second round trip after the
+     * balance {@code UPDATE} on purpose: MySQL has no {@code UPDATE ... RETURNING}, {@code LAST_INSERT_ID(expr)}
+     * carries a single integer where the journal needs both balance and version, and a sharded account's balance
+     * includes its shards, which the {@code UPDATE} does not touch. It is a plain read. For an account without
+     * shards it returns the row the {@code UPDATE} has just locked. A sharded account's shards are not locked, and
+     * other transactions may be crediting them, so the result is only a recent balance. Credits to a shard
+     * therefore record no {@code balanceAfter}, and the account's history omits the running balance on them.
+     */
+    private AccountBalanceView currentBalanceView(String accountNumber) {
+        return accountRepository.findBalanceViewByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+    }
+
+    private Account loadAccount(String accountNumber, String notFoundMessage) {
+        Optional<Account> account = concurrencyControl == ConcurrencyControl.PESSIMISTIC
+                ? accountRepository.findByAccountNumberForUpdate(accountNumber)
+                : accountRepository.findByAccountNumber(accountNumber);
+        return account.orElseThrow(() -> accountNotFound("transfer", notFoundMessage));
+    }
+
+    private AccountNotFoundException accountNotFound(String operation, String message) {
+        recordOutcome(operation, "account_not_found");
+        return new AccountNotFoundException(message);
+    }
+
+    private IllegalArgumentException insufficientFunds(String operation) {
+        recordOutcome(operation, "insufficient_funds");
+        return new IllegalArgumentException("Insufficient funds");
+    }
+
+    private void recordOutcome(String operation, String outcome) {
+        meterRegistry.counter("banking.transaction.outcomes", "operation", operation, "outcome", outcome).increment();
     }
 
-    public void checkAmount(BigDecimal amount) {
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public Money checkAmount(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
             throw new IllegalArgumentException("Amount must be greater than zero");
         }
+        return Money.of(amount);
     }
 }
 
@@ -1,32 +1,46 @@
 package org.example.bankingapplication.userDetails;
 
-import lombok.RequiredArgsConstructor;
+import lombok.Getter;
+import org.example.bankingapplication.enums.Roles;
 import org.example.bankingapplication.model.User;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+
 import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
-@RequiredArgsConstructor
-public class CustomUserDetails implements UserDetails {
-
-    private final User user;
+/**
+ * Immutable snapshot of the fields authentication needs. It holds no reference to the {@link User} entity, so it
+ * is safe to cache across requests and never touches the lazy {@code accounts}/{@code tokens} collections.
+ */
+@Getter
+public final class CustomUserDetails implements UserDetails {
 
+    private final UUID id;
+    private final String username;
+    private final String password;
+    private final Roles role;
+    private final String accountNumber;
+    private final List<GrantedAuthority> authorities;
 
-    @Override
-    public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority(user.getRole().name()));
+    public CustomUserDetails(User user) {
+        this(user.getId(), user.getUsername(), user.getPassword(), user.getRole(), user.getAccountNumber());
     }
 
-    @Override
-    public String getPassword() {
-        return user.getPassword();
+    public CustomUserDetails(UUID id, String username, String password, Roles role, String accountNumber) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.role = role;
+        this.accountNumber = accountNumber;
+        this.authorities = role == null ? List.of() : List.of(new SimpleGrantedAuthority(role.name()));
     }
 
     @Override
-    public String getUsername() {
-        return user.getUsername();
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
     }
 
     @Override
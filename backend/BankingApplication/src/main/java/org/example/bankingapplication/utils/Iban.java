@@ -0,0 +1,50 @@
+package org.example.bankingapplication.utils;
+
+/**
+ * ISO 13616 check digits (mod 97-10). Works on {@code char[]} so generators can fill a single buffer
+ * and turn it into a {@code String} once.
+ */
+public final class Iban {
+
+    private Iban() {
+    }
+
+    /**
+     * Computes and writes the check digits (positions 2 and 3) of an IBAN whose country code and BBAN
+     * are already in place.
+     */
+    public static void writeCheckDigits(char[] iban) {
+        iban[2] = '0';
+        iban[3] = '0';
+        int checkDigits = 98 - mod97(iban);
+        iban[2] = (char) ('0' + checkDigits / 10);
+        iban[3] = (char) ('0' + checkDigits % 10);
+    }
+
+    public static boolean isValid(String iban) {
+        if (iban == null || iban.length() < 5 || iban.length() > 34) {
+            return false;
+        }
+        char[] chars = iban.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            boolean letter = chars[i] >= 'A' && chars[i] <= 'Z';
+            boolean digit = chars[i] >= '0' && chars[i] <= '9';
+            if (i < 2 ? !letter : i < 4 ? !digit : !(letter || digit)) {
+                return false;
+            }
+        }
+        return mod97(chars) == 1;
+    }
+
+    // Remainder of the rearranged IBAN (BBAN first, then country code and check digits), letters as 10-35.
+    private static int mod97(char[] iban) {
+        int remainder = 0;
+        for (int i = 4; i < iban.length + 4; i++) {
+            char c = iban[i % iban.length];
+            remainder = c <= '9'
+                    ? (remainder * 10 + (c - '0')) % 97
+                    : (remainder * 100 + (c - 'A' + 10)) % 97;
+        }
+        return remainder;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.bankingapplication.utils;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount in minor units (cents) of the single account currency. Balance arithmetic on the hot paths works on
+ * these instead of {@link BigDecimal}, which allocates on every {@code add} and {@code subtract}; entities, DTOs and
+ * journals keep {@code BigDecimal}, so amounts are converted where they enter and leave. Arithmetic that would
+ * overflow a {@code long} throws {@link ArithmeticException} instead of wrapping.
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    /**
+     * Decimal places of the currency, and of the {@code balance} and {@code amount} columns.
+     */
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0);
+
+    /**
+     * Converts an amount with at most {@value #SCALE} decimal places.
+     *
+     * @throws IllegalArgumentException if the amount has finer precision or does not fit
+     */
+    public static Money of(BigDecimal amount) {
+        try {
+            return new Money(amount.movePointRight(SCALE).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most " + SCALE + " decimal places and fit the ledger: " + amount);
+        }
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
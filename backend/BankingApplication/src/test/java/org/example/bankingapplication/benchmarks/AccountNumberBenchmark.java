@@ -0,0 +1,60 @@
+package org.example.bankingapplication.benchmarks;
+
+import org.example.bankingapplication.model.NumberSequence;
+import org.example.bankingapplication.repository.NumberSequenceRepository;
+import org.example.bankingapplication.service.AccountNumberGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.bankingapplication.benchmarks.BenchmarkStubs.stub;
+
+/**
+ * Cost of {@link AccountNumberGenerator#nextAccountNumber()}, single-threaded and under concurrent registrations.
+ * The sequence row is a stub, so block reservations cost nothing here; in production they are one locked update
+ * per block.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountNumberBenchmark {
+
+    private AccountNumberGenerator generator;
+
+    @Setup
+    public void setup() {
+        NumberSequence sequence = NumberSequence.builder().name("account-number").nextValue(0).build();
+        NumberSequenceRepository repository = stub(NumberSequenceRepository.class,
+                Map.of("findByNameForUpdate", Optional.of(sequence)));
+        generator = new AccountNumberGenerator(repository, stub(PlatformTransactionManager.class, Map.of()),
+                "73000", 100_000, 42L);
+    }
+
+    @Benchmark
+    public String generateAccountNumber() {
+        return generator.nextAccountNumber();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateAccountNumberConcurrent() {
+        return generator.nextAccountNumber();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AccountNumberBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.bankingapplication.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/**
+ * Repository stand-ins for microbenchmarks. Mockito's invocation matching costs tens of microseconds per call,
+ * more than most of the code being measured, so benchmarks use plain proxies that return a canned value per
+ * method name instead.
+ */
+final class BenchmarkStubs {
+
+    private BenchmarkStubs() {
+    }
+
+    static <T> T stub(Class<T> type, Map<String, Object> results) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> results.get(method.getName())));
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.bankingapplication.benchmarks;
+
+import org.example.bankingapplication.BankingApplication;
+import org.example.bankingapplication.dto.transaction.TransactionRequestDTO;
+import org.example.bankingapplication.dto.transaction.TransactionResponseDTO;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.model.Account;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.UserRepository;
+import org.example.bankingapplication.service.ShardedBalanceService;
+import org.example.bankingapplication.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads transferring into one collection account, with the account's balance in its own row
+ * ({@code shards=0}) or spread over balance shards. Each sender is used by one thread only, so the receiving
+ * account is the only contended row. Runs against the H2 "test" profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class HotAccountBenchmark {
+
+    private static final String HOT_ACCOUNT_NUMBER = "LT000000000000009999";
+    private static final int SENDERS = 16;
+
+    @Param({"0", "16"})
+    private int shards;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+
+    @State(Scope.Thread)
+    public static class Sender {
+
+        private String accountNumber;
+
+        @Setup
+        public void setup(HotAccountBenchmark benchmark) {
+            accountNumber = benchmark.nextSender();
+        }
+    }
+
+    private int nextSender;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+        transactionService = context.getBean(TransactionService.class);
+
+        createAccount(HOT_ACCOUNT_NUMBER, BigDecimal.ZERO);
+        for (int i = 0; i < SENDERS; i++) {
+            createAccount(senderAccountNumber(i), new BigDecimal("1000000000.00"));
+        }
+        if (shards > 0) {
+            context.getBean(ShardedBalanceService.class).enable(HOT_ACCOUNT_NUMBER, shards);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResponseDTO transferToHotAccount(Sender sender) {
+        return transactionService.transfer(TransactionRequestDTO.builder()
+                .senderAccountNumber(sender.accountNumber)
+                .recipientAccountNumber(HOT_ACCOUNT_NUMBER)
+                .amount(BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(1, 100)))
+                .build());
+    }
+
+    private synchronized String nextSender() {
+        return senderAccountNumber(nextSender++ % SENDERS);
+    }
+
+    private void createAccount(String accountNumber, BigDecimal balance) {
+        User user = context.getBean(UserRepository.class).save(User.builder()
+                .username("hot-" + accountNumber)
+                .email(accountNumber + "@gmail.com")
+                .password("password")
+                .role(Roles.ROLE_USER)
+                .accountNumber(accountNumber)
+                .build());
+        context.getBean(AccountRepository.class).save(Account.builder()
+                .accountNumber(accountNumber)
+                .ownerName(user.getUsername())
+                .balance(balance)
+                .user(user)
+                .build());
+    }
+
+    private static String senderAccountNumber(int index) {
+        return String.format("LT%018d", index + 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(HotAccountBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
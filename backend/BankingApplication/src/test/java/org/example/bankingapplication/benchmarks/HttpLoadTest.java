@@ -0,0 +1,135 @@
+package org.example.bankingapplication.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator for comparing the platform-thread and virtual-thread modes of a running
+ * instance. Each client is a virtual thread that loops over a read-heavy mix of account lookups, history
+ * pages and deposits for a fixed duration; latencies go into an HdrHistogram.
+ * <p>
+ * Usage: {@code HttpLoadTest [baseUrl] [clients] [seconds] [users]}, defaults
+ * {@code http://localhost:8080 2000 30 20}.
+ */
+public class HttpLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private record Session(String userId, String accountNumber, String token) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int users = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        List<Session> sessions = new ArrayList<>();
+        String runId = Long.toString(System.currentTimeMillis() % 100000, 36);
+        for (int i = 0; i < users; i++) {
+            sessions.add(register(http, baseUrl, "lt" + runId + i));
+        }
+
+        Histogram latency = new ConcurrentHistogram(TimeUnit.SECONDS.toMicros(60), 3);
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Session session = sessions.get(random.nextInt(sessions.size()));
+                        HttpRequest request = nextRequest(baseUrl, session, random.nextInt(10));
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start),
+                                latency.getHighestTrackableValue()));
+                    }
+                    return null;
+                });
+            }
+        }
+
+        System.out.printf("clients=%d duration=%ds requests=%d errors=%d throughput=%.0f req/s%n",
+                clients, seconds, latency.getTotalCount(), errors.get(), latency.getTotalCount() / (double) seconds);
+        System.out.printf("latency ms: p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                latency.getValueAtPercentile(50) / 1000.0,
+                latency.getValueAtPercentile(90) / 1000.0,
+                latency.getValueAtPercentile(99) / 1000.0,
+                latency.getValueAtPercentile(99.9) / 1000.0,
+                latency.getMaxValue() / 1000.0);
+    }
+
+    private static HttpRequest nextRequest(String baseUrl, Session session, int roll) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + session.token());
+        if (roll < 5) {
+            return builder.uri(URI.create(baseUrl + "/api/v1/account/" + session.userId())).GET().build();
+        }
+        if (roll < 8) {
+            return builder.uri(URI.create(baseUrl + "/api/v1/account/transactions/user/" + session.userId() + "?size=20"))
+                    .GET().build();
+        }
+        String body = "{\"senderAccountNumber\":\"" + session.accountNumber() + "\",\"amount\":1.00}";
+        return builder.uri(URI.create(baseUrl + "/api/v1/account/transactions/deposit"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static Session register(HttpClient http, String baseUrl, String username) throws Exception {
+        String credentials = "\"username\":\"" + username + "\",\"password\":\"password\"";
+        JsonNode registered = post(http, baseUrl + "/api/v1/auth/register",
+                "{" + credentials + ",\"email\":\"" + username + "@example.com\"}");
+        String userId = registered.get("id").asText();
+        String token = post(http, baseUrl + "/api/v1/auth/login", "{" + credentials + "}").get("token").asText();
+
+        HttpRequest accountRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/account/" + userId))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        JsonNode account = MAPPER.readTree(http.send(accountRequest, HttpResponse.BodyHandlers.ofString()).body());
+        return new Session(userId, account.get("accountNumber").asText(), token);
+    }
+
+    private static JsonNode post(HttpClient http, String url, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(url + " failed: " + response.body());
+        }
+        return MAPPER.readTree(response.body());
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.bankingapplication.benchmarks;
+
+import org.example.bankingapplication.BankingApplication;
+import org.example.bankingapplication.dto.transaction.TransactionRequestDTO;
+import org.example.bankingapplication.dto.transaction.TransactionResponseDTO;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.model.Account;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.UserRepository;
+import org.example.bankingapplication.service.IdempotencyService;
+import org.example.bankingapplication.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Latency of a deposit through {@link IdempotencyService#execute} with a first-seen {@code Idempotency-Key} against
+ * the same deposit without one, on the JPA engine and the H2 "test" profile. {@link #main} prints the difference.
+ * H2 runs in memory, so this measures the work the key adds, not the cost of a commit on a durable database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// Spring, Hibernate and H2 take about a minute of deposits to reach a steady state.
+@Warmup(iterations = 8, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class IdempotencyBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "LT000000000000000001";
+
+    @Param({"false", "true"})
+    private boolean keyed;
+
+    private ConfigurableApplicationContext context;
+    private IdempotencyService idempotencyService;
+    private TransactionService transactionService;
+    private TransactionRequestDTO deposit;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+        idempotencyService = context.getBean(IdempotencyService.class);
+        transactionService = context.getBean(TransactionService.class);
+        User user = context.getBean(UserRepository.class).save(User.builder()
+                .username("idempotency-benchmark")
+                .email("idempotency-benchmark@gmail.com")
+                .password("password")
+                .role(Roles.ROLE_USER)
+                .accountNumber(ACCOUNT_NUMBER)
+                .build());
+        context.getBean(AccountRepository.class).save(Account.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .ownerName(user.getUsername())
+                .balance(BigDecimal.ZERO)
+                .user(user)
+                .build());
+        deposit = TransactionRequestDTO.builder()
+                .senderAccountNumber(ACCOUNT_NUMBER)
+                .amount(BigDecimal.ONE)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResponseDTO deposit() {
+        String idempotencyKey = keyed ? UUID.randomUUID().toString() : null;
+        return idempotencyService.execute(idempotencyKey, "deposit", deposit, () -> transactionService.deposit(deposit));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(IdempotencyBenchmark.class.getSimpleName())
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        Map<String, Double> scores = results.stream().collect(Collectors.toMap(
+                result -> result.getParams().getParam("keyed"), result -> result.getPrimaryResult().getScore()));
+        System.out.printf("First-seen key overhead: %.1f us/op%n", scores.get("true") - scores.get("false"));
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.bankingapplication.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bankingapplication.cache.TokenDenylist;
+import org.example.bankingapplication.cache.TokenStateCache;
+import org.example.bankingapplication.cache.UserDetailsCache;
+import org.example.bankingapplication.config.ApplicationConfig;
+import org.example.bankingapplication.enums.AuthMode;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.filters.JwtAuthenticationFilter;
+import org.example.bankingapplication.model.Token;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.repository.RevokedTokenRepository;
+import org.example.bankingapplication.repository.TokenRepository;
+import org.example.bankingapplication.repository.UserRepository;
+import org.example.bankingapplication.service.JwtService;
+import org.example.bankingapplication.userDetails.CustomUserDetails;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.bankingapplication.benchmarks.BenchmarkStubs.stub;
+
+/**
+ * Throughput of {@link JwtAuthenticationFilter} for a protected request with the repositories stubbed, so the
+ * numbers cover JWT parsing, the token-state cache and building the security context rather than database I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "F15F1797CFC00E335504B4EE9C27EA34259BCA4A8FB0C19A30C591B3DC3276B7";
+
+    private JwtAuthenticationFilter filter;
+    private JwtAuthenticationFilter statelessFilter;
+    private TokenStateCache tokenStateCache;
+    private String authorization;
+
+    @Setup
+    public void setup() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 43200000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604800000L);
+
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .username("bench-user")
+                .email("bench@gmail.com")
+                .accountNumber("LT123456789012345678")
+                .role(Roles.ROLE_USER)
+                .build();
+        String jwt = jwtService.generateToken(user);
+        authorization = "Bearer " + jwt;
+
+        Token token = Token.builder().token(jwt).user(user).isExpired(false).isRevoked(false).build();
+        UserRepository userRepository = stub(UserRepository.class,
+                Map.of("findUserDetailsByUsername", Optional.of(new CustomUserDetails(user))));
+        TokenRepository tokenRepository = stub(TokenRepository.class, Map.of("findByTokenHash", Optional.of(token)));
+
+        tokenStateCache = new TokenStateCache(tokenRepository, 1000);
+        UserDetailsCache userDetailsCache = new UserDetailsCache(userRepository, 1000, Duration.ofMinutes(5));
+        UserDetailsService userDetailsService = new ApplicationConfig(userDetailsCache).userDetailsService();
+        TokenDenylist tokenDenylist = new TokenDenylist(stub(RevokedTokenRepository.class, Map.of()));
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, tokenStateCache, tokenDenylist,
+                AuthMode.STATEFUL, new SimpleMeterRegistry());
+        statelessFilter = new JwtAuthenticationFilter(jwtService, userDetailsService, tokenStateCache, tokenDenylist,
+                AuthMode.STATELESS, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws Exception {
+        return doFilter(authorization);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object authenticatedRequestTokenStateMiss() throws Exception {
+        tokenStateCache.invalidateAll();
+        return doFilter(authorization);
+    }
+
+    @Benchmark
+    public Object authenticatedRequestStateless() throws Exception {
+        return doFilter(statelessFilter, authorization);
+    }
+
+    @Benchmark
+    public Object anonymousRequest() throws Exception {
+        return doFilter(null);
+    }
+
+    private Object doFilter(String authorizationHeader) throws Exception {
+        return doFilter(filter, authorizationHeader);
+    }
+
+    private Object doFilter(JwtAuthenticationFilter filter, String authorizationHeader) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/account/transactions/user/1");
+        request.setServletPath("/api/v1/account/transactions/user/1");
+        if (authorizationHeader != null) {
+            request.addHeader("Authorization", authorizationHeader);
+        }
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.bankingapplication.benchmarks;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.service.JwtService;
+import org.example.bankingapplication.userDetails.CustomUserDetails;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of validating a JWT the way {@code JwtAuthenticationFilter} used to
+ * (key and parser rebuilt on every call, token parsed three times) against the cached parser with a
+ * single parse whose claims are reused, plus the cost of issuing a token at login.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "F15F1797CFC00E335504B4EE9C27EA34259BCA4A8FB0C19A30C591B3DC3276B7";
+
+    private JwtService jwtService;
+    private User user;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 43200000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604800000L);
+
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .username("bench-user")
+                .email("bench@gmail.com")
+                .accountNumber("LT123456789012345678")
+                .role(Roles.ROLE_USER)
+                .build();
+        userDetails = new CustomUserDetails(user);
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean legacyThreeParsesPerRequest() {
+        String username = legacyClaims(token).getSubject();
+        boolean sameUser = legacyClaims(token).getSubject().equals(userDetails.getUsername());
+        boolean notExpired = !legacyClaims(token).getExpiration().before(new Date());
+        return username != null && sameUser && notExpired;
+    }
+
+    @Benchmark
+    public boolean cachedParserSingleParse() {
+        Claims claims = jwtService.extractAllClaims(token);
+        return claims.getSubject() != null && jwtService.isTokenValid(claims, userDetails);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtServiceBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.bankingapplication.benchmarks;
+
+import org.example.bankingapplication.BankingApplication;
+import org.example.bankingapplication.dto.transaction.TransactionRequestDTO;
+import org.example.bankingapplication.dto.transaction.TransactionResponseDTO;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.model.Account;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.UserRepository;
+import org.example.bankingapplication.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfers between random pairs of a small set of accounts, applied by the JPA path (row locks in the database)
+ * or by the in-memory ledger engine (single writer per partition, journal on local disk, database written in the
+ * background). Runs against the H2 "test" profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class LedgerEngineBenchmark {
+
+    private static final int ACCOUNTS = 64;
+
+    @Param({"JPA", "LEDGER"})
+    private String engine;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+
+    @Setup
+    public void setup() throws IOException {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=WARN",
+                        "app.transactions.engine=" + engine,
+                        "app.transactions.ledger.directory=" + Files.createTempDirectory("ledger-benchmark"))
+                .run();
+        transactionService = context.getBean(TransactionService.class);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            createAccount(accountNumber(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResponseDTO transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS);
+        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        return transactionService.transfer(TransactionRequestDTO.builder()
+                .senderAccountNumber(accountNumber(from))
+                .recipientAccountNumber(accountNumber(to))
+                .amount(BigDecimal.valueOf(random.nextInt(1, 100)))
+                .build());
+    }
+
+    private void createAccount(String accountNumber) {
+        User user = context.getBean(UserRepository.class).save(User.builder()
+                .username("ledger-" + accountNumber)
+                .email(accountNumber + "@gmail.com")
+                .password("password")
+                .role(Roles.ROLE_USER)
+                .accountNumber(accountNumber)
+                .build());
+        context.getBean(AccountRepository.class).save(Account.builder()
+                .accountNumber(accountNumber)
+                .ownerName(user.getUsername())
+                .balance(new BigDecimal("1000000000.00"))
+                .user(user)
+                .build());
+    }
+
+    private static String accountNumber(int index) {
+        return String.format("LT%018d", index + 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LedgerEngineBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
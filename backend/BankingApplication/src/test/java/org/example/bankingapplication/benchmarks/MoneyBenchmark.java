@@ -0,0 +1,83 @@
+package org.example.bankingapplication.benchmarks;
+
+import org.example.bankingapplication.utils.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The balance arithmetic of one transfer (funds check, debit, credit) on {@link BigDecimal} balances versus
+ * {@link Money} balances, as a ledger partition applies it. The interesting number is the allocation rate: run with
+ * {@code JMH_ARGS="-prof gc"} and compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final int ACCOUNTS = 1024;
+    private static final int TRANSFERS = 4096;
+
+    private final BigDecimal[] decimalBalances = new BigDecimal[ACCOUNTS];
+    private final Money[] moneyBalances = new Money[ACCOUNTS];
+    private final int[] senders = new int[TRANSFERS];
+    private final int[] receivers = new int[TRANSFERS];
+    private final BigDecimal[] decimalAmounts = new BigDecimal[TRANSFERS];
+    private final Money[] moneyAmounts = new Money[TRANSFERS];
+    private int next;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            decimalBalances[i] = new BigDecimal("1000000.00");
+            moneyBalances[i] = Money.of(decimalBalances[i]);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < TRANSFERS; i++) {
+            senders[i] = random.nextInt(ACCOUNTS);
+            receivers[i] = random.nextInt(ACCOUNTS);
+            decimalAmounts[i] = BigDecimal.valueOf(random.nextInt(1, 10_000), Money.SCALE);
+            moneyAmounts[i] = Money.of(decimalAmounts[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean bigDecimal() {
+        int i = next++ & (TRANSFERS - 1);
+        BigDecimal amount = decimalAmounts[i];
+        if (decimalBalances[senders[i]].compareTo(amount) < 0) {
+            return false;
+        }
+        decimalBalances[senders[i]] = decimalBalances[senders[i]].subtract(amount);
+        decimalBalances[receivers[i]] = decimalBalances[receivers[i]].add(amount);
+        return true;
+    }
+
+    @Benchmark
+    public boolean money() {
+        int i = next++ & (TRANSFERS - 1);
+        Money amount = moneyAmounts[i];
+        if (moneyBalances[senders[i]].isLessThan(amount)) {
+            return false;
+        }
+        moneyBalances[senders[i]] = moneyBalances[senders[i]].minus(amount);
+        moneyBalances[receivers[i]] = moneyBalances[receivers[i]].plus(amount);
+        return true;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MoneyBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.bankingapplication.benchmarks;
+
+import jakarta.persistence.EntityManager;
+import org.example.bankingapplication.BankingApplication;
+import org.example.bankingapplication.dto.account.AccountResponseDTO;
+import org.example.bankingapplication.dto.transaction.TransactionPageResponseDTO;
+import org.example.bankingapplication.dto.transaction.TransactionResponseDTO;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.enums.TransactionType;
+import org.example.bankingapplication.model.Account;
+import org.example.bankingapplication.model.Transaction;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.example.bankingapplication.repository.UserRepository;
+import org.example.bankingapplication.service.AccountService;
+import org.example.bankingapplication.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the account and transaction-history reads done the way the endpoints used to (entities
+ * loaded in a read-write transaction and copied into DTOs) against the projection queries in a
+ * read-only transaction. Runs against the H2 "test" profile; use the GC profiler output
+ * ({@code gc.alloc.rate.norm}) for allocation per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadModelBenchmark {
+
+    private static final int HISTORY_SIZE = 500;
+    private static final int PAGE_SIZE = 50;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private TransactionTemplate readWriteTransaction;
+    private AccountService accountService;
+    private TransactionService transactionService;
+    private UUID userId;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .profiles("test")
+                .properties("server.port=0")
+                .run();
+        entityManager = context.getBean(EntityManager.class);
+        readWriteTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        accountService = context.getBean(AccountService.class);
+        transactionService = context.getBean(TransactionService.class);
+
+        String accountNumber = "LT000000000000000001";
+        User user = context.getBean(UserRepository.class).save(User.builder()
+                .username("bench-user")
+                .email("bench@gmail.com")
+                .password("password")
+                .role(Roles.ROLE_USER)
+                .accountNumber(accountNumber)
+                .build());
+        context.getBean(AccountRepository.class).save(Account.builder()
+                .accountNumber(accountNumber)
+                .ownerName(user.getUsername())
+                .balance(new BigDecimal("1000.00"))
+                .user(user)
+                .build());
+        List<Transaction> history = new ArrayList<>();
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            history.add(Transaction.builder()
+                    .transactionType(TransactionType.TRANSFER_OUT)
+                    .amount(BigDecimal.ONE)
+                    .accountNumber(accountNumber)
+                    .receiverAccountNumber("LT000000000000000002")
+                    .build());
+        }
+        context.getBean(TransactionRepository.class).saveAll(history);
+        userId = user.getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountResponseDTO accountEntityMapping() {
+        return readWriteTransaction.execute(status -> {
+            Account account = entityManager.createQuery("SELECT a FROM Account a WHERE a.user.id = :userId", Account.class)
+                    .setParameter("userId", userId)
+                    .getSingleResult();
+            return AccountResponseDTO.builder()
+                    .accountId(account.getId())
+                    .accountNumber(account.getAccountNumber())
+                    .ownerName(account.getOwnerName())
+                    .balance(account.getBalance())
+                    .build();
+        });
+    }
+
+    @Benchmark
+    public AccountResponseDTO accountProjection() {
+        return accountService.getAccountByUserId(userId);
+    }
+
+    @Benchmark
+    public List<TransactionResponseDTO> historyEntityMapping() {
+        return readWriteTransaction.execute(status -> {
+            Account account = entityManager.createQuery("SELECT a FROM Account a WHERE a.user.id = :userId", Account.class)
+                    .setParameter("userId", userId)
+                    .getSingleResult();
+            List<Transaction> transactions = entityManager.createQuery("""
+                            SELECT t FROM transactions t
+                            WHERE t.accountNumber = :accountNumber
+                            ORDER BY t.transactionDate DESC, t.id ASC
+                            """, Transaction.class)
+                    .setParameter("accountNumber", account.getAccountNumber())
+                    .setMaxResults(PAGE_SIZE + 1)
+                    .getResultList();
+            return transactions.stream()
+                    .limit(PAGE_SIZE)
+                    .map(transaction -> TransactionResponseDTO.builder()
+                            .transactionId(transaction.getId())
+                            .senderAccountNumber(transaction.getAccountNumber())
+                            .recipientAccountNumber(transaction.getReceiverAccountNumber())
+                            .amount(transaction.getAmount())
+                            .balance(account.getBalance())
+                            .transactionType(transaction.getTransactionType())
+                            .transactionDate(transaction.getTransactionDate())
+                            .build())
+                    .toList();
+        });
+    }
+
+    @Benchmark
+    public TransactionPageResponseDTO historyProjection() {
+        return transactionService.getTransactionsByUserId(userId, null, PAGE_SIZE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ReadModelBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.bankingapplication.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bankingapplication.cache.AccountNumberCache;
+import org.example.bankingapplication.dto.transaction.TransactionPageResponseDTO;
+import org.example.bankingapplication.dto.transaction.TransactionView;
+import org.example.bankingapplication.enums.TransactionType;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.example.bankingapplication.repository.UserRepository;
+import org.example.bankingapplication.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.bankingapplication.benchmarks.BenchmarkStubs.stub;
+
+/**
+ * Cost of {@link TransactionService#getTransactionsByUserId} above the database: page trimming, cursor encoding
+ * and mapping {@link TransactionView} rows to response DTOs. Repositories are stubbed to return a prebuilt page,
+ * so query time is excluded; {@link ReadModelBenchmark} covers the end-to-end read against H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionHistoryMappingBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "LT123456789012345678";
+
+    @Param({"20", "200"})
+    private int pageSize;
+
+    private TransactionService transactionService;
+    private UUID userId;
+
+    @Setup
+    public void setup() {
+        userId = UUID.randomUUID();
+        List<TransactionView> rows = new ArrayList<>(pageSize + 1);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i <= pageSize; i++) {
+            rows.add(new TransactionView(UUID.randomUUID(), TransactionType.TRANSFER_OUT, now.minusSeconds(i),
+                    new BigDecimal("12.34"), ACCOUNT_NUMBER, "LT987654321098765432", new BigDecimal("1000.00")));
+        }
+
+        AccountRepository accountRepository = stub(AccountRepository.class, Map.of());
+        TransactionRepository transactionRepository = stub(TransactionRepository.class, Map.of("findFirstPage", rows));
+        AccountNumberCache accountNumberCache = new AccountNumberCache(
+                stub(UserRepository.class, Map.of("findAccountNumberById", Optional.of(ACCOUNT_NUMBER))), 1000);
+
+        // History reads never touch the journal, balance shards, the ledger or the transaction log.
+        transactionService = new TransactionService(accountRepository, transactionRepository, accountNumberCache,
+                null, null, null, null, null, null, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(transactionService, "maxPageSize", 200);
+    }
+
+    @Benchmark
+    public TransactionPageResponseDTO historyPage() {
+        return transactionService.getTransactionsByUserId(userId, null, pageSize);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TransactionHistoryMappingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.bankingapplication.cache;
+
+import org.example.bankingapplication.exceptions.AccountNotFoundException;
+import org.example.bankingapplication.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private AccountNumberCache accountNumberCache;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() {
+        accountNumberCache = new AccountNumberCache(userRepository, 100);
+    }
+
+    @Test
+    @DisplayName("getAccountNumber_SecondCall_HitsCache")
+    void getAccountNumberSecondCallHitsCache() {
+        when(userRepository.findAccountNumberById(userId)).thenReturn(Optional.of("LT123456789012345678"));
+
+        assertEquals("LT123456789012345678", accountNumberCache.getAccountNumber(userId));
+        assertEquals("LT123456789012345678", accountNumberCache.getAccountNumber(userId));
+
+        verify(userRepository, times(1)).findAccountNumberById(userId);
+        assertEquals(1, accountNumberCache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("getAccountNumber_UnknownUser_ThrowsAndIsNotCached")
+    void getAccountNumberUnknownUserThrowsAndIsNotCached() {
+        when(userRepository.findAccountNumberById(userId)).thenReturn(Optional.empty(), Optional.of("LT123456789012345678"));
+
+        assertThrows(AccountNotFoundException.class, () -> accountNumberCache.getAccountNumber(userId));
+        assertEquals("LT123456789012345678", accountNumberCache.getAccountNumber(userId));
+    }
+}
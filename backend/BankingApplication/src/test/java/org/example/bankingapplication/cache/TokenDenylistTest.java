@@ -0,0 +1,88 @@
+package org.example.bankingapplication.cache;
+
+import org.example.bankingapplication.model.RevokedToken;
+import org.example.bankingapplication.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenDenylistTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenDenylist tokenDenylist;
+
+    private final UUID jti = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() {
+        tokenDenylist = new TokenDenylist(revokedTokenRepository);
+    }
+
+    @Test
+    @DisplayName("load_AtStartup_RestoresUnexpiredRevocations")
+    void loadAtStartupRestoresUnexpiredRevocations() {
+        when(revokedTokenRepository.findUnexpired(any())).thenReturn(List.of(revoked(jti, LocalDateTime.now().plusHours(1))));
+
+        tokenDenylist.load();
+
+        assertTrue(tokenDenylist.isRevoked(jti));
+        assertFalse(tokenDenylist.isRevoked(UUID.randomUUID()));
+    }
+
+    @Test
+    @DisplayName("revoke_WritesThroughAndRejectsImmediately")
+    void revokeWritesThroughAndRejectsImmediately() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(1);
+
+        tokenDenylist.revoke(jti, expiresAt);
+
+        assertTrue(tokenDenylist.isRevoked(jti));
+        ArgumentCaptor<RevokedToken> captor = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(captor.capture());
+        assertEquals(jti, captor.getValue().getJti());
+        assertEquals(expiresAt, captor.getValue().getExpiresAt());
+    }
+
+    @Test
+    @DisplayName("revoke_LegacyOrExpiredToken_IsIgnored")
+    void revokeLegacyOrExpiredTokenIsIgnored() {
+        tokenDenylist.revoke(null, LocalDateTime.now().plusHours(1));
+        tokenDenylist.revoke(jti, LocalDateTime.now().minusSeconds(1));
+
+        assertEquals(0, tokenDenylist.size());
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    @DisplayName("refresh_PicksUpOtherInstancesAndDropsExpired")
+    void refreshPicksUpOtherInstancesAndDropsExpired() {
+        UUID expiring = UUID.randomUUID();
+        when(revokedTokenRepository.findUnexpired(any())).thenReturn(List.of(revoked(expiring, LocalDateTime.now().plusNanos(1))));
+        when(revokedTokenRepository.findRevokedSince(any(), any())).thenReturn(List.of(revoked(jti, LocalDateTime.now().plusHours(1))));
+        tokenDenylist.load();
+
+        tokenDenylist.refresh();
+
+        assertTrue(tokenDenylist.isRevoked(jti));
+        assertFalse(tokenDenylist.isRevoked(expiring));
+    }
+
+    private static RevokedToken revoked(UUID jti, LocalDateTime expiresAt) {
+        return RevokedToken.builder().jti(jti).expiresAt(expiresAt).revokedAt(LocalDateTime.now()).build();
+    }
+}
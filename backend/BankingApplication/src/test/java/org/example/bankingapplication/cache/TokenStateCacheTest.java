@@ -0,0 +1,108 @@
+package org.example.bankingapplication.cache;
+
+import org.example.bankingapplication.model.Token;
+import org.example.bankingapplication.repository.TokenRepository;
+import org.example.bankingapplication.utils.TokenDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenStateCacheTest {
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    private TokenStateCache tokenStateCache;
+
+    private final String jwt = "test-jwt-token";
+    private final Date expiresAt = new Date(System.currentTimeMillis() + 3600000L);
+
+    @BeforeEach
+    void setup() {
+        tokenStateCache = new TokenStateCache(tokenRepository, 100);
+    }
+
+    @Test
+    @DisplayName("isTokenActive_SecondCall_HitsCache")
+    void isTokenActiveSecondCallHitsCache() {
+        Token token = Token.builder().token(jwt).isExpired(false).isRevoked(false).build();
+        when(tokenRepository.findByTokenHash(TokenDigest.sha256(jwt))).thenReturn(Optional.of(token));
+
+        assertTrue(tokenStateCache.isTokenActive(jwt, expiresAt));
+        assertTrue(tokenStateCache.isTokenActive(jwt, expiresAt));
+
+        verify(tokenRepository, times(1)).findByTokenHash(TokenDigest.sha256(jwt));
+        assertEquals(1, tokenStateCache.getMissCount());
+        assertEquals(1, tokenStateCache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("isTokenActive_RevokedOrMissingToken_ReturnsFalse")
+    void isTokenActiveRevokedOrMissingTokenReturnsFalse() {
+        Token revoked = Token.builder().token(jwt).isExpired(true).isRevoked(true).build();
+        when(tokenRepository.findByTokenHash(TokenDigest.sha256(jwt))).thenReturn(Optional.of(revoked));
+        when(tokenRepository.findByTokenHash(TokenDigest.sha256("missing"))).thenReturn(Optional.empty());
+
+        assertFalse(tokenStateCache.isTokenActive(jwt, expiresAt));
+        assertFalse(tokenStateCache.isTokenActive("missing", expiresAt));
+    }
+
+    @Test
+    @DisplayName("invalidate_ForcesReloadFromRepository")
+    void invalidateForcesReloadFromRepository() {
+        Token token = Token.builder().token(jwt).isExpired(false).isRevoked(false).build();
+        when(tokenRepository.findByTokenHash(TokenDigest.sha256(jwt))).thenReturn(Optional.of(token), Optional.empty());
+
+        assertTrue(tokenStateCache.isTokenActive(jwt, expiresAt));
+        tokenStateCache.invalidate(jwt);
+
+        assertFalse(tokenStateCache.isTokenActive(jwt, expiresAt));
+        verify(tokenRepository, times(2)).findByTokenHash(TokenDigest.sha256(jwt));
+    }
+
+    @Test
+    @DisplayName("invalidateAfterCommit_InsideTransaction_EvictsOnlyOnCommit")
+    void invalidateAfterCommitInsideTransactionEvictsOnlyOnCommit() {
+        Token token = Token.builder().token(jwt).isExpired(false).isRevoked(false).build();
+        when(tokenRepository.findByTokenHash(TokenDigest.sha256(jwt))).thenReturn(Optional.of(token), Optional.empty());
+        assertTrue(tokenStateCache.isTokenActive(jwt, expiresAt));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenStateCache.invalidateAfterCommit(jwt);
+            assertTrue(tokenStateCache.isTokenActive(jwt, expiresAt));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(tokenStateCache.isTokenActive(jwt, expiresAt));
+        verify(tokenRepository, times(2)).findByTokenHash(TokenDigest.sha256(jwt));
+    }
+
+    @Test
+    @DisplayName("isTokenActive_ExpiredJwt_IsNotRetained")
+    void isTokenActiveExpiredJwtIsNotRetained() {
+        Token token = Token.builder().token(jwt).isExpired(false).isRevoked(false).build();
+        when(tokenRepository.findByTokenHash(TokenDigest.sha256(jwt))).thenReturn(Optional.of(token));
+        Date alreadyExpired = new Date(System.currentTimeMillis() - 1000L);
+
+        tokenStateCache.isTokenActive(jwt, alreadyExpired);
+        tokenStateCache.isTokenActive(jwt, alreadyExpired);
+
+        verify(tokenRepository, times(2)).findByTokenHash(TokenDigest.sha256(jwt));
+    }
+}
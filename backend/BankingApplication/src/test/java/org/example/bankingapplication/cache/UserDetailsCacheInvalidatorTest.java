@@ -0,0 +1,65 @@
+package org.example.bankingapplication.cache;
+
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(UserDetailsCache.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserDetailsCacheInvalidatorTest {
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        userRepository.deleteAll();
+        user = userRepository.save(User.builder()
+                .username("cached-user")
+                .email("cached@gmail.com")
+                .password("old-hash")
+                .accountNumber("LT000000000000000001")
+                .role(Roles.ROLE_USER)
+                .build());
+    }
+
+    @Test
+    @DisplayName("passwordAndRoleChange_AfterCommit_EvictsCachedSnapshot")
+    void passwordAndRoleChangeAfterCommitEvictsCachedSnapshot() {
+        assertEquals("old-hash", userDetailsCache.getUserDetails("cached-user").getPassword());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User managed = userRepository.findById(user.getId()).orElseThrow();
+            managed.setPassword("new-hash");
+            managed.setRole(Roles.ROLE_ADMIN);
+        });
+
+        assertEquals("new-hash", userDetailsCache.getUserDetails("cached-user").getPassword());
+        assertEquals(Roles.ROLE_ADMIN, userDetailsCache.getUserDetails("cached-user").getRole());
+        assertEquals(2, userDetailsCache.getMissCount());
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.bankingapplication.cache;
+
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.repository.UserRepository;
+import org.example.bankingapplication.userDetails.CustomUserDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserDetailsCache userDetailsCache;
+
+    private final CustomUserDetails userDetails =
+            new CustomUserDetails(UUID.randomUUID(), "test-user", "hash", Roles.ROLE_USER, "LT000000000000000001");
+
+    @BeforeEach
+    void setup() {
+        userDetailsCache = new UserDetailsCache(userRepository, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    @DisplayName("getUserDetails_SecondCall_HitsCache")
+    void getUserDetailsSecondCallHitsCache() {
+        when(userRepository.findUserDetailsByUsername("test-user")).thenReturn(Optional.of(userDetails));
+
+        assertSame(userDetails, userDetailsCache.getUserDetails("test-user"));
+        assertSame(userDetails, userDetailsCache.getUserDetails("test-user"));
+
+        verify(userRepository, times(1)).findUserDetailsByUsername("test-user");
+        assertEquals(1, userDetailsCache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("getUserDetails_UnknownUser_ThrowsAndIsNotCached")
+    void getUserDetailsUnknownUserThrowsAndIsNotCached() {
+        when(userRepository.findUserDetailsByUsername("test-user")).thenReturn(Optional.empty(), Optional.of(userDetails));
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.getUserDetails("test-user"));
+        assertSame(userDetails, userDetailsCache.getUserDetails("test-user"));
+    }
+
+    @Test
+    @DisplayName("invalidate_ForcesReloadFromRepository")
+    void invalidateForcesReloadFromRepository() {
+        CustomUserDetails promoted = new CustomUserDetails(userDetails.getId(), "test-user", "hash", Roles.ROLE_ADMIN, "LT000000000000000001");
+        when(userRepository.findUserDetailsByUsername("test-user")).thenReturn(Optional.of(userDetails), Optional.of(promoted));
+
+        userDetailsCache.getUserDetails("test-user");
+        userDetailsCache.invalidate("test-user");
+
+        assertEquals(Roles.ROLE_ADMIN, userDetailsCache.getUserDetails("test-user").getRole());
+    }
+
+    @Test
+    @DisplayName("invalidate_DuringLoad_DropsTheLoadedRow")
+    void invalidateDuringLoadDropsTheLoadedRow() throws Exception {
+        CustomUserDetails promoted = new CustomUserDetails(userDetails.getId(), "test-user", "hash", Roles.ROLE_ADMIN, "LT000000000000000001");
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        when(userRepository.findUserDetailsByUsername("test-user")).thenAnswer(invocation -> {
+            reading.countDown();
+            committed.await();
+            return Optional.of(userDetails);
+        }).thenReturn(Optional.of(promoted));
+
+        // The row is read before the change commits, and the change's eviction lands before the read returns.
+        CompletableFuture<CustomUserDetails> stale = CompletableFuture.supplyAsync(() -> userDetailsCache.getUserDetails("test-user"));
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        userDetailsCache.invalidate("test-user");
+        committed.countDown();
+        assertSame(userDetails, stale.get(5, TimeUnit.SECONDS));
+
+        assertEquals(Roles.ROLE_ADMIN, userDetailsCache.getUserDetails("test-user").getRole());
+        verify(userRepository, times(2)).findUserDetailsByUsername("test-user");
+    }
+}
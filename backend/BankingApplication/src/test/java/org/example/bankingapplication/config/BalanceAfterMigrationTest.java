@@ -0,0 +1,142 @@
+package org.example.bankingapplication.config;
+
+import org.example.bankingapplication.dto.transaction.TransactionView;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.enums.TransactionType;
+import org.example.bankingapplication.model.Account;
+import org.example.bankingapplication.model.Transaction;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.example.bankingapplication.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(BalanceAfterMigration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BalanceAfterMigrationTest {
+
+    private static final String ACCOUNT_NUMBER = "LT000000000000000091";
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Autowired
+    private BalanceAfterMigration balanceAfterMigration;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setup() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        User user = userRepository.save(User.builder()
+                .username("backfill")
+                .email("backfill@gmail.com")
+                .password("password")
+                .role(Roles.ROLE_USER)
+                .accountNumber(ACCOUNT_NUMBER)
+                .build());
+        accountRepository.save(Account.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .ownerName(user.getUsername())
+                .balance(new BigDecimal("60.00"))
+                .user(user)
+                .build());
+    }
+
+    @Test
+    @DisplayName("afterSingletonsInstantiated_LegacyRows_WalkBackFromCurrentBalance")
+    void afterSingletonsInstantiatedLegacyRowsWalkBackFromCurrentBalance() {
+        save(TransactionType.DEPOSIT, "100.00", null, START);
+        save(TransactionType.TRANSFER_OUT, "30.00", null, START.plusHours(1));
+        save(TransactionType.TRANSFER_IN, "10.00", null, START.plusHours(2));
+        save(TransactionType.WITHDRAW, "20.00", null, START.plusHours(3));
+
+        balanceAfterMigration.afterSingletonsInstantiated();
+
+        List<BigDecimal> balances = history();
+        assertEquals(List.of("60.00", "80.00", "70.00", "100.00"), balances.stream().map(BigDecimal::toPlainString).toList());
+    }
+
+    @Test
+    @DisplayName("afterSingletonsInstantiated_NewerRowWithValue_AnchorsOlderRows")
+    void afterSingletonsInstantiatedNewerRowWithValueAnchorsOlderRows() {
+        save(TransactionType.DEPOSIT, "100.00", null, START);
+        save(TransactionType.WITHDRAW, "25.00", null, START.plusHours(1));
+        save(TransactionType.WITHDRAW, "15.00", "60.00", START.plusHours(2));
+
+        balanceAfterMigration.afterSingletonsInstantiated();
+
+        assertEquals(List.of("60.00", "75.00", "100.00"), history().stream().map(BigDecimal::toPlainString).toList());
+    }
+
+    @Test
+    @DisplayName("afterSingletonsInstantiated_HistoryLongerThanAPage_CarriesBalanceAcrossPagesInIdOrderOnTies")
+    void afterSingletonsInstantiatedHistoryLongerThanAPageCarriesBalanceAcrossPagesInIdOrderOnTies() {
+        // 1200 deposits of 1.00 in pairs sharing a timestamp, ending at the account's balance.
+        accountRepository.findByAccountNumber(ACCOUNT_NUMBER).ifPresent(account -> {
+            account.setBalance(new BigDecimal("1200.00"));
+            accountRepository.save(account);
+        });
+        List<Transaction> legacy = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            legacy.add(Transaction.builder()
+                    .transactionType(TransactionType.DEPOSIT)
+                    .amount(new BigDecimal("1.00"))
+                    .accountNumber(ACCOUNT_NUMBER)
+                    .transactionDate(START.plusMinutes(i / 2))
+                    .build());
+        }
+        transactionRepository.saveAll(legacy);
+
+        balanceAfterMigration.afterSingletonsInstantiated();
+
+        List<TransactionView> history = transactionRepository.findFirstPage(ACCOUNT_NUMBER, Pageable.unpaged());
+        assertEquals(1200, history.size());
+        for (int i = 0; i < history.size(); i++) {
+            assertEquals(new BigDecimal(1200 - i).setScale(2), history.get(i).balanceAfter());
+        }
+    }
+
+    private List<BigDecimal> history() {
+        return transactionRepository.findByAccountNumberOrderByTransactionDateDesc(ACCOUNT_NUMBER).stream()
+                .map(Transaction::getBalanceAfter)
+                .toList();
+    }
+
+    private void save(TransactionType type, String amount, String balanceAfter, LocalDateTime date) {
+        transactionRepository.save(Transaction.builder()
+                .transactionType(type)
+                .amount(new BigDecimal(amount))
+                .accountNumber(ACCOUNT_NUMBER)
+                .balanceAfter(balanceAfter == null ? null : new BigDecimal(balanceAfter))
+                .transactionDate(date)
+                .build());
+    }
+}
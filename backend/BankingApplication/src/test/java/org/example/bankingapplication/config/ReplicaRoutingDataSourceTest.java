@@ -0,0 +1,117 @@
+package org.example.bankingapplication.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bankingapplication.cache.RecentWrites;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.userDetails.CustomUserDetails;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final String ALICE = "LT000000000000000001";
+    private static final String BOB = "LT000000000000000002";
+    private static final String CAROL = "LT000000000000000003";
+
+    private RecentWrites recentWrites;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setup() {
+        recentWrites = new RecentWrites(true, Duration.ofMinutes(1), 1000);
+        routingDataSource = new ReplicaRoutingDataSource(database("primary"), database("replica"), recentWrites);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("readOnly_AuthenticatedUser_UsesReplica")
+    void readOnlyAuthenticatedUserUsesReplica() {
+        authenticate("alice", ALICE);
+
+        assertEquals("replica", readOnly.execute(status -> origin()));
+        assertEquals("primary", readWrite.execute(status -> origin()));
+        assertEquals("primary", origin());
+    }
+
+    @Test
+    @DisplayName("readOnly_WithoutAuthenticatedUser_UsesPrimary")
+    void readOnlyWithoutAuthenticatedUserUsesPrimary() {
+        assertEquals("primary", readOnly.execute(status -> origin()));
+    }
+
+    @Test
+    @DisplayName("readOnly_AfterMovement_UsesPrimaryForBothParties")
+    void readOnlyAfterMovementUsesPrimaryForBothParties() {
+        recentWrites.mark(ALICE, BOB);
+
+        authenticate("alice", ALICE);
+        assertEquals("primary", readOnly.execute(status -> origin()));
+
+        authenticate("bob", BOB);
+        assertEquals("primary", readOnly.execute(status -> origin()));
+
+        authenticate("carol", CAROL);
+        assertEquals("replica", readOnly.execute(status -> origin()));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        routingDataSource.bindTo(registry);
+        assertEquals(2, registry.get("banking.datasource.read_your_writes").functionCounter().count());
+        assertEquals(1, registry.get("banking.datasource.routed").tag("target", "replica").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("readOnly_AfterReadWriteTransaction_StillUsesReplica")
+    void readOnlyAfterReadWriteTransactionStillUsesReplica() {
+        authenticate("alice", ALICE);
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE origin SET name = name"));
+
+        assertEquals("replica", readOnly.execute(status -> origin()));
+    }
+
+    private String origin() {
+        return jdbcTemplate.queryForObject("SELECT name FROM origin", String.class);
+    }
+
+    private static void authenticate(String username, String accountNumber) {
+        CustomUserDetails user = new CustomUserDetails(UUID.randomUUID(), username, null, Roles.ROLE_USER, accountNumber);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private static JdbcDataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS origin (name VARCHAR(16))");
+        jdbcTemplate.update("DELETE FROM origin");
+        jdbcTemplate.update("INSERT INTO origin (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
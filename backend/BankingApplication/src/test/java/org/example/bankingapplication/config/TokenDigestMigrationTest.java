@@ -0,0 +1,77 @@
+package org.example.bankingapplication.config;
+
+import org.example.bankingapplication.enums.TokenType;
+import org.example.bankingapplication.model.Token;
+import org.example.bankingapplication.repository.TokenRepository;
+import org.example.bankingapplication.utils.TokenDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TokenDigestMigration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenDigestMigrationTest {
+
+    @Autowired
+    private TokenDigestMigration tokenDigestMigration;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        tokenRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("afterSingletonsInstantiated_LegacyRows_BackfillsDigestsInBatches")
+    void afterSingletonsInstantiatedLegacyRowsBackfillsDigestsInBatches() {
+        List<Token> legacy = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            legacy.add(Token.builder().token("legacy-token-" + i).tokenType(TokenType.BEARER).build());
+        }
+        legacy.add(Token.builder().tokenType(TokenType.BEARER).build());
+        tokenRepository.saveAll(legacy);
+
+        tokenDigestMigration.afterSingletonsInstantiated();
+
+        assertEquals(1200, tokenRepository.count());
+        assertTrue(tokenRepository.findByTokenHashIsNull(Pageable.unpaged()).isEmpty());
+        Token migrated = tokenRepository.findByTokenHash(TokenDigest.sha256("legacy-token-7")).orElseThrow();
+        assertNull(migrated.getToken());
+    }
+
+    @Test
+    @DisplayName("afterSingletonsInstantiated_OldUniqueIndexOnRawToken_DropsIt")
+    void afterSingletonsInstantiatedOldUniqueIndexOnRawTokenDropsIt() {
+        jdbcTemplate.execute("CREATE UNIQUE INDEX uk_tokens_token ON tokens (token)");
+
+        tokenDigestMigration.afterSingletonsInstantiated();
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'UK_TOKENS_TOKEN'", Integer.class));
+        tokenRepository.saveAll(List.of(
+                Token.builder().token("duplicate").tokenHash(TokenDigest.sha256("first")).tokenType(TokenType.BEARER).build(),
+                Token.builder().token("duplicate").tokenHash(TokenDigest.sha256("second")).tokenType(TokenType.BEARER).build()));
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.bankingapplication.filters;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bankingapplication.cache.TokenDenylist;
+import org.example.bankingapplication.cache.TokenStateCache;
+import org.example.bankingapplication.enums.AuthMode;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.service.JwtService;
+import org.example.bankingapplication.userDetails.CustomUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private TokenStateCache tokenStateCache;
+
+    @Mock
+    private TokenDenylist tokenDenylist;
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter statelessFilter;
+    private User user;
+    private String token;
+
+    @BeforeEach
+    void setup() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "F15F1797CFC00E335504B4EE9C27EA34259BCA4A8FB0C19A30C591B3DC3276B7");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3600000L);
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .username("test-user")
+                .email("user@gmail.com")
+                .accountNumber("LT123456789012345678")
+                .role(Roles.ROLE_USER)
+                .build();
+        token = jwtService.generateToken(user);
+        statelessFilter = new JwtAuthenticationFilter(jwtService, userDetailsService, tokenStateCache, tokenDenylist,
+                AuthMode.STATELESS, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("doFilter_StatelessMode_AuthenticatesFromClaimsWithoutLookups")
+    void doFilterStatelessModeAuthenticatesFromClaimsWithoutLookups() throws Exception {
+        statelessFilter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        CustomUserDetails principal = (CustomUserDetails) authentication.getPrincipal();
+        assertEquals(user.getId(), principal.getId());
+        assertEquals("test-user", principal.getUsername());
+        assertEquals(Roles.ROLE_USER, principal.getRole());
+        verifyNoInteractions(userDetailsService, tokenStateCache);
+    }
+
+    @Test
+    @DisplayName("doFilter_StatelessMode_RevokedJti_IsNotAuthenticated")
+    void doFilterStatelessModeRevokedJtiIsNotAuthenticated() throws Exception {
+        when(tokenDenylist.isRevoked(any())).thenReturn(true);
+
+        statelessFilter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("doFilter_StatelessMode_MalformedClaims_AreNotAuthenticated")
+    void doFilterStatelessModeMalformedClaimsAreNotAuthenticated() throws Exception {
+        CustomUserDetails userDetails = new CustomUserDetails(user);
+        for (Map<String, Object> claims : List.<Map<String, Object>>of(
+                Map.of("id", "not-a-uuid", "role", "ROLE_USER"),
+                Map.of("id", user.getId().toString(), "role", "ROLE_ROOT"),
+                Map.of("id", 42, "role", "ROLE_USER"))) {
+            String malformed = jwtService.buildToken(claims, userDetails, 3600000L);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            statelessFilter.doFilter(request(malformed), response, new MockFilterChain());
+
+            assertNull(SecurityContextHolder.getContext().getAuthentication(), claims.toString());
+            assertEquals(200, response.getStatus());
+        }
+    }
+
+    private static MockHttpServletRequest request(String jwt) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/account/1");
+        request.setServletPath("/api/v1/account/1");
+        request.addHeader("Authorization", "Bearer " + jwt);
+        return request;
+    }
+}
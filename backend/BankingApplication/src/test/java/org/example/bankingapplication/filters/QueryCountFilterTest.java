@@ -0,0 +1,49 @@
+package org.example.bankingapplication.filters;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bankingapplication.metrics.QueryCountInspector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryCountFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QueryCountInspector inspector = new QueryCountInspector();
+    private final QueryCountFilter filter = new QueryCountFilter(registry);
+
+    @Test
+    @DisplayName("doFilter_RecordsStatementsPerRoute")
+    void doFilterRecordsStatementsPerRoute() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/account/42");
+        MockFilterChain chain = new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/account/{userId}");
+                inspector.inspect("select 1");
+                inspector.inspect("select 2");
+            }
+        };
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        DistributionSummary summary = registry.get("banking.db.queries")
+                .tags("method", "GET", "uri", "/api/v1/account/{userId}").summary();
+        assertEquals(1, summary.count());
+        assertEquals(2.0, summary.totalAmount());
+    }
+
+    @Test
+    @DisplayName("inspect_OutsideRequest_IsNotCounted")
+    void inspectOutsideRequestIsNotCounted() {
+        inspector.inspect("select 1");
+
+        assertEquals(0, QueryCountInspector.stop());
+    }
+}
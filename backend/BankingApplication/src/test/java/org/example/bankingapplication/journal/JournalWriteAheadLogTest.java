@@ -0,0 +1,110 @@
+package org.example.bankingapplication.journal;
+
+import org.example.bankingapplication.enums.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalWriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("recover_ReturnsAppendedRecords_WithoutAborted")
+    void recoverReturnsAppendedRecordsWithoutAborted() throws IOException {
+        JournalEntry deposit = entry(TransactionType.DEPOSIT, null);
+        JournalEntry transfer = entry(TransactionType.TRANSFER_OUT, "LT987654321098765432");
+        try (JournalWriteAheadLog log = open()) {
+            log.recover();
+            log.append(List.of(deposit));
+            long aborted = log.append(List.of(entry(TransactionType.WITHDRAW, null)));
+            log.append(List.of(transfer));
+            log.appendAbort(aborted);
+            assertEquals(2, log.pendingCount());
+        }
+
+        try (JournalWriteAheadLog log = open()) {
+            List<JournalWriteAheadLog.Record> records = log.recover();
+            assertEquals(2, records.size());
+            assertEquals(List.of(deposit), records.get(0).entries());
+            assertEquals(List.of(transfer), records.get(1).entries());
+            assertEquals(5, log.append(List.of(deposit)), "sequence continues after the abort marker");
+        }
+    }
+
+    @Test
+    @DisplayName("recover_TornTail_IsTruncatedAndAppendable")
+    void recoverTornTailIsTruncatedAndAppendable() throws IOException {
+        try (JournalWriteAheadLog log = open()) {
+            log.recover();
+            log.append(List.of(entry(TransactionType.DEPOSIT, null)));
+            log.append(List.of(entry(TransactionType.DEPOSIT, null)));
+        }
+        Path segment = segments().get(segments().size() - 1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        try (JournalWriteAheadLog log = open()) {
+            assertEquals(1, log.recover().size());
+            log.append(List.of(entry(TransactionType.WITHDRAW, null)));
+        }
+        try (JournalWriteAheadLog log = open()) {
+            List<JournalWriteAheadLog.Record> records = log.recover();
+            assertEquals(2, records.size());
+            assertEquals(TransactionType.WITHDRAW, records.get(1).entries().get(0).transactionType());
+        }
+    }
+
+    @Test
+    @DisplayName("checkpoint_SkipsCompletedRecords_AndDeletesOldSegments")
+    void checkpointSkipsCompletedRecordsAndDeletesOldSegments() throws IOException {
+        try (JournalWriteAheadLog log = open()) {
+            log.recover();
+            long first = log.append(List.of(entry(TransactionType.DEPOSIT, null)));
+            long second = log.append(List.of(entry(TransactionType.DEPOSIT, null)));
+            long third = log.append(List.of(entry(TransactionType.DEPOSIT, null)));
+            assertEquals(3, segments().size(), "tiny segments roll on every record");
+
+            log.complete(List.of(first, third));
+            assertEquals(first, log.checkpoint(), "second is still pending");
+            log.complete(List.of(second));
+            assertEquals(third, log.checkpoint());
+            assertEquals(1, segments().size());
+        }
+
+        try (JournalWriteAheadLog log = open()) {
+            assertTrue(log.recover().isEmpty());
+        }
+    }
+
+    // Segments smaller than one record, so every append after the first rolls to a new file.
+    private JournalWriteAheadLog open() throws IOException {
+        return new JournalWriteAheadLog(directory, 64);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".wal")).sorted().toList();
+        }
+    }
+
+    private static JournalEntry entry(TransactionType type, String receiver) {
+        return new JournalEntry(UUID.randomUUID(), type, new BigDecimal("12.50"), "LT123456789012345678", receiver,
+                LocalDateTime.now(), new BigDecimal("87.50"), 3);
+    }
+}
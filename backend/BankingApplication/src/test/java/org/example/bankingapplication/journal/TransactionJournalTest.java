@@ -0,0 +1,234 @@
+package org.example.bankingapplication.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.bankingapplication.cache.AccountNumberCache;
+import org.example.bankingapplication.cache.RecentWrites;
+import org.example.bankingapplication.config.RetryConfig;
+import org.example.bankingapplication.dto.transaction.TransactionRequestDTO;
+import org.example.bankingapplication.dto.transaction.TransactionResponseDTO;
+import org.example.bankingapplication.enums.JournalMode;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.enums.TransactionType;
+import org.example.bankingapplication.ledger.LedgerEngine;
+import org.example.bankingapplication.model.Account;
+import org.example.bankingapplication.model.Transaction;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.example.bankingapplication.repository.UserRepository;
+import org.example.bankingapplication.service.ShardedBalanceService;
+import org.example.bankingapplication.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "app.transactions.journal.mode=ASYNC",
+        "app.transactions.journal.directory=target/test-journal/${random.uuid}"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransactionService.class, TransactionJournal.class, ShardedBalanceService.class, LedgerEngine.class, TransactionLog.class, AccountNumberCache.class, RecentWrites.class, RetryConfig.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionJournalTest {
+
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionJournal transactionJournal;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path recoveryDirectory;
+
+    private final List<String> accountNumbers = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        accountNumbers.clear();
+
+        for (int i = 0; i < 4; i++) {
+            String accountNumber = "LT1000000000000000" + (10 + i);
+            User user = userRepository.save(User.builder()
+                    .username("journal" + i)
+                    .email("journal" + i + "@gmail.com")
+                    .password("password")
+                    .role(Roles.ROLE_USER)
+                    .accountNumber(accountNumber)
+                    .build());
+            accountRepository.save(Account.builder()
+                    .accountNumber(accountNumber)
+                    .ownerName(user.getUsername())
+                    .balance(INITIAL_BALANCE)
+                    .user(user)
+                    .build());
+            accountNumbers.add(accountNumber);
+        }
+    }
+
+    @Test
+    @DisplayName("asyncMode_ConcurrentMovements_WriteFullHistoryAfterCommit")
+    void asyncModeConcurrentMovementsWriteFullHistoryAfterCommit() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<List<UUID>>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                List<UUID> ids = new ArrayList<>();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 25; i++) {
+                    int from = random.nextInt(accountNumbers.size());
+                    int to = (from + 1 + random.nextInt(accountNumbers.size() - 1)) % accountNumbers.size();
+                    TransactionRequestDTO request = TransactionRequestDTO.builder()
+                            .senderAccountNumber(accountNumbers.get(from))
+                            .recipientAccountNumber(accountNumbers.get(to))
+                            .amount(BigDecimal.valueOf(random.nextInt(1, 20)))
+                            .build();
+                    TransactionResponseDTO response = i % 5 == 0
+                            ? transactionService.deposit(request)
+                            : transactionService.transfer(request);
+                    ids.add(response.getTransactionId());
+                }
+                return ids;
+            }));
+        }
+        Set<UUID> returnedIds = new HashSet<>();
+        for (Future<List<UUID>> future : futures) {
+            returnedIds.addAll(future.get(2, TimeUnit.MINUTES));
+        }
+        executor.shutdown();
+
+        awaitDrained();
+        assertFalse(returnedIds.contains(null));
+        assertEquals(returnedIds.size(), transactionRepository.findExistingIds(returnedIds).size());
+
+        for (String accountNumber : accountNumbers) {
+            BigDecimal expected = INITIAL_BALANCE;
+            for (Transaction transaction : transactionRepository.findByAccountNumberOrderByTransactionDateDesc(accountNumber)) {
+                assertNotNull(transaction.getBalanceAfter());
+                expected = transaction.getTransactionType() == TransactionType.TRANSFER_OUT
+                        ? expected.subtract(transaction.getAmount())
+                        : expected.add(transaction.getAmount());
+            }
+            Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow();
+            assertEquals(0, expected.compareTo(account.getBalance()), "History does not add up on " + accountNumber);
+        }
+    }
+
+    @Test
+    @DisplayName("asyncMode_CommitFailsAfterAppend_WritesAbortAndNoRows")
+    void asyncModeCommitFailsAfterAppendWritesAbortAndNoRows() throws Exception {
+        TransactionRequestDTO request = TransactionRequestDTO.builder()
+                .senderAccountNumber(accountNumbers.get(0))
+                .amount(new BigDecimal("10.00"))
+                .build();
+
+        // A later beforeCommit callback fails after the journal has appended, so the transaction rolls back.
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            transactionService.deposit(request);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    throw new IllegalStateException("commit refused");
+                }
+            });
+        }));
+
+        awaitDrained();
+        assertTrue(transactionRepository.findByAccountNumberOrderByTransactionDateDesc(accountNumbers.get(0)).isEmpty());
+        assertEquals(0, INITIAL_BALANCE.compareTo(accountRepository.findByAccountNumber(accountNumbers.get(0)).orElseThrow().getBalance()));
+    }
+
+    @Test
+    @DisplayName("start_ReplaysCommittedMovements_AndDropsUncommitted")
+    void startReplaysCommittedMovementsAndDropsUncommitted() throws Exception {
+        String accountNumber = accountNumbers.get(0);
+        long version = accountRepository.findByAccountNumber(accountNumber).orElseThrow().getVersion();
+        JournalEntry committed = entry(accountNumber, version);
+        JournalEntry rolledBack = entry(accountNumber, version + 1);
+        JournalEntry superseded = entry(accountNumber, version + 1);
+        JournalEntry laterWinner = entry(accountNumber, version + 1);
+        try (JournalWriteAheadLog log = new JournalWriteAheadLog(recoveryDirectory, DataSize.ofMegabytes(1).toBytes())) {
+            log.recover();
+            log.append(List.of(committed));
+            log.append(List.of(superseded));
+            log.append(List.of(laterWinner));
+            log.appendAbort(log.append(List.of(rolledBack)));
+        }
+        // The crash happened after the commit that produced version + 1.
+        Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow();
+        account.setBalance(account.getBalance().add(BigDecimal.ONE));
+        accountRepository.save(account);
+
+        TransactionJournal recovered = new TransactionJournal(entityManagerFactory, accountRepository, transactionRepository,
+                JournalMode.SYNCHRONOUS, recoveryDirectory, DataSize.ofMegabytes(1), 100, Duration.ofMillis(10));
+        recovered.start();
+        recovered.stop();
+
+        Set<UUID> written = new HashSet<>(transactionRepository.findExistingIds(
+                List.of(committed.id(), rolledBack.id(), superseded.id(), laterWinner.id())));
+        assertEquals(Set.of(committed.id(), laterWinner.id()), written);
+
+        // A second start finds nothing left to replay.
+        recovered = new TransactionJournal(entityManagerFactory, accountRepository, transactionRepository,
+                JournalMode.SYNCHRONOUS, recoveryDirectory, DataSize.ofMegabytes(1), 100, Duration.ofMillis(10));
+        recovered.start();
+        recovered.stop();
+        assertEquals(2, transactionRepository.findByAccountNumberOrderByTransactionDateDesc(accountNumber).size());
+    }
+
+    private void awaitDrained() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (transactionJournal.pendingRecords() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, transactionJournal.pendingRecords());
+    }
+
+    private static JournalEntry entry(String accountNumber, long accountVersion) {
+        return new JournalEntry(UUID.randomUUID(), TransactionType.DEPOSIT, BigDecimal.ONE, accountNumber, null,
+                LocalDateTime.now(), INITIAL_BALANCE.add(BigDecimal.ONE), accountVersion);
+    }
+}
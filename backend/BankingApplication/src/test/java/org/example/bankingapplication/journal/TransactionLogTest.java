@@ -0,0 +1,107 @@
+package org.example.bankingapplication.journal;
+
+import org.example.bankingapplication.enums.LogSyncPolicy;
+import org.example.bankingapplication.enums.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionLogTest {
+
+    private static final int RECORDS_PER_SEGMENT = 10;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("append_AcrossSegments_ReplaysEveryRecordInOrder")
+    void appendAcrossSegmentsReplaysEveryRecordInOrder() throws IOException {
+        List<TransactionLogRecord> records = records(25);
+        TransactionLog transactionLog = open(LogSyncPolicy.ALWAYS);
+        transactionLog.append(records.subList(0, 7));
+        transactionLog.append(records.subList(7, 25));
+        transactionLog.close();
+
+        List<TransactionLogRecord> replayed = new ArrayList<>();
+        assertEquals(25, TransactionLog.replay(directory, replayed::add));
+        assertEquals(records, replayed);
+        assertEquals(3, segments().size());
+    }
+
+    @Test
+    @DisplayName("open_TornLastRecord_ResumesAfterLastGoodRecord")
+    void openTornLastRecordResumesAfterLastGoodRecord() throws IOException {
+        List<TransactionLogRecord> records = records(4);
+        TransactionLog transactionLog = open(LogSyncPolicy.ALWAYS);
+        transactionLog.append(records.subList(0, 3));
+        transactionLog.close();
+        corrupt(segments().getLast(), 2);
+
+        TransactionLog reopened = open(LogSyncPolicy.ALWAYS);
+        assertEquals(2, reopened.nextIndex());
+        reopened.append(records.subList(3, 4));
+        reopened.close();
+
+        List<TransactionLogRecord> replayed = new ArrayList<>();
+        TransactionLog.replay(directory, replayed::add);
+        assertEquals(List.of(records.get(0), records.get(1), records.get(3)), replayed);
+    }
+
+    @Test
+    @DisplayName("replay_CorruptRecordInFullSegment_Throws")
+    void replayCorruptRecordInFullSegmentThrows() throws IOException {
+        TransactionLog transactionLog = open(LogSyncPolicy.NONE);
+        transactionLog.append(records(15));
+        transactionLog.close();
+        corrupt(segments().getFirst(), 4);
+
+        assertThrows(IllegalStateException.class, () -> TransactionLog.replay(directory, record -> {
+        }));
+    }
+
+    private TransactionLog open(LogSyncPolicy syncPolicy) throws IOException {
+        TransactionLog transactionLog = new TransactionLog(true, directory,
+                DataSize.ofBytes((long) RECORDS_PER_SEGMENT * TransactionLog.RECORD_BYTES), syncPolicy);
+        transactionLog.open();
+        return transactionLog;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static void corrupt(Path segment, int slot) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), (long) slot * TransactionLog.RECORD_BYTES + 30);
+        }
+    }
+
+    private static List<TransactionLogRecord> records(int count) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        TransactionType[] types = TransactionType.values();
+        return IntStream.range(0, count)
+                .mapToObj(i -> new TransactionLogRecord(UUID.randomUUID(), types[i % types.length],
+                        new BigDecimal(i + 1 + ".25"), String.format("LT%018d", i), now.plusMillis(i)))
+                .toList();
+    }
+}
@@ -0,0 +1,482 @@
+package org.example.bankingapplication.ledger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.bankingapplication.cache.AccountNumberCache;
+import org.example.bankingapplication.cache.RecentWrites;
+import org.example.bankingapplication.config.RetryConfig;
+import org.example.bankingapplication.dto.transaction.BatchTransferRequestDTO;
+import org.example.bankingapplication.dto.transaction.BatchTransferResponseDTO;
+import org.example.bankingapplication.dto.transaction.TransactionRequestDTO;
+import org.example.bankingapplication.dto.transaction.TransactionResponseDTO;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.enums.TransactionEngine;
+import org.example.bankingapplication.enums.TransactionType;
+import org.example.bankingapplication.exceptions.AccountNotFoundException;
+import org.example.bankingapplication.exceptions.MovementOutcomeUnknownException;
+import org.example.bankingapplication.journal.JournalEntry;
+import org.example.bankingapplication.journal.JournalWriteAheadLog;
+import org.example.bankingapplication.journal.TransactionJournal;
+import org.example.bankingapplication.journal.TransactionLog;
+import org.example.bankingapplication.model.Account;
+import org.example.bankingapplication.model.Transaction;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.repository.AccountBalanceShardRepository;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.example.bankingapplication.repository.UserRepository;
+import org.example.bankingapplication.service.IdempotencyService;
+import org.example.bankingapplication.service.ShardedBalanceService;
+import org.example.bankingapplication.service.TransactionService;
+import org.example.bankingapplication.utils.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "app.transactions.engine=LEDGER",
+        "app.transactions.ledger.partitions=4",
+        "app.transactions.ledger.directory=target/test-ledger/${random.uuid}"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransactionService.class, TransactionJournal.class, ShardedBalanceService.class, LedgerEngine.class, TransactionLog.class, AccountNumberCache.class, RecentWrites.class, RetryConfig.class, SimpleMeterRegistry.class,
+        IdempotencyService.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Slf4j
+class LedgerEngineTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int THREADS = 8;
+    private static final int MOVEMENTS_PER_THREAD = 50;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+    private static final AtomicInteger ACCOUNT_SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardedBalanceService shardedBalanceService;
+
+    @Autowired
+    private AccountBalanceShardRepository accountBalanceShardRepository;
+
+    @Autowired
+    private TransactionLog transactionLog;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path recoveryDirectory;
+
+    private final List<String> accountNumbers = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        accountNumbers.clear();
+
+        // The ledger keeps every account it has seen in memory, so each test works on fresh account numbers.
+        for (int i = 0; i < ACCOUNTS; i++) {
+            int id = ACCOUNT_SEQUENCE.incrementAndGet();
+            String accountNumber = String.format("LT%018d", 500 + id);
+            User user = userRepository.save(User.builder()
+                    .username("ledger" + id)
+                    .email("ledger" + id + "@gmail.com")
+                    .password("password")
+                    .role(Roles.ROLE_USER)
+                    .accountNumber(accountNumber)
+                    .build());
+            accountRepository.save(Account.builder()
+                    .accountNumber(accountNumber)
+                    .ownerName(user.getUsername())
+                    .balance(INITIAL_BALANCE)
+                    .user(user)
+                    .build());
+            accountNumbers.add(accountNumber);
+        }
+    }
+
+    @Test
+    @DisplayName("concurrentMovements_AcrossPartitions_ConserveTotalBalance")
+    void concurrentMovementsAcrossPartitionsConserveTotalBalance() throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BigDecimal>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                BigDecimal netDeposits = BigDecimal.ZERO;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < MOVEMENTS_PER_THREAD; i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 80));
+                    TransactionRequestDTO.TransactionRequestDTOBuilder request = TransactionRequestDTO.builder()
+                            .senderAccountNumber(accountNumbers.get(from))
+                            .amount(amount);
+                    try {
+                        if (i % 10 == 0) {
+                            transactionService.deposit(request.build());
+                            netDeposits = netDeposits.add(amount);
+                        } else if (i % 10 == 1) {
+                            transactionService.withdraw(request.build());
+                            netDeposits = netDeposits.subtract(amount);
+                        } else {
+                            transactionService.transfer(request.recipientAccountNumber(accountNumbers.get(to)).build());
+                        }
+                        succeeded.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return netDeposits;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        BigDecimal netDeposits = BigDecimal.ZERO;
+        for (Future<BigDecimal> future : futures) {
+            netDeposits = netDeposits.add(future.get(2, TimeUnit.MINUTES));
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+        log.info("LEDGER: {} movements ok, {} rejected, {} movements/s",
+                succeeded.get(), rejected.get(), Math.round(succeeded.get() / (elapsedNanos / 1_000_000_000.0)));
+
+        awaitProjected();
+        BigDecimal total = BigDecimal.ZERO;
+        for (String accountNumber : accountNumbers) {
+            Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow();
+            assertTrue(account.getBalance().signum() >= 0, "Overdrawn " + accountNumber);
+            BigDecimal expected = INITIAL_BALANCE;
+            for (Transaction transaction : transactionRepository.findByAccountNumberOrderByTransactionDateDesc(accountNumber)) {
+                expected = transaction.getTransactionType().isDebit()
+                        ? expected.subtract(transaction.getAmount())
+                        : expected.add(transaction.getAmount());
+            }
+            assertEquals(0, expected.compareTo(account.getBalance()), "History does not add up on " + accountNumber);
+            total = total.add(account.getBalance());
+        }
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)).add(netDeposits).compareTo(total));
+        assertTrue(succeeded.get() > 0);
+    }
+
+    @Test
+    @DisplayName("concurrentWithdrawals_ShouldNever_Overdraw")
+    void concurrentWithdrawalsShouldNeverOverdraw() throws Exception {
+        String accountNumber = accountNumbers.get(0);
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 20; i++) {
+                    try {
+                        transactionService.withdraw(TransactionRequestDTO.builder()
+                                .senderAccountNumber(accountNumber)
+                                .amount(new BigDecimal("10.00"))
+                                .build());
+                        succeeded.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        // Insufficient funds
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        awaitProjected();
+        assertEquals(100, succeeded.get());
+        assertEquals(0, BigDecimal.ZERO.compareTo(accountRepository.findByAccountNumber(accountNumber).orElseThrow().getBalance()));
+    }
+
+    @Test
+    @DisplayName("concurrentRetriesWithSameKey_OnLedger_MoveMoneyOnce")
+    void concurrentRetriesWithSameKeyOnLedgerMoveMoneyOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        TransactionRequestDTO transfer = TransactionRequestDTO.builder()
+                .senderAccountNumber(accountNumbers.get(0))
+                .recipientAccountNumber(accountNumbers.get(1))
+                .amount(new BigDecimal("25.00"))
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<TransactionResponseDTO>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return idempotencyService.execute(key, "transfer", transfer, () -> transactionService.transfer(transfer));
+            }));
+        }
+        start.countDown();
+        UUID transactionId = futures.get(0).get(1, TimeUnit.MINUTES).getTransactionId();
+        for (Future<TransactionResponseDTO> future : futures) {
+            assertEquals(transactionId, future.get(1, TimeUnit.MINUTES).getTransactionId());
+        }
+        executor.shutdown();
+
+        awaitProjected();
+        assertEquals(1, transactionRepository.findByAccountNumberOrderByTransactionDateDesc(accountNumbers.get(0)).size());
+        assertEquals(0, new BigDecimal("975.00").compareTo(
+                accountRepository.findByAccountNumber(accountNumbers.get(0)).orElseThrow().getBalance()));
+        assertEquals(0, new BigDecimal("1025.00").compareTo(
+                accountRepository.findByAccountNumber(accountNumbers.get(1)).orElseThrow().getBalance()));
+    }
+
+    @Test
+    @DisplayName("movements_OnUnknownAccount_AreRefusedWithoutStallingThePartition")
+    void movementsOnUnknownAccountAreRefusedWithoutStallingThePartition() {
+        TransactionRequestDTO unknown = TransactionRequestDTO.builder()
+                .senderAccountNumber("LT000000000000000000")
+                .amount(BigDecimal.TEN)
+                .build();
+        assertThrows(AccountNotFoundException.class, () -> transactionService.deposit(unknown));
+        assertThrows(AccountNotFoundException.class, () -> transactionService.deposit(unknown));
+
+        transactionService.deposit(TransactionRequestDTO.builder()
+                .senderAccountNumber(accountNumbers.get(0))
+                .amount(BigDecimal.TEN)
+                .build());
+    }
+
+    @Test
+    @DisplayName("start_WithShardedBalancesConfigured_Refuses")
+    void startWithShardedBalancesConfiguredRefuses() {
+        ShardedBalanceService sharded = new ShardedBalanceService(accountRepository, accountBalanceShardRepository,
+                transactionManager, List.of(accountNumbers.get(0)), 4);
+        LedgerEngine ledger = new LedgerEngine(accountRepository, transactionRepository, sharded,
+                transactionLog, entityManagerFactory, transactionManager, TransactionEngine.LEDGER, recoveryDirectory, 2, 16, 16,
+                DataSize.ofMegabytes(1), Duration.ofSeconds(5), 100, Duration.ofMillis(10));
+
+        assertThrows(IllegalStateException.class, ledger::start);
+    }
+
+    @Test
+    @DisplayName("transferBatch_OnLedger_ReportsFailuresPerItem")
+    void transferBatchOnLedgerReportsFailuresPerItem() throws Exception {
+        List<TransactionRequestDTO> transfers = new ArrayList<>();
+        for (int i = 1; i < ACCOUNTS; i++) {
+            transfers.add(TransactionRequestDTO.builder()
+                    .senderAccountNumber(accountNumbers.get(0))
+                    .recipientAccountNumber(accountNumbers.get(i))
+                    .amount(new BigDecimal("10.00"))
+                    .build());
+        }
+        transfers.add(TransactionRequestDTO.builder()
+                .senderAccountNumber(accountNumbers.get(0))
+                .recipientAccountNumber("LT000000000000000000")
+                .amount(BigDecimal.ONE)
+                .build());
+        transfers.add(TransactionRequestDTO.builder()
+                .senderAccountNumber(accountNumbers.get(1))
+                .recipientAccountNumber(accountNumbers.get(0))
+                .amount(new BigDecimal("100000.00"))
+                .build());
+
+        BatchTransferResponseDTO response = transactionService.transferBatch(
+                BatchTransferRequestDTO.builder().transfers(transfers).build());
+
+        assertEquals(ACCOUNTS - 1, response.getSucceeded());
+        assertEquals("Receiver account not found", response.getResults().get(ACCOUNTS - 1).getMessage());
+        assertEquals("Insufficient funds", response.getResults().get(ACCOUNTS).getMessage());
+        awaitProjected();
+        assertEquals(0, new BigDecimal("930.00").compareTo(
+                accountRepository.findByAccountNumber(accountNumbers.get(0)).orElseThrow().getBalance()));
+    }
+
+    @Test
+    @DisplayName("start_ProjectsJournal_AndCreditsMissingCreditLeg")
+    void startProjectsJournalAndCreditsMissingCreditLeg() throws Exception {
+        String sender = accountNumbers.get(0);
+        String receiver = accountNumbers.get(1);
+        long senderVersion = accountRepository.findByAccountNumber(sender).orElseThrow().getVersion();
+        JournalEntry debit = new JournalEntry(UUID.randomUUID(), TransactionType.TRANSFER_OUT, new BigDecimal("40.00"),
+                sender, receiver, LocalDateTime.now(), new BigDecimal("960.00"), senderVersion + 1);
+        // The crash came after the sender's partition journaled the debit, before the receiver's took the credit leg.
+        try (JournalWriteAheadLog log = new JournalWriteAheadLog(recoveryDirectory.resolve("partition-0"), DataSize.ofMegabytes(1).toBytes())) {
+            log.recover();
+            log.append(List.of(debit));
+        }
+
+        LedgerEngine recovered = new LedgerEngine(accountRepository, transactionRepository, shardedBalanceService,
+                transactionLog, entityManagerFactory, transactionManager, TransactionEngine.JPA, recoveryDirectory, 2, 16, 16,
+                DataSize.ofMegabytes(1), Duration.ofSeconds(5), 100, Duration.ofMillis(10));
+        recovered.start();
+        recovered.stop();
+
+        assertEquals(0, new BigDecimal("960.00").compareTo(accountRepository.findByAccountNumber(sender).orElseThrow().getBalance()));
+        assertEquals(0, new BigDecimal("1040.00").compareTo(accountRepository.findByAccountNumber(receiver).orElseThrow().getBalance()));
+        List<Transaction> credits = transactionRepository.findByAccountNumberOrderByTransactionDateDesc(receiver);
+        assertEquals(1, credits.size());
+        assertEquals(LedgerEngine.creditLegId(debit.id()), credits.get(0).getId());
+
+        // A second start finds nothing left to apply.
+        recovered.start();
+        recovered.stop();
+        assertEquals(0, new BigDecimal("1040.00").compareTo(accountRepository.findByAccountNumber(receiver).orElseThrow().getBalance()));
+    }
+
+    @Test
+    @DisplayName("journalAppendFailure_HaltsPartition_AndRestartConservesMoney")
+    void journalAppendFailureHaltsPartitionAndRestartConservesMoney() throws Exception {
+        LedgerEngine ledger = new LedgerEngine(accountRepository, transactionRepository, shardedBalanceService,
+                transactionLog, entityManagerFactory, transactionManager, TransactionEngine.LEDGER, recoveryDirectory, 2, 16, 16,
+                DataSize.ofMegabytes(1), Duration.ofSeconds(5), 100, Duration.ofMillis(10));
+        ledger.start();
+        String account = accountNumbers.get(0);
+        LedgerPartition partition = ledger.partitionFor(account);
+        String other = accountNumbers.stream()
+                .filter(accountNumber -> ledger.partitionFor(accountNumber) != partition)
+                .findFirst().orElseThrow();
+        Money ten = Money.of(BigDecimal.TEN);
+        ledger.await(ledger.deposit(account, ten));
+        ledger.await(ledger.deposit(other, ten));
+
+        // One append fails, after which the journal would accept groups again.
+        JournalWriteAheadLog journal = (JournalWriteAheadLog) ReflectionTestUtils.getField(partition, "writeAheadLog");
+        ReflectionTestUtils.setField(partition, "writeAheadLog",
+                new FailingOnceWriteAheadLog(recoveryDirectory.resolve("failing"), journal));
+        assertThrows(MovementOutcomeUnknownException.class,
+                () -> ledger.await(ledger.withdraw(account, Money.of(new BigDecimal("100.00")))));
+
+        // The withdrawal is still in the partition's balances, so nothing may be journaled from them.
+        assertThrows(IllegalStateException.class, () -> ledger.deposit(account, ten));
+        assertThrows(IllegalStateException.class, () -> ledger.transfer(other, account, ten));
+        ledger.await(ledger.deposit(other, ten));
+        ledger.stop();
+
+        LedgerEngine restarted = new LedgerEngine(accountRepository, transactionRepository, shardedBalanceService,
+                transactionLog, entityManagerFactory, transactionManager, TransactionEngine.LEDGER, recoveryDirectory, 2, 16, 16,
+                DataSize.ofMegabytes(1), Duration.ofSeconds(5), 100, Duration.ofMillis(10));
+        restarted.start();
+        LedgerReceipt receipt = restarted.await(restarted.deposit(account, ten));
+        restarted.stop();
+
+        assertEquals(0, new BigDecimal("1020.00").compareTo(receipt.balance()));
+        BigDecimal total = accountRepository.findAll().stream().map(Account::getBalance).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)).add(new BigDecimal("40.00")).compareTo(total));
+        for (String accountNumber : List.of(account, other)) {
+            BigDecimal balance = accountRepository.findByAccountNumber(accountNumber).orElseThrow().getBalance();
+            List<Transaction> history = transactionRepository.findByAccountNumberOrderByTransactionDateDesc(accountNumber);
+            assertTrue(history.stream().allMatch(transaction -> transaction.getTransactionType() == TransactionType.DEPOSIT));
+            BigDecimal deposited = history.stream().map(Transaction::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+            assertEquals(0, INITIAL_BALANCE.add(deposited).compareTo(balance));
+        }
+    }
+
+    private void awaitProjected() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (ledgerEngine.pendingRecords() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, ledgerEngine.pendingRecords());
+    }
+
+    /**
+     * Fails the first append without writing anything and hands everything else to the partition's own journal.
+     */
+    private static final class FailingOnceWriteAheadLog extends JournalWriteAheadLog {
+
+        private final JournalWriteAheadLog journal;
+        private boolean failed;
+
+        FailingOnceWriteAheadLog(Path directory, JournalWriteAheadLog journal) throws IOException {
+            super(directory, DataSize.ofMegabytes(1).toBytes());
+            this.journal = journal;
+        }
+
+        @Override
+        public long append(List<JournalEntry> entries) {
+            if (!failed) {
+                failed = true;
+                throw new UncheckedIOException(new IOException("Injected journal write failure"));
+            }
+            return journal.append(entries);
+        }
+
+        @Override
+        public void complete(Collection<Long> sequences) {
+            journal.complete(sequences);
+        }
+
+        @Override
+        public long checkpoint() throws IOException {
+            return journal.checkpoint();
+        }
+
+        @Override
+        public int pendingCount() {
+            return journal.pendingCount();
+        }
+
+        @Override
+        public long oldestPendingNanos() {
+            return journal.oldestPendingNanos();
+        }
+
+        @Override
+        public long syncCount() {
+            return journal.syncCount();
+        }
+
+        @Override
+        public void close() throws IOException {
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.bankingapplication.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bankingapplication.exceptions.HashingCapacityExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setup() {
+        PasswordEncoder blockingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hashed:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encodedPassword.equals("hashed:" + rawPassword);
+            }
+        };
+        encoder = new BoundedPasswordEncoder(blockingEncoder, 1, 1, 5000);
+        encoder.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        encoder.destroy();
+    }
+
+    @Test
+    @DisplayName("encode_RunsOnHashingPool_AndRecordsLatency")
+    void encodeRunsOnHashingPoolAndRecordsLatency() {
+        release.countDown();
+
+        assertEquals("hashed:secret", encoder.encode("secret"));
+        assertTrue(encoder.matches("secret", "hashed:secret"));
+        assertEquals(1, registry.get("password.hashing.latency").tag("operation", "encode").timer().count());
+        assertEquals(1, registry.get("password.hashing.latency").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    @DisplayName("encode_WhenPoolAndQueueFull_RejectsImmediately")
+    void encodeWhenPoolAndQueueFullRejectsImmediately() throws Exception {
+        Future<String> running = callers.submit(() -> encoder.encode("first"));
+        Future<String> queued = callers.submit(() -> encoder.encode("second"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (encoder.getQueueDepth() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1.0, registry.get("password.hashing.queue.depth").gauge().value());
+
+        long startNanos = System.nanoTime();
+        assertThrows(HashingCapacityExceededException.class, () -> encoder.encode("third"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) < 1000);
+        assertEquals(1.0, registry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hashed:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed:second", queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.bankingapplication.service;
+
+import org.example.bankingapplication.model.NumberSequence;
+import org.example.bankingapplication.repository.NumberSequenceRepository;
+import org.example.bankingapplication.utils.Iban;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberGeneratorTest {
+
+    @Mock
+    private NumberSequenceRepository numberSequenceRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AccountNumberGenerator generator;
+    private NumberSequence sequence;
+
+    @BeforeEach
+    void setup() {
+        generator = new AccountNumberGenerator(numberSequenceRepository, transactionManager, "73000", 100, 42L);
+        sequence = NumberSequence.builder().name(AccountNumberGenerator.SEQUENCE_NAME).nextValue(0).build();
+    }
+
+    @Test
+    @DisplayName("nextAccountNumber_ReturnsValidLithuanianIban")
+    void nextAccountNumberReturnsValidLithuanianIban() {
+        when(numberSequenceRepository.findByNameForUpdate(AccountNumberGenerator.SEQUENCE_NAME)).thenReturn(Optional.of(sequence));
+
+        String accountNumber = generator.nextAccountNumber();
+
+        assertEquals(20, accountNumber.length());
+        assertTrue(accountNumber.startsWith("LT"));
+        assertEquals("73000", accountNumber.substring(4, 9));
+        assertTrue(Iban.isValid(accountNumber), accountNumber);
+    }
+
+    @Test
+    @DisplayName("nextAccountNumber_ReservesOneBlockPerBlockSizeNumbers")
+    void nextAccountNumberReservesOneBlockPerBlockSizeNumbers() {
+        when(numberSequenceRepository.findByNameForUpdate(AccountNumberGenerator.SEQUENCE_NAME)).thenReturn(Optional.of(sequence));
+
+        Set<String> issued = new HashSet<>();
+        for (int i = 0; i < 250; i++) {
+            issued.add(generator.nextAccountNumber());
+        }
+
+        assertEquals(250, issued.size());
+        assertEquals(300, sequence.getNextValue());
+        verify(numberSequenceRepository, times(3)).saveAndFlush(any(NumberSequence.class));
+    }
+
+    @Test
+    @DisplayName("nextAccountNumber_WhenSequenceMissing_StartsAtZero")
+    void nextAccountNumberWhenSequenceMissingStartsAtZero() {
+        when(numberSequenceRepository.findByNameForUpdate(AccountNumberGenerator.SEQUENCE_NAME)).thenReturn(Optional.empty());
+
+        assertEquals(generator.format(generator.permute(0)), generator.nextAccountNumber());
+        verify(numberSequenceRepository).saveAndFlush(argThat(saved -> saved.getNextValue() == 100));
+    }
+
+    @Test
+    @DisplayName("permute_IsCollisionFreeAndStaysInRange")
+    void permuteIsCollisionFreeAndStaysInRange() {
+        Set<Long> seen = new HashSet<>();
+        for (long i = 0; i < 200_000; i++) {
+            long account = generator.permute(i);
+            assertTrue(account >= 0 && account < AccountNumberGenerator.ACCOUNT_SPACE);
+            assertTrue(seen.add(account), "Collision at sequence " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("isValid_KnownIbans")
+    void isValidKnownIbans() {
+        assertTrue(Iban.isValid("LT121000011101001000"));
+        assertTrue(Iban.isValid("GB82WEST12345698765432"));
+        assertFalse(Iban.isValid("LT121000011101001001"));
+        assertFalse(Iban.isValid("LT12100001110100100"));
+    }
+}
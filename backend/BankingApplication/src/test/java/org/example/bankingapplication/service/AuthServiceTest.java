@@ -9,6 +9,7 @@ import org.example.bankingapplication.enums.Roles;
 import org.example.bankingapplication.enums.TokenType;
 import org.example.bankingapplication.exceptions.UserAlreadyExistsException;
 import org.example.bankingapplication.exceptions.UserAlreadyLoggedInException;
+import org.example.bankingapplication.model.Account;
 import org.example.bankingapplication.model.Token;
 import org.example.bankingapplication.model.User;
 import org.example.bankingapplication.repository.UserRepository;
@@ -16,6 +17,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -25,8 +27,9 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -44,7 +47,7 @@ class AuthServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private Argon2PasswordEncoder passwordEncoder;
+    private PasswordEncoder passwordEncoder;
 
     @Mock
     private AuthenticationManager authenticationManager;
@@ -56,7 +59,8 @@ class AuthServiceTest {
     private TokenService tokenService;
 
     @Mock
-    private AccountService accountService;
+    private AccountNumberGenerator accountNumberGenerator;
+
 
     @InjectMocks
     private AuthService authService;
@@ -103,6 +107,27 @@ class AuthServiceTest {
         verify(userRepository).save(any(User.class));
     }
 
+    @Test
+    @DisplayName("register_ShouldPersistUserAndAccount_WithSingleSave")
+    void registerShouldPersistUserAndAccountWithSingleSave() throws UserAlreadyExistsException {
+        when(userRepository.existsUserByEmail(registerRequestDTO.getEmail())).thenReturn(false);
+        when(userRepository.existsUserByUsername(registerRequestDTO.getUsername())).thenReturn(false);
+        when(passwordEncoder.encode(registerRequestDTO.getPassword())).thenReturn("encodedPassword");
+        when(accountNumberGenerator.nextAccountNumber()).thenReturn("LT121000011101001000");
+        ArgumentCaptor<User> savedUser = ArgumentCaptor.forClass(User.class);
+
+        authService.register(registerRequestDTO);
+
+        verify(userRepository, times(1)).save(savedUser.capture());
+        verify(userRepository, never()).existsByAccountNumber(any());
+        Account account = savedUser.getValue().getAccounts().iterator().next();
+        assertEquals(1, savedUser.getValue().getAccounts().size());
+        assertEquals("LT121000011101001000", savedUser.getValue().getAccountNumber());
+        assertEquals(savedUser.getValue().getAccountNumber(), account.getAccountNumber());
+        assertSame(savedUser.getValue(), account.getUser());
+        assertEquals(0, BigDecimal.ZERO.compareTo(account.getBalance()));
+    }
+
     @Test
     @DisplayName("register_WhenEmailExists_ShouldThrowException")
     void registerWhenEmailExistsShouldThrowException() {
@@ -174,21 +199,6 @@ class AuthServiceTest {
         assertTrue(result.isPresent());
     }
 
-    @Test
-    @DisplayName("generateAccountNumber_ShouldGenerateValidAccountNumber")
-    void generateAccountNumberShouldGenerateValidAccountNumber() {
-        String accountNumber1 = AccountService.generateAccountNumber();
-        String accountNumber2 = AccountService.generateAccountNumber();
-
-        assertNotNull(accountNumber1);
-        assertNotNull(accountNumber2);
-
-        assertEquals(20, accountNumber1.length());
-        assertEquals(20, accountNumber2.length());
-
-        assertNotEquals(accountNumber1, accountNumber2, "Account numbers should be unique");
-    }
-
     @Test
     @DisplayName("getCurrentUser_WhenUserNotAuthenticated_ShouldReturnEmpty")
     void getCurrentUserWhenUserNotAuthenticatedShouldReturnEmpty() {
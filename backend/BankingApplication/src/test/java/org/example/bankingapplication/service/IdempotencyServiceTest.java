@@ -0,0 +1,266 @@
+package org.example.bankingapplication.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bankingapplication.cache.AccountNumberCache;
+import org.example.bankingapplication.cache.RecentWrites;
+import org.example.bankingapplication.config.RetryConfig;
+import org.example.bankingapplication.dto.transaction.TransactionRequestDTO;
+import org.example.bankingapplication.dto.transaction.TransactionResponseDTO;
+import org.example.bankingapplication.enums.ConcurrencyControl;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.exceptions.IdempotencyKeyReusedException;
+import org.example.bankingapplication.journal.TransactionJournal;
+import org.example.bankingapplication.journal.TransactionLog;
+import org.example.bankingapplication.ledger.LedgerEngine;
+import org.example.bankingapplication.model.Account;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.IdempotencyRecordRepository;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.example.bankingapplication.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({IdempotencyService.class, TransactionService.class, TransactionJournal.class, ShardedBalanceService.class, LedgerEngine.class, TransactionLog.class, AccountNumberCache.class, RecentWrites.class, RetryConfig.class, SimpleMeterRegistry.class,
+        JacksonAutoConfiguration.class})
+@TestPropertySource(properties = "app.transactions.optimistic-retry.max-attempts=20")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    private static final String ACCOUNT_NUMBER = "LT000000000000000077";
+    private static final String OTHER_ACCOUNT_NUMBER = "LT000000000000000078";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RetryTemplate optimisticRetryTemplate;
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
+    private TransactionRequestDTO deposit;
+
+    @BeforeEach
+    void setup() {
+        idempotencyRecordRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = userRepository.save(User.builder()
+                .username("idempotent")
+                .email("idempotent@gmail.com")
+                .password("password")
+                .role(Roles.ROLE_USER)
+                .accountNumber(ACCOUNT_NUMBER)
+                .build());
+        accountRepository.save(Account.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .ownerName(user.getUsername())
+                .balance(BigDecimal.ZERO)
+                .user(user)
+                .build());
+        deposit = TransactionRequestDTO.builder()
+                .senderAccountNumber(ACCOUNT_NUMBER)
+                .amount(new BigDecimal("10.00"))
+                .build();
+    }
+
+    @Test
+    @DisplayName("execute_SameKeyTwice_ReplaysWithoutMovingMoneyAgain")
+    void executeSameKeyTwiceReplaysWithoutMovingMoneyAgain() {
+        String key = UUID.randomUUID().toString();
+
+        TransactionResponseDTO first = idempotencyService.execute(key, "deposit", deposit, () -> transactionService.deposit(deposit));
+        TransactionResponseDTO replay = idempotencyService.execute(key, "deposit", deposit, () -> fail("Replay must not run the deposit"));
+
+        assertEquals(first.getTransactionId(), replay.getTransactionId());
+        assertEquals(1, transactionRepository.count());
+        assertEquals(0, new BigDecimal("10.00").compareTo(balance()));
+    }
+
+    @Test
+    @DisplayName("execute_SameKeyAfterCacheLoss_ReplaysFromTable")
+    void executeSameKeyAfterCacheLossReplaysFromTable() {
+        String key = UUID.randomUUID().toString();
+        TransactionResponseDTO first = idempotencyService.execute(key, "deposit", deposit, () -> transactionService.deposit(deposit));
+
+        IdempotencyService otherInstance = new IdempotencyService(idempotencyRecordRepository, objectMapper,
+                transactionManager, optimisticRetryTemplate, ledgerEngine, 100, Duration.ofHours(1), Duration.ofSeconds(5));
+        TransactionResponseDTO replay = otherInstance.execute(key, "deposit", deposit, () -> fail("Replay must not run the deposit"));
+
+        assertEquals(first.getTransactionId(), replay.getTransactionId());
+        assertEquals(first.getBalance(), replay.getBalance());
+    }
+
+    @Test
+    @DisplayName("execute_SameKeyDifferentRequest_Throws")
+    void executeSameKeyDifferentRequestThrows() {
+        String key = UUID.randomUUID().toString();
+        idempotencyService.execute(key, "deposit", deposit, () -> transactionService.deposit(deposit));
+
+        TransactionRequestDTO withdraw = TransactionRequestDTO.builder()
+                .senderAccountNumber(ACCOUNT_NUMBER)
+                .amount(new BigDecimal("10.00"))
+                .build();
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyService.execute(key, "withdraw", withdraw, () -> transactionService.withdraw(withdraw)));
+        assertEquals(0, new BigDecimal("10.00").compareTo(balance()));
+    }
+
+    @Test
+    @DisplayName("execute_ConcurrentRetriesWithSameKey_MoveMoneyOnce")
+    void executeConcurrentRetriesWithSameKeyMoveMoneyOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<TransactionResponseDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return idempotencyService.execute(key, "deposit", deposit, () -> transactionService.deposit(deposit));
+            }));
+        }
+        start.countDown();
+        UUID transactionId = futures.get(0).get(1, TimeUnit.MINUTES).getTransactionId();
+        for (Future<TransactionResponseDTO> future : futures) {
+            assertEquals(transactionId, future.get(1, TimeUnit.MINUTES).getTransactionId());
+        }
+        executor.shutdown();
+
+        assertEquals(1, transactionRepository.count());
+        assertEquals(1, idempotencyRecordRepository.count());
+        assertEquals(0, new BigDecimal("10.00").compareTo(balance()));
+    }
+
+    @Test
+    @DisplayName("execute_ConcurrentKeyedTransfersWithOptimisticLocking_RetryConflicts")
+    void executeConcurrentKeyedTransfersWithOptimisticLockingRetryConflicts() throws Exception {
+        TransactionService target = AopTestUtils.getUltimateTargetObject(transactionService);
+        ReflectionTestUtils.setField(target, "concurrencyControl", ConcurrencyControl.OPTIMISTIC);
+        User other = userRepository.save(User.builder()
+                .username("idempotent-other")
+                .email("idempotent-other@gmail.com")
+                .password("password")
+                .role(Roles.ROLE_USER)
+                .accountNumber(OTHER_ACCOUNT_NUMBER)
+                .build());
+        accountRepository.save(Account.builder()
+                .accountNumber(OTHER_ACCOUNT_NUMBER)
+                .ownerName(other.getUsername())
+                .balance(new BigDecimal("100.00"))
+                .user(other)
+                .build());
+        transactionService.deposit(TransactionRequestDTO.builder()
+                .senderAccountNumber(ACCOUNT_NUMBER)
+                .amount(new BigDecimal("100.00"))
+                .build());
+
+        int threads = 4;
+        int transfersPerThread = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < transfersPerThread; i++) {
+                        boolean forward = (thread + i) % 2 == 0;
+                        TransactionRequestDTO transfer = TransactionRequestDTO.builder()
+                                .senderAccountNumber(forward ? ACCOUNT_NUMBER : OTHER_ACCOUNT_NUMBER)
+                                .recipientAccountNumber(forward ? OTHER_ACCOUNT_NUMBER : ACCOUNT_NUMBER)
+                                .amount(BigDecimal.ONE)
+                                .build();
+                        idempotencyService.execute(UUID.randomUUID().toString(), "transfer", transfer,
+                                () -> transactionService.transfer(transfer));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            // A version conflict that escaped the retry would surface here.
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdown();
+            ReflectionTestUtils.setField(target, "concurrencyControl", ConcurrencyControl.PESSIMISTIC);
+        }
+
+        assertEquals(threads * transfersPerThread, idempotencyRecordRepository.count());
+        assertEquals(1 + threads * transfersPerThread * 2L, transactionRepository.count());
+        BigDecimal total = balance().add(accountRepository.findByAccountNumber(OTHER_ACCOUNT_NUMBER).orElseThrow().getBalance());
+        assertEquals(0, new BigDecimal("200.00").compareTo(total));
+    }
+
+    @Test
+    @DisplayName("execute_FirstSeenKeys_CompleteOneRecordEach")
+    void executeFirstSeenKeysCompleteOneRecordEach() {
+        int operations = 50;
+        for (int i = 0; i < operations; i++) {
+            idempotencyService.execute(UUID.randomUUID().toString(), "deposit", deposit, () -> transactionService.deposit(deposit));
+        }
+
+        assertEquals(operations, idempotencyRecordRepository.count());
+        assertTrue(idempotencyRecordRepository.findAll().stream()
+                .noneMatch(record -> record.isPending() || record.getResponse().isEmpty()));
+        assertEquals(operations, transactionRepository.count());
+        assertEquals(0, deposit.getAmount().multiply(BigDecimal.valueOf(operations)).compareTo(balance()));
+    }
+
+    private BigDecimal balance() {
+        return accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow().getBalance();
+    }
+}
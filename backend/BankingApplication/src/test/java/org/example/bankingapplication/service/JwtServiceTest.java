@@ -115,4 +115,31 @@ class JwtServiceTest {
         Key key = jwtService.getSignInKey();
         assertNotNull(key);
     }
+
+    @Test
+    @DisplayName("getSignInKey_ShouldReturn_CachedInstance")
+    void getSignInKeyShouldReturnCachedInstance() {
+        assertSame(jwtService.getSignInKey(), jwtService.getSignInKey());
+    }
+
+    @Test
+    @DisplayName("validateToken_FromParsedClaims_Successfully")
+    void validateTokenFromParsedClaimsSuccessfully() {
+        Claims claims = jwtService.extractAllClaims(token);
+
+        assertTrue(jwtService.isTokenValid(claims, userDetails));
+        assertFalse(jwtService.isTokenExpired(claims));
+    }
+
+    @Test
+    @DisplayName("validateToken_FromParsedClaims_WrongUser_Fail")
+    void validateTokenFromParsedClaimsWrongUserFail() {
+        Claims claims = jwtService.extractAllClaims(token);
+        UserDetails otherUser = new CustomUserDetails(User.builder()
+                .username("other-user")
+                .role(Roles.ROLE_USER)
+                .build());
+
+        assertFalse(jwtService.isTokenValid(claims, otherUser));
+    }
 }
\ No newline at end of file
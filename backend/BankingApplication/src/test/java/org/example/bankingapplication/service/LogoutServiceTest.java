@@ -2,6 +2,8 @@ package org.example.bankingapplication.service;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.example.bankingapplication.cache.TokenDenylist;
+import org.example.bankingapplication.cache.TokenStateCache;
 import org.example.bankingapplication.model.Token;
 import org.example.bankingapplication.repository.TokenRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,10 +19,13 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.test.context.support.WithMockUser;
 
 import java.io.PrintWriter;
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 
@@ -30,6 +35,12 @@ class LogoutServiceTest {
     @Mock
     private TokenRepository tokenRepository;
 
+    @Mock
+    private TokenStateCache tokenStateCache;
+
+    @Mock
+    private TokenDenylist tokenDenylist;
+
     @Mock
     private HttpServletRequest httpServletRequest;
 
@@ -55,6 +66,8 @@ class LogoutServiceTest {
     void setup() throws Exception {
         token = Token.builder()
                 .token(tokenValue)
+                .jti(UUID.randomUUID())
+                .expiresAt(LocalDateTime.now().plusHours(1))
                 .isExpired(false)
                 .isRevoked(false)
                 .build();
@@ -74,6 +87,8 @@ class LogoutServiceTest {
         logoutService.logout(httpServletRequest, httpServletResponse, authentication);
 
         verify(tokenRepository).delete(token);
+        verify(tokenStateCache).invalidateAfterCommit(tokenValue);
+        verify(tokenDenylist).revoke(token.getJti(), token.getExpiresAt());
         verify(httpServletResponse).setStatus(HttpServletResponse.SC_OK);
         verify(printWriter).write("Logout successful");
 
@@ -94,5 +109,6 @@ class LogoutServiceTest {
         verify(tokenRepository).findByToken(invalidToken);
         verify(httpServletResponse).setStatus(HttpServletResponse.SC_BAD_REQUEST);
         verify(printWriter).write("Invalid JWT token");
+        verifyNoInteractions(tokenStateCache);
     }
 }
\ No newline at end of file
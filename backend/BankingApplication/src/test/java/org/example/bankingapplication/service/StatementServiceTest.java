@@ -0,0 +1,135 @@
+package org.example.bankingapplication.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bankingapplication.cache.AccountNumberCache;
+import org.example.bankingapplication.dto.transaction.StatementResponseDTO;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.enums.TransactionType;
+import org.example.bankingapplication.journal.TransactionJournal;
+import org.example.bankingapplication.journal.TransactionLog;
+import org.example.bankingapplication.ledger.LedgerEngine;
+import org.example.bankingapplication.model.BalanceSnapshot;
+import org.example.bankingapplication.model.Transaction;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.repository.BalanceSnapshotRepository;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.example.bankingapplication.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StatementService.class, AccountNumberCache.class, TransactionJournal.class, LedgerEngine.class, TransactionLog.class, ShardedBalanceService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StatementServiceTest {
+
+    private static final String ACCOUNT_NUMBER = "LT000000000000000077";
+    private static final String IDLE_ACCOUNT_NUMBER = "LT000000000000000078";
+    private static final LocalDateTime DAY_1 = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final LocalDateTime DAY_2 = DAY_1.plusDays(1);
+    private static final LocalDateTime DAY_3 = DAY_1.plusDays(2);
+    private static final LocalDateTime DAY_4 = DAY_1.plusDays(3);
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setup() {
+        balanceSnapshotRepository.deleteAll();
+        transactionRepository.deleteAll();
+        userRepository.deleteAll();
+        userId = userRepository.save(User.builder()
+                .username("statement")
+                .email("statement@gmail.com")
+                .password("password")
+                .role(Roles.ROLE_USER)
+                .accountNumber(ACCOUNT_NUMBER)
+                .build()).getId();
+
+        save(ACCOUNT_NUMBER, TransactionType.DEPOSIT, "100.00", DAY_1.plusHours(9));
+        save(ACCOUNT_NUMBER, TransactionType.WITHDRAW, "30.00", DAY_1.plusHours(18));
+        save(IDLE_ACCOUNT_NUMBER, TransactionType.DEPOSIT, "40.00", DAY_1.plusHours(10));
+        save(ACCOUNT_NUMBER, TransactionType.TRANSFER_OUT, "20.00", DAY_2.plusHours(8));
+        save(ACCOUNT_NUMBER, TransactionType.TRANSFER_IN, "50.00", DAY_2.plusHours(16));
+        save(ACCOUNT_NUMBER, TransactionType.DEPOSIT, "5.00", DAY_3.plusHours(11));
+    }
+
+    @Test
+    @DisplayName("takeSnapshots_OnlyMovedAccounts_CarryPreviousBalanceForward")
+    void takeSnapshotsOnlyMovedAccountsCarryPreviousBalanceForward() {
+        assertEquals(2, statementService.takeSnapshots(DAY_2));
+        assertEquals(1, statementService.takeSnapshots(DAY_3));
+        assertEquals(1, statementService.takeSnapshots(DAY_4));
+        assertEquals(0, statementService.takeSnapshots(DAY_4));
+
+        assertEquals(0, new BigDecimal("70.00").compareTo(snapshot(ACCOUNT_NUMBER, DAY_2).getBalance()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(snapshot(ACCOUNT_NUMBER, DAY_3).getBalance()));
+        assertEquals(0, new BigDecimal("105.00").compareTo(snapshot(ACCOUNT_NUMBER, DAY_4).getBalance()));
+        assertEquals(DAY_2, snapshot(IDLE_ACCOUNT_NUMBER, DAY_4).getAsOf());
+    }
+
+    @Test
+    @DisplayName("getStatement_FromSnapshotPlusScan_MatchesFullHistory")
+    void getStatementFromSnapshotPlusScanMatchesFullHistory() {
+        StatementResponseDTO withoutSnapshots = statementService.getStatement(userId, DAY_2.plusHours(12), DAY_3.plusHours(12));
+        statementService.takeSnapshots(DAY_2);
+        statementService.takeSnapshots(DAY_3);
+        StatementResponseDTO statement = statementService.getStatement(userId, DAY_2.plusHours(12), DAY_3.plusHours(12));
+
+        assertEquals(0, new BigDecimal("50.00").compareTo(statement.getOpeningBalance()));
+        assertEquals(0, new BigDecimal("105.00").compareTo(statement.getClosingBalance()));
+        assertEquals(0, new BigDecimal("55.00").compareTo(statement.getTotalCredits()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(statement.getTotalDebits()));
+        assertEquals(2, statement.getTransactionCount());
+        assertEquals(0, withoutSnapshots.getOpeningBalance().compareTo(statement.getOpeningBalance()));
+        assertEquals(0, withoutSnapshots.getClosingBalance().compareTo(statement.getClosingBalance()));
+    }
+
+    @Test
+    @DisplayName("getStatement_WhenRangeEmpty_ThrowsIllegalArgument")
+    void getStatementWhenRangeEmptyThrowsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> statementService.getStatement(userId, DAY_2, DAY_2));
+        assertThrows(IllegalArgumentException.class, () -> statementService.getStatement(userId, null, DAY_2));
+    }
+
+    private BalanceSnapshot snapshot(String accountNumber, LocalDateTime asOf) {
+        return balanceSnapshotRepository.findFirstByAccountNumberAndAsOfLessThanEqualOrderByAsOfDesc(accountNumber, asOf)
+                .orElseThrow();
+    }
+
+    private void save(String accountNumber, TransactionType type, String amount, LocalDateTime date) {
+        transactionRepository.saveAll(List.of(Transaction.builder()
+                .transactionType(type)
+                .amount(new BigDecimal(amount))
+                .accountNumber(accountNumber)
+                .transactionDate(date)
+                .build()));
+    }
+}
@@ -1,11 +1,15 @@
 package org.example.bankingapplication.service;
 
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.example.bankingapplication.cache.TokenDenylist;
+import org.example.bankingapplication.cache.TokenStateCache;
 import org.example.bankingapplication.enums.TokenType;
 import org.example.bankingapplication.model.Token;
 import org.example.bankingapplication.model.User;
 import org.example.bankingapplication.repository.TokenRepository;
+import org.example.bankingapplication.utils.TokenDigest;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,7 +18,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,6 +35,15 @@ class TokenServiceTest {
     @Mock
     private TokenRepository tokenRepository;
 
+    @Mock
+    private TokenStateCache tokenStateCache;
+
+    @Mock
+    private TokenDenylist tokenDenylist;
+
+    @Mock
+    private JwtService jwtService;
+
     @InjectMocks
     private TokenService tokenService;
 
@@ -47,6 +63,10 @@ class TokenServiceTest {
                 .id(UUID.randomUUID())
                 .build();
 
+        UUID jti = UUID.randomUUID();
+        Date expiration = new Date((System.currentTimeMillis() / 1000 + 3600) * 1000);
+        when(jwtService.extractAllClaims(jwtToken)).thenReturn(Jwts.claims().setId(jti.toString()).setExpiration(expiration));
+
         tokenService.saveUserToken(user, jwtToken);
 
         ArgumentCaptor<Token> tokenCaptor = ArgumentCaptor.forClass(Token.class);
@@ -55,10 +75,13 @@ class TokenServiceTest {
         Token capturedToken = tokenCaptor.getValue();
         assertNotNull(capturedToken);
         assertEquals(user, capturedToken.getUser());
-        assertEquals(jwtToken, capturedToken.getToken());
+        assertNull(capturedToken.getToken());
+        assertArrayEquals(TokenDigest.sha256(jwtToken), capturedToken.getTokenHash());
         assertEquals(TokenType.BEARER, capturedToken.getTokenType());
         assertFalse(capturedToken.isExpired());
         assertFalse(capturedToken.isRevoked());
+        assertEquals(jti, capturedToken.getJti());
+        assertEquals(expiration.toInstant(), capturedToken.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant());
     }
 
     @Test
@@ -95,7 +118,8 @@ class TokenServiceTest {
                 .build();
 
         Token token1 = Token.builder()
-                .user(user).token("token1")
+                .user(user)
+                .tokenHash(TokenDigest.sha256("token1"))
                 .tokenType(TokenType.BEARER)
                 .isExpired(false)
                 .isRevoked(false)
@@ -103,7 +127,7 @@ class TokenServiceTest {
 
         Token token2 = Token.builder()
                 .user(user)
-                .token("token2")
+                .tokenHash(TokenDigest.sha256("token2"))
                 .tokenType(TokenType.BEARER)
                 .isExpired(false)
                 .isRevoked(false)
@@ -121,6 +145,8 @@ class TokenServiceTest {
         assertTrue(token2.isRevoked());
 
         verify(tokenRepository, times(1)).saveAll(userTokens);
+        verify(tokenStateCache).invalidateHashAfterCommit(token1.getTokenHash());
+        verify(tokenStateCache).invalidateHashAfterCommit(token2.getTokenHash());
     }
 
     @Test
@@ -136,4 +162,30 @@ class TokenServiceTest {
 
         verify(tokenRepository, never()).saveAll(any());
     }
+
+    @Test
+    @DisplayName("deleteAllUserTokens_Successful_InvalidatesCacheAndDenylistsJti")
+    void deleteAllUserTokensSuccessfulInvalidatesCacheAndDenylistsJti() {
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .build();
+
+        Token token = Token.builder()
+                .user(user)
+                .tokenHash(TokenDigest.sha256("token1"))
+                .tokenType(TokenType.BEARER)
+                .jti(UUID.randomUUID())
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+
+        List<Token> userTokens = List.of(token);
+
+        when(tokenRepository.findAllByUserId(user.getId())).thenReturn(userTokens);
+
+        tokenService.deleteAllUserTokens(user);
+
+        verify(tokenRepository).deleteAll(userTokens);
+        verify(tokenStateCache).invalidateHashAfterCommit(token.getTokenHash());
+        verify(tokenDenylist).revoke(token.getJti(), token.getExpiresAt());
+    }
 }
\ No newline at end of file
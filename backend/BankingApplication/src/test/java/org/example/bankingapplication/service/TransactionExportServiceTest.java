@@ -0,0 +1,159 @@
+package org.example.bankingapplication.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bankingapplication.cache.AccountNumberCache;
+import org.example.bankingapplication.enums.ExportFormat;
+import org.example.bankingapplication.enums.TransactionType;
+import org.example.bankingapplication.model.Transaction;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransactionExportService.class, AccountNumberCache.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:file:./target/h2/export;MODE=MySQL;LAZY_QUERY_EXECUTION=TRUE")
+@Slf4j
+class TransactionExportServiceTest {
+
+    private static final String ACCOUNT_NUMBER = "LT000000000000000042";
+    private static final int LARGE_EXPORT_ROWS = 1_000_000;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.update("DELETE FROM transactions");
+    }
+
+    @Test
+    @DisplayName("export_Ndjson_WritesOneObjectPerLine_NewestFirst")
+    void exportNdjsonWritesOneObjectPerLineNewestFirst() throws Exception {
+        transactionRepository.save(Transaction.builder()
+                .transactionType(TransactionType.DEPOSIT)
+                .amount(new BigDecimal("10.00"))
+                .accountNumber(ACCOUNT_NUMBER)
+                .build());
+        transactionRepository.save(Transaction.builder()
+                .transactionType(TransactionType.TRANSFER_OUT)
+                .amount(new BigDecimal("2.50"))
+                .accountNumber(ACCOUNT_NUMBER)
+                .receiverAccountNumber("LT000000000000000043")
+                .build());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = transactionExportService.export(ACCOUNT_NUMBER, ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        JsonNode newest = objectMapper.readTree(lines[0]);
+        assertEquals("TRANSFER_OUT", newest.get("transactionType").asText());
+        assertEquals("LT000000000000000043", newest.get("recipientAccountNumber").asText());
+        assertEquals(0, new BigDecimal("2.50").compareTo(newest.get("amount").decimalValue()));
+    }
+
+    @Test
+    @DisplayName("export_Csv_WritesHeaderAndRows")
+    void exportCsvWritesHeaderAndRows() throws Exception {
+        transactionRepository.save(Transaction.builder()
+                .transactionType(TransactionType.WITHDRAW)
+                .amount(new BigDecimal("7.00"))
+                .accountNumber(ACCOUNT_NUMBER)
+                .balanceAfter(new BigDecimal("93.00"))
+                .build());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transactionExportService.export(ACCOUNT_NUMBER, ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("transactionId,transactionType"));
+        assertTrue(lines[1].contains(",WITHDRAW,"));
+        assertTrue(lines[1].endsWith(",7.00," + ACCOUNT_NUMBER + ",,93.00"));
+    }
+
+    /**
+     * Runs only with {@code mvn -Plarge-tests test}, in a surefire execution with a small heap; materializing the
+     * history as entities or DTOs would not fit. This covers the service's streaming on H2 with lazy query
+     * execution only: whether MySQL Connector/J streams the result set with {@code useCursorFetch} is not tested.
+     */
+    @Test
+    @Tag("large")
+    @DisplayName("export_MillionRows_StreamsWithinSmallHeap")
+    void exportMillionRowsStreamsWithinSmallHeap() throws Exception {
+        jdbcTemplate.update("""
+                INSERT INTO transactions (id, transaction_type, transaction_date, amount, account_number, receiver_account_number)
+                SELECT RANDOM_UUID(), 'DEPOSIT', DATEADD('SECOND', -X, TIMESTAMP '2025-01-01 00:00:00'), 10.00, ?, NULL
+                FROM SYSTEM_RANGE(1, ?)
+                """, ACCOUNT_NUMBER, LARGE_EXPORT_ROWS);
+
+        CountingOutputStream out = new CountingOutputStream();
+        long startNanos = System.nanoTime();
+        long rows = transactionExportService.export(ACCOUNT_NUMBER, ExportFormat.NDJSON, out);
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        assertEquals(LARGE_EXPORT_ROWS, rows);
+        assertEquals(LARGE_EXPORT_ROWS, out.lines);
+        log.info("Exported {} rows ({} MB) in {} ms with -Xmx{}m", rows, out.bytes >> 20,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Runtime.getRuntime().maxMemory() >> 20);
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
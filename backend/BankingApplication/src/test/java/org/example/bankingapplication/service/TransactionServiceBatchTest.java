@@ -0,0 +1,136 @@
+package org.example.bankingapplication.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bankingapplication.cache.AccountNumberCache;
+import org.example.bankingapplication.cache.RecentWrites;
+import org.example.bankingapplication.config.RetryConfig;
+import org.example.bankingapplication.dto.transaction.BatchTransferRequestDTO;
+import org.example.bankingapplication.dto.transaction.BatchTransferResponseDTO;
+import org.example.bankingapplication.dto.transaction.TransactionRequestDTO;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.journal.TransactionJournal;
+import org.example.bankingapplication.journal.TransactionLog;
+import org.example.bankingapplication.ledger.LedgerEngine;
+import org.example.bankingapplication.model.Account;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.repository.AccountBalanceShardRepository;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.example.bankingapplication.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransactionService.class, TransactionJournal.class, ShardedBalanceService.class, LedgerEngine.class, TransactionLog.class, AccountNumberCache.class, RecentWrites.class, RetryConfig.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionServiceBatchTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardedBalanceService shardedBalanceService;
+
+    @Autowired
+    private AccountBalanceShardRepository accountBalanceShardRepository;
+
+    private final List<String> accountNumbers = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        transactionRepository.deleteAll();
+        accountBalanceShardRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        accountNumbers.clear();
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String accountNumber = "LT0000000000000000" + (10 + i);
+            User user = userRepository.save(User.builder()
+                    .username("user" + i)
+                    .email("user" + i + "@gmail.com")
+                    .password("password")
+                    .role(Roles.ROLE_USER)
+                    .accountNumber(accountNumber)
+                    .build());
+            accountRepository.save(Account.builder()
+                    .accountNumber(accountNumber)
+                    .ownerName(user.getUsername())
+                    .balance(INITIAL_BALANCE)
+                    .user(user)
+                    .build());
+            accountNumbers.add(accountNumber);
+        }
+        shardedBalanceService.refresh();
+    }
+
+    @Test
+    @DisplayName("transferBatch_ShouldApplyValidItems_AndReportFailures")
+    void transferBatchShouldApplyValidItemsAndReportFailures() {
+        String payer = accountNumbers.get(0);
+        int payouts = 200;
+        List<TransactionRequestDTO> transfers = new ArrayList<>();
+        for (int i = 0; i < payouts; i++) {
+            transfers.add(TransactionRequestDTO.builder()
+                    .senderAccountNumber(payer)
+                    .recipientAccountNumber(accountNumbers.get(1 + i % (ACCOUNTS - 1)))
+                    .amount(new BigDecimal("1.00"))
+                    .build());
+        }
+        transfers.add(TransactionRequestDTO.builder()
+                .senderAccountNumber(payer)
+                .recipientAccountNumber("LT000000000000000000")
+                .amount(new BigDecimal("1.00"))
+                .build());
+        transfers.add(TransactionRequestDTO.builder()
+                .senderAccountNumber(payer)
+                .recipientAccountNumber(accountNumbers.get(1))
+                .amount(new BigDecimal("100000.00"))
+                .build());
+
+        BatchTransferResponseDTO response = transactionService.transferBatch(
+                BatchTransferRequestDTO.builder().transfers(transfers).build());
+
+        assertEquals(payouts, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertEquals("Receiver account not found", response.getResults().get(payouts).getMessage());
+        assertEquals("Insufficient funds", response.getResults().get(payouts + 1).getMessage());
+        assertNotNull(response.getResults().get(0).getTransactionId());
+
+        Account payerAccount = accountRepository.findByAccountNumber(payer).orElseThrow();
+        assertEquals(0, INITIAL_BALANCE.subtract(BigDecimal.valueOf(payouts)).compareTo(payerAccount.getBalance()));
+        BigDecimal total = accountRepository.findAll().stream()
+                .map(Account::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)).compareTo(total));
+        assertEquals(payouts * 2L, transactionRepository.count());
+    }
+}
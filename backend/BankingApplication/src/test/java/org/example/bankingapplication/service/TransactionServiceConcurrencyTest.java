@@ -0,0 +1,332 @@
+package org.example.bankingapplication.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bankingapplication.cache.AccountNumberCache;
+import org.example.bankingapplication.cache.RecentWrites;
+import org.example.bankingapplication.config.RetryConfig;
+import org.example.bankingapplication.dto.transaction.TransactionRequestDTO;
+import org.example.bankingapplication.enums.ConcurrencyControl;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.enums.TransactionType;
+import org.example.bankingapplication.journal.TransactionJournal;
+import org.example.bankingapplication.journal.TransactionLog;
+import org.example.bankingapplication.ledger.LedgerEngine;
+import org.example.bankingapplication.model.Account;
+import org.example.bankingapplication.model.Transaction;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.repository.AccountBalanceShardRepository;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.example.bankingapplication.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransactionService.class, TransactionJournal.class, ShardedBalanceService.class, LedgerEngine.class, TransactionLog.class, AccountNumberCache.class, RecentWrites.class, RetryConfig.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Slf4j
+class TransactionServiceConcurrencyTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 50;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardedBalanceService shardedBalanceService;
+
+    @Autowired
+    private AccountBalanceShardRepository accountBalanceShardRepository;
+
+    private final List<String> accountNumbers = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        transactionRepository.deleteAll();
+        accountBalanceShardRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        accountNumbers.clear();
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String accountNumber = "LT0000000000000000" + (10 + i);
+            User user = userRepository.save(User.builder()
+                    .username("user" + i)
+                    .email("user" + i + "@gmail.com")
+                    .password("password")
+                    .role(Roles.ROLE_USER)
+                    .accountNumber(accountNumber)
+                    .build());
+            accountRepository.save(Account.builder()
+                    .accountNumber(accountNumber)
+                    .ownerName(user.getUsername())
+                    .balance(INITIAL_BALANCE)
+                    .user(user)
+                    .build());
+            accountNumbers.add(accountNumber);
+        }
+        shardedBalanceService.refresh();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ConcurrencyControl.class)
+    @DisplayName("concurrentTransfers_ShouldConserve_TotalBalance")
+    void concurrentTransfersShouldConserveTotalBalance(ConcurrencyControl concurrencyControl) throws Exception {
+        TransactionService target = AopTestUtils.getUltimateTargetObject(transactionService);
+        ReflectionTestUtils.setField(target, "concurrencyControl", concurrencyControl);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    TransactionRequestDTO request = TransactionRequestDTO.builder()
+                            .senderAccountNumber(accountNumbers.get(from))
+                            .recipientAccountNumber(accountNumbers.get(to))
+                            .amount(BigDecimal.valueOf(random.nextInt(1, 50)))
+                            .transactionType(TransactionType.TRANSFER_OUT)
+                            .build();
+                    try {
+                        transactionService.transfer(request);
+                        succeeded.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    } catch (OptimisticLockingFailureException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        log.info("{}: {} transfers ok, {} rejected, {} conflicts, {} transfers/s", concurrencyControl,
+                succeeded.get(), rejected.get(), conflicts.get(), Math.round(succeeded.get() / (elapsedNanos / 1_000_000_000.0)));
+
+        BigDecimal total = accountRepository.findAll().stream()
+                .map(Account::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)).compareTo(total));
+
+        for (String accountNumber : accountNumbers) {
+            BigDecimal expected = INITIAL_BALANCE;
+            for (Transaction transaction : transactionRepository.findByAccountNumberOrderByTransactionDateDesc(accountNumber)) {
+                expected = transaction.getTransactionType() == TransactionType.TRANSFER_IN
+                        ? expected.add(transaction.getAmount())
+                        : expected.subtract(transaction.getAmount());
+            }
+            Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow();
+            assertEquals(0, expected.compareTo(account.getBalance()), "Lost update on " + accountNumber);
+        }
+        assertTrue(succeeded.get() > 0);
+    }
+
+    @Test
+    @DisplayName("concurrentWithdrawals_ShouldNever_Overdraw")
+    void concurrentWithdrawalsShouldNeverOverdraw() throws Exception {
+        String accountNumber = accountNumbers.get(0);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 20; i++) {
+                    TransactionRequestDTO request = TransactionRequestDTO.builder()
+                            .senderAccountNumber(accountNumber)
+                            .amount(new BigDecimal("10.00"))
+                            .build();
+                    try {
+                        transactionService.withdraw(request);
+                        succeeded.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(100, succeeded.get());
+        assertEquals(THREADS * 20 - 100, rejected.get());
+        Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow();
+        assertEquals(0, BigDecimal.ZERO.compareTo(account.getBalance()));
+    }
+
+    @Test
+    @DisplayName("shardedAccount_ConcurrentCreditsAndDebits_ConserveBalance")
+    void shardedAccountConcurrentCreditsAndDebitsConserveBalance() throws Exception {
+        TransactionService target = AopTestUtils.getUltimateTargetObject(transactionService);
+        ReflectionTestUtils.setField(target, "concurrencyControl", ConcurrencyControl.PESSIMISTIC);
+        String hot = accountNumbers.get(0);
+        shardedBalanceService.enable(hot, 4);
+        BigDecimal withdrawal = new BigDecimal("30.00");
+        AtomicInteger withdrawn = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<BigDecimal>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                BigDecimal deposited = BigDecimal.ZERO;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 20));
+                    TransactionRequestDTO.TransactionRequestDTOBuilder request = TransactionRequestDTO.builder();
+                    try {
+                        if (i % 5 == 0) {
+                            transactionService.withdraw(request.senderAccountNumber(hot).amount(withdrawal).build());
+                            withdrawn.incrementAndGet();
+                        } else if (i % 5 == 1) {
+                            transactionService.deposit(request.senderAccountNumber(hot).amount(amount).build());
+                            deposited = deposited.add(amount);
+                        } else {
+                            transactionService.transfer(request
+                                    .senderAccountNumber(accountNumbers.get(random.nextInt(1, ACCOUNTS)))
+                                    .recipientAccountNumber(hot)
+                                    .amount(amount)
+                                    .build());
+                        }
+                    } catch (IllegalArgumentException e) {
+                        // Insufficient funds
+                    }
+                }
+                return deposited;
+            }));
+        }
+        BigDecimal deposited = BigDecimal.ZERO;
+        for (Future<BigDecimal> future : futures) {
+            deposited = deposited.add(future.get(2, TimeUnit.MINUTES));
+        }
+        executor.shutdown();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (String accountNumber : accountNumbers) {
+            BigDecimal balance = accountRepository.findBalanceViewByAccountNumber(accountNumber).orElseThrow().balance();
+            BigDecimal expected = INITIAL_BALANCE;
+            for (Transaction transaction : transactionRepository.findByAccountNumberOrderByTransactionDateDesc(accountNumber)) {
+                expected = transaction.getTransactionType().isDebit()
+                        ? expected.subtract(transaction.getAmount())
+                        : expected.add(transaction.getAmount());
+            }
+            assertEquals(0, expected.compareTo(balance), "History does not add up on " + accountNumber);
+            total = total.add(balance);
+        }
+        BigDecimal expectedTotal = INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS))
+                .add(deposited)
+                .subtract(withdrawal.multiply(BigDecimal.valueOf(withdrawn.get())));
+        assertEquals(0, expectedTotal.compareTo(total));
+        assertTrue(accountBalanceShardRepository.sumBalanceByAccountNumber(hot).signum() >= 0);
+        assertTrue(accountRepository.findByAccountNumber(hot).orElseThrow().getBalance().signum() >= 0);
+        UUID hotUserId = userRepository.findUserByUsername("user0").orElseThrow().getId();
+        assertEquals(0, accountRepository.findBalanceViewByAccountNumber(hot).orElseThrow().balance()
+                .compareTo(accountRepository.findSummaryByUserId(hotUserId).orElseThrow().getBalance()));
+    }
+
+    @Test
+    @DisplayName("shardedAccount_ConcurrentCredits_RecordRunningBalancesOnlyUnderTheRowLock")
+    void shardedAccountConcurrentCreditsRecordRunningBalancesOnlyUnderTheRowLock() throws Exception {
+        TransactionService target = AopTestUtils.getUltimateTargetObject(transactionService);
+        ReflectionTestUtils.setField(target, "concurrencyControl", ConcurrencyControl.PESSIMISTIC);
+        String hot = accountNumbers.get(0);
+        shardedBalanceService.enable(hot, 4);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            String sender = accountNumbers.get(1 + t % (ACCOUNTS - 1));
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 10));
+                    TransactionRequestDTO.TransactionRequestDTOBuilder request = TransactionRequestDTO.builder();
+                    if (i % 2 == 0) {
+                        transactionService.deposit(request.senderAccountNumber(hot).amount(amount).build());
+                    } else {
+                        transactionService.transfer(request
+                                .senderAccountNumber(sender)
+                                .recipientAccountNumber(hot)
+                                .amount(amount)
+                                .build());
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        List<Transaction> credits = transactionRepository.findByAccountNumberOrderByTransactionDateDesc(hot);
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, credits.size());
+        assertTrue(credits.stream().allMatch(transaction -> transaction.getBalanceAfter() == null));
+
+        // The senders' debits hold their row locks, so each one's running balance follows from the one before.
+        for (String sender : accountNumbers.subList(1, ACCOUNTS)) {
+            List<Transaction> debits = new ArrayList<>(transactionRepository.findByAccountNumberOrderByTransactionDateDesc(sender));
+            debits.sort(Comparator.comparing(Transaction::getBalanceAfter).reversed());
+            BigDecimal running = INITIAL_BALANCE;
+            for (Transaction debit : debits) {
+                running = running.subtract(debit.getAmount());
+                assertEquals(0, running.compareTo(debit.getBalanceAfter()), "Running balance skipped on " + sender);
+            }
+            assertEquals(0, running.compareTo(accountRepository.findByAccountNumber(sender).orElseThrow().getBalance()));
+        }
+    }
+}
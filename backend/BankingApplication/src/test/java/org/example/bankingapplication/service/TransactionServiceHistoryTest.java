@@ -0,0 +1,134 @@
+package org.example.bankingapplication.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bankingapplication.cache.AccountNumberCache;
+import org.example.bankingapplication.cache.RecentWrites;
+import org.example.bankingapplication.config.RetryConfig;
+import org.example.bankingapplication.dto.transaction.BatchTransferRequestDTO;
+import org.example.bankingapplication.dto.transaction.TransactionPageResponseDTO;
+import org.example.bankingapplication.dto.transaction.TransactionRequestDTO;
+import org.example.bankingapplication.dto.transaction.TransactionResponseDTO;
+import org.example.bankingapplication.enums.Roles;
+import org.example.bankingapplication.journal.TransactionJournal;
+import org.example.bankingapplication.journal.TransactionLog;
+import org.example.bankingapplication.ledger.LedgerEngine;
+import org.example.bankingapplication.model.Account;
+import org.example.bankingapplication.model.User;
+import org.example.bankingapplication.repository.AccountBalanceShardRepository;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.example.bankingapplication.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransactionService.class, TransactionJournal.class, ShardedBalanceService.class, LedgerEngine.class, TransactionLog.class, AccountNumberCache.class, RecentWrites.class, RetryConfig.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionServiceHistoryTest {
+
+    private static final int ACCOUNTS = 2;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardedBalanceService shardedBalanceService;
+
+    @Autowired
+    private AccountBalanceShardRepository accountBalanceShardRepository;
+
+    private final List<String> accountNumbers = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        transactionRepository.deleteAll();
+        accountBalanceShardRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        accountNumbers.clear();
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String accountNumber = "LT0000000000000000" + (10 + i);
+            User user = userRepository.save(User.builder()
+                    .username("user" + i)
+                    .email("user" + i + "@gmail.com")
+                    .password("password")
+                    .role(Roles.ROLE_USER)
+                    .accountNumber(accountNumber)
+                    .build());
+            accountRepository.save(Account.builder()
+                    .accountNumber(accountNumber)
+                    .ownerName(user.getUsername())
+                    .balance(INITIAL_BALANCE)
+                    .user(user)
+                    .build());
+            accountNumbers.add(accountNumber);
+        }
+        shardedBalanceService.refresh();
+    }
+
+    @Test
+    @DisplayName("getTransactionsByUserId_ShouldPageThroughHistory_WithoutGapsOrDuplicates")
+    void getTransactionsByUserIdShouldPageThroughHistoryWithoutGapsOrDuplicates() {
+        String payer = accountNumbers.get(0);
+        List<TransactionRequestDTO> transfers = new ArrayList<>();
+        for (int i = 0; i < 45; i++) {
+            transfers.add(TransactionRequestDTO.builder()
+                    .senderAccountNumber(payer)
+                    .recipientAccountNumber(accountNumbers.get(1))
+                    .amount(BigDecimal.ONE)
+                    .build());
+        }
+        transactionService.transferBatch(BatchTransferRequestDTO.builder().transfers(transfers).build());
+        UUID userId = userRepository.findUserByUsername("user0").orElseThrow().getId();
+
+        Set<UUID> seen = new HashSet<>();
+        List<TransactionResponseDTO> history = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransactionPageResponseDTO page = transactionService.getTransactionsByUserId(userId, cursor, 10);
+            page.getTransactions().forEach(transaction -> assertTrue(seen.add(transaction.getTransactionId())));
+            history.addAll(page.getTransactions());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(45, history.size());
+        assertEquals(5, pages);
+        for (int i = 1; i < history.size(); i++) {
+            assertFalse(history.get(i).getTransactionDate().isAfter(history.get(i - 1).getTransactionDate()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getTransactionsByUserId(userId, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getTransactionsByUserId(userId, "not-a-cursor", 10));
+    }
+}
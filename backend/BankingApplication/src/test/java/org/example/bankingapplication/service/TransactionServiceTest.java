@@ -0,0 +1,177 @@
+package org.example.bankingapplication.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bankingapplication.cache.AccountNumberCache;
+import org.example.bankingapplication.cache.RecentWrites;
+import org.example.bankingapplication.dto.account.AccountBalanceView;
+import org.example.bankingapplication.dto.transaction.TransactionRequestDTO;
+import org.example.bankingapplication.dto.transaction.TransactionResponseDTO;
+import org.example.bankingapplication.enums.TransactionType;
+import org.example.bankingapplication.exceptions.AccountNotFoundException;
+import org.example.bankingapplication.journal.TransactionJournal;
+import org.example.bankingapplication.journal.TransactionLog;
+import org.example.bankingapplication.ledger.LedgerEngine;
+import org.example.bankingapplication.model.Transaction;
+import org.example.bankingapplication.repository.AccountRepository;
+import org.example.bankingapplication.repository.TransactionRepository;
+import org.example.bankingapplication.utils.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountNumberCache accountNumberCache;
+
+    @Mock
+    private TransactionJournal transactionJournal;
+
+    @Mock
+    private ShardedBalanceService shardedBalanceService;
+
+    @Mock
+    private LedgerEngine ledgerEngine;
+
+    @Mock
+    private TransactionLog transactionLog;
+
+    @Mock
+    private RecentWrites recentWrites;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private TransactionService transactionService;
+
+    private final String accountNumber = "LT123456789012345678";
+    private TransactionRequestDTO request;
+
+    @BeforeEach
+    void setup() {
+        request = TransactionRequestDTO.builder()
+                .senderAccountNumber(accountNumber)
+                .amount(new BigDecimal("25.00"))
+                .build();
+    }
+
+    @Test
+    @DisplayName("deposit_WhenAccountExists_CreditsInSingleUpdate")
+    void depositWhenAccountExistsCreditsInSingleUpdate() {
+        when(accountRepository.creditBalance(accountNumber, request.getAmount())).thenReturn(1);
+        when(accountRepository.findBalanceViewByAccountNumber(accountNumber)).thenReturn(Optional.of(new AccountBalanceView(new BigDecimal("125.00"), 2)));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionResponseDTO response = transactionService.deposit(request);
+
+        assertEquals(new BigDecimal("125.00"), response.getBalance());
+        assertEquals(TransactionType.DEPOSIT, response.getTransactionType());
+        verify(transactionRepository).save(argThat(transaction -> new BigDecimal("125.00").equals(transaction.getBalanceAfter())));
+        verify(accountRepository, never()).findByAccountNumber(any());
+        verify(accountRepository, never()).save(any());
+        verify(recentWrites).mark(accountNumber);
+    }
+
+    @Test
+    @DisplayName("deposit_WhenAccountMissing_ThrowsNotFound")
+    void depositWhenAccountMissingThrowsNotFound() {
+        when(accountRepository.creditBalance(accountNumber, request.getAmount())).thenReturn(0);
+
+        assertThrows(AccountNotFoundException.class, () -> transactionService.deposit(request));
+        verifyNoInteractions(transactionRepository, recentWrites);
+        assertEquals(1.0, meterRegistry.get("banking.transaction.outcomes")
+                .tags("operation", "deposit", "outcome", "account_not_found").counter().count());
+    }
+
+    @Test
+    @DisplayName("withdraw_WhenFundsAvailable_DebitsInSingleUpdate")
+    void withdrawWhenFundsAvailableDebitsInSingleUpdate() {
+        when(accountRepository.debitBalance(accountNumber, request.getAmount())).thenReturn(1);
+        when(accountRepository.findBalanceViewByAccountNumber(accountNumber)).thenReturn(Optional.of(new AccountBalanceView(new BigDecimal("75.00"), 2)));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionResponseDTO response = transactionService.withdraw(request);
+
+        assertEquals(new BigDecimal("75.00"), response.getBalance());
+        assertEquals(TransactionType.WITHDRAW, response.getTransactionType());
+        verify(accountRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("withdraw_WhenInsufficientFunds_ThrowsIllegalArgument")
+    void withdrawWhenInsufficientFundsThrowsIllegalArgument() {
+        when(accountRepository.debitBalance(accountNumber, request.getAmount())).thenReturn(0);
+        when(accountRepository.existsByAccountNumber(accountNumber)).thenReturn(true);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> transactionService.withdraw(request));
+        assertEquals("Insufficient funds", ex.getMessage());
+        verifyNoInteractions(transactionRepository);
+        assertEquals(1.0, meterRegistry.get("banking.transaction.outcomes")
+                .tags("operation", "withdraw", "outcome", "insufficient_funds").counter().count());
+    }
+
+    @Test
+    @DisplayName("withdraw_WhenAccountMissing_ThrowsNotFound")
+    void withdrawWhenAccountMissingThrowsNotFound() {
+        when(accountRepository.debitBalance(accountNumber, request.getAmount())).thenReturn(0);
+        when(accountRepository.existsByAccountNumber(accountNumber)).thenReturn(false);
+
+        assertThrows(AccountNotFoundException.class, () -> transactionService.withdraw(request));
+    }
+
+    @Test
+    @DisplayName("withdraw_WhenConcurrentDebitSweptShardsFirst_RetriesDebit")
+    void withdrawWhenConcurrentDebitSweptShardsFirstRetriesDebit() {
+        when(accountRepository.debitBalance(accountNumber, request.getAmount())).thenReturn(0, 1);
+        when(shardedBalanceService.isSharded(accountNumber)).thenReturn(true);
+        when(shardedBalanceService.sweep(accountNumber)).thenReturn(BigDecimal.ZERO);
+        when(accountRepository.findBalanceViewByAccountNumber(accountNumber)).thenReturn(Optional.of(new AccountBalanceView(new BigDecimal("5.00"), 3)));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionResponseDTO response = transactionService.withdraw(request);
+
+        assertEquals(new BigDecimal("5.00"), response.getBalance());
+        verify(accountRepository, never()).creditBalance(any(), any());
+    }
+
+    @Test
+    @DisplayName("checkAmount_WhenNotPositive_Throws")
+    void checkAmountWhenNotPositiveThrows() {
+        assertThrows(IllegalArgumentException.class, () -> transactionService.checkAmount(BigDecimal.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.checkAmount(null));
+    }
+
+    @Test
+    @DisplayName("checkAmount_WhenFinerThanCents_Throws")
+    void checkAmountWhenFinerThanCentsThrows() {
+        assertThrows(IllegalArgumentException.class, () -> transactionService.checkAmount(new BigDecimal("10.005")));
+        assertEquals(new Money(1050), transactionService.checkAmount(new BigDecimal("10.500")));
+    }
+}
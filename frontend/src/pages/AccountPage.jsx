@@ -5,6 +5,12 @@ import UserContext from '../context/UserContext';
 import { postDeposit, postTransfer, postWithdraw } from '../services/post';
 import { toast } from 'react-toastify';
 
+// Newer transactions first, each transaction once.
+const mergeTransactions = (newer, older) => {
+  const seen = new Set(newer.map((transaction) => transaction.transactionId));
+  return [...newer, ...older.filter((transaction) => !seen.has(transaction.transactionId))];
+};
+
 const AccountPage = () => {
   const { token } = useContext(UserContext);
   const [accountData, setAccountData] = useState(null);
@@ -17,6 +23,8 @@ const AccountPage = () => {
   const [targetAccount, setTargetAccount] = useState('');
   const [recipientAccount, setRecipientAccount] = useState('');
   const [transactions, setTransactions] = useState([]);
+  const [nextCursor, setNextCursor] = useState(undefined);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   const refreshIntervalRef = useRef(null);
 
@@ -41,7 +49,10 @@ const AccountPage = () => {
       ]);
 
       setAccountData(accountData);
-      setTransactions(transactionsData);
+      // The refresh only fetches the newest page; older pages the user has loaded are kept below it, and the
+      // cursor of the first load still points past the oldest of them.
+      setTransactions((current) => mergeTransactions(transactionsData.transactions, current));
+      setNextCursor((current) => (current === undefined ? transactionsData.nextCursor ?? null : current));
       setLoading(false);
     } catch (err) {
       setError(err.message);
@@ -61,6 +72,20 @@ const AccountPage = () => {
     };
   }, [token]);
 
+  const loadMoreTransactions = async () => {
+    setLoadingMore(true);
+    try {
+      const page = await getUserTransactions(getUserIdFromToken(token), nextCursor);
+      setTransactions((current) => mergeTransactions(current, page.transactions));
+      setNextCursor(page.nextCursor ?? null);
+    } catch (error) {
+      toast.error('Error loading transactions');
+      console.error(error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   if (loading) return <p>Loading...</p>;
   if (!accountData) return <p>No account data available</p>;
 
@@ -356,6 +381,15 @@ const AccountPage = () => {
               })}
             </tbody>
           </table>
+          {nextCursor && (
+            <button
+              className='mt-4 w-full sm:w-auto px-4 sm:px-6 py-2 bg-gray-200 text-gray-700 rounded-lg shadow hover:bg-gray-300 disabled:opacity-50'
+              onClick={loadMoreTransactions}
+              disabled={loadingMore}
+            >
+              {loadingMore ? 'Loading...' : 'Load more'}
+            </button>
+          )}
         </div>
       </main>
     </>
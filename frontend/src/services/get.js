@@ -16,12 +16,15 @@ export const getAccountDataByUserId = async (userId) => {
   }
 };
 
-export const getUserTransactions = async (userId) => {
+// Returns one page of history, newest first: { transactions, nextCursor }. Pass the previous
+// page's nextCursor to get the page after it; nextCursor is absent on the last page.
+export const getUserTransactions = async (userId, cursor) => {
   try {
     const resp = await axios.get(`${API_URL}/api/v1/account/transactions/user/${userId}`, {
       headers: {
         Authorization: `Bearer ${token}`,
       },
+      params: { cursor },
     });
     return resp.data;
   } catch (error) {